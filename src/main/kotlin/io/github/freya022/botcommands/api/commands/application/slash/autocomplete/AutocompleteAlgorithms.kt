@@ -2,11 +2,29 @@ package io.github.freya022.botcommands.api.commands.application.slash.autocomple
 
 import info.debatty.java.stringsimilarity.NGram
 import net.dv8tion.jda.api.interactions.commands.build.OptionData
+import java.util.*
+import java.util.concurrent.ForkJoinPool
+import java.util.stream.IntStream
 
 object AutocompleteAlgorithms {
     private val biGram = NGram(2)
     private val triGram = NGram(3)
 
+    /**
+     * Number of items from which the top-K algorithms, and [FuzzyIndex],
+     * score items in parallel, on the [common fork-join pool][ForkJoinPool.commonPool].
+     *
+     * Smaller collections are scored sequentially, as splitting the work would cost more than it saves,
+     * they are also iterated directly, instead of being copied to a list when they are not one.
+     *
+     * This is read on each call, and is meant to be set once, at startup.
+     *
+     * **Default:** `50000`
+     */
+    @JvmStatic
+    @Volatile
+    var parallelismThreshold: Int = 50_000
+
     /**
      * Sorts the item with fuzzing matching, the [OptionData.MAX_CHOICES] most relevant results should appear at the top
      *
@@ -23,18 +41,35 @@ object AutocompleteAlgorithms {
         val list = sortedSetOf<FuzzyResult<T>>()
         items.forEach {
             val str = toStringFunction.toString(it)
-            val algo = when {
-                str.length < 3 || query.length < 3 -> biGram
-                else -> triGram
-            }
-
-            val distance = algo.distance(str, query)
-            list += FuzzyResult(it, str, distance)
+            list += FuzzyResult(it, str, distance(str, query))
         }
 
         return list
     }
 
+    /**
+     * Returns the [limit] most relevant items with fuzzing matching, sorted by relevance
+     *
+     * This is the same as [fuzzyMatching], except only the top results are kept,
+     * which avoids sorting every item.
+     *
+     * @param items            The items to sort
+     * @param toStringFunction The function to transform an item into a String
+     * @param query            The query to match items against
+     * @param limit            The maximum number of results
+     *
+     * @return A list of the most relevant results, with the scores of each item
+     *
+     * @see FuzzyIndex
+     */
+    @JvmStatic
+    fun <T> fuzzyMatching(items: Collection<T>, toStringFunction: ToStringFunction<T>, query: String, limit: Int): List<FuzzyResult<T>> {
+        return selectTopItems(items, limit) { item ->
+            val str = toStringFunction.toString(item)
+            add(item, str, distance(str, query))
+        }
+    }
+
     /**
      * Sorts the item with fuzzing matching, the [OptionData.MAX_CHOICES] most relevant results should appear at the top
      *
@@ -57,15 +92,143 @@ object AutocompleteAlgorithms {
             val str = toStringFunction.toString(it)
             if (!str.startsWith(query, ignoreCase = true)) return@forEach
 
-            val algo = when {
-                str.length < 3 || query.length < 3 -> biGram
-                else -> triGram
-            }
-
-            val distance = algo.distance(str, query)
-            list += FuzzyResult(it, str, distance)
+            list += FuzzyResult(it, str, distance(str, query))
         }
 
         return list
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the [limit] most relevant items with fuzzing matching, sorted by relevance
+     *
+     * This is the same as [fuzzyMatchingWithContinuity], except only the top results are kept,
+     * which avoids sorting every item.
+     *
+     * @param items            The items to sort
+     * @param toStringFunction The function to transform an item into a String
+     * @param query            The query to match items against
+     * @param limit            The maximum number of results
+     *
+     * @return A list of the most relevant results, with the scores of each item
+     *
+     * @see FuzzyIndex
+     */
+    @JvmStatic
+    fun <T> fuzzyMatchingWithContinuity(
+        items: Collection<T>,
+        toStringFunction: ToStringFunction<T>,
+        query: String,
+        limit: Int
+    ): List<FuzzyResult<T>> {
+        return selectTopItems(items, limit) { item ->
+            val str = toStringFunction.toString(item)
+            if (str.startsWith(query, ignoreCase = true))
+                add(item, str, distance(str, query))
+        }
+    }
+
+    internal fun distance(str: String, query: String): Double {
+        val algo = when {
+            str.length < 3 || query.length < 3 -> biGram
+            else -> triGram
+        }
+
+        return algo.distance(str, query)
+    }
+
+    private inline fun <T> selectTopItems(
+        items: Collection<T>,
+        limit: Int,
+        crossinline addItem: FuzzyResultSelector<T>.(item: T) -> Unit
+    ): List<FuzzyResult<T>> {
+        val threshold = parallelismThreshold
+        // Sequential scoring does not need indexes, no need to copy the collection
+        if (items.size < threshold) {
+            val selector = FuzzyResultSelector<T>(limit)
+            items.forEach { selector.addItem(it) }
+            return selector.toSortedList()
+        }
+
+        val itemList = if (items is List<T> && items is RandomAccess) items else items.toList()
+        return selectTopResults(0, itemList.size, limit, threshold) { i -> addItem(itemList[i]) }
+    }
+}
+
+/**
+ * Returns the [limit] best results out of the indexes between [from] (inclusive) and [until] (exclusive),
+ * using [addResult] to score the item at an index.
+ *
+ * Indexes are split in chunks scored on the common fork-join pool
+ * if there are at least [parallelismThreshold] of them,
+ * the best results of each chunk are then merged.
+ */
+internal fun <T> selectTopResults(
+    from: Int,
+    until: Int,
+    limit: Int,
+    parallelismThreshold: Int = AutocompleteAlgorithms.parallelismThreshold,
+    addResult: FuzzyResultSelector<T>.(index: Int) -> Unit
+): List<FuzzyResult<T>> {
+    val size = until - from
+    if (size < parallelismThreshold) {
+        val selector = FuzzyResultSelector<T>(limit)
+        for (i in from..<until) selector.addResult(i)
+        return selector.toSortedList()
+    }
+
+    // More chunks than threads, so threads finishing early can steal work
+    val chunkCount = ForkJoinPool.getCommonPoolParallelism().coerceAtLeast(1) * 4
+    val chunkSize = (size + chunkCount - 1) / chunkCount
+    val chunkSelectors = IntStream.range(0, chunkCount)
+        .parallel()
+        .mapToObj { chunk ->
+            val selector = FuzzyResultSelector<T>(limit)
+            val chunkStart = from + chunk * chunkSize
+            val chunkEnd = minOf(until, chunkStart + chunkSize)
+            for (i in chunkStart..<chunkEnd) selector.addResult(i)
+            selector
+        }
+        .toList()
+
+    // Merge in order, so earlier items are kept on equal results, as with the sequential path
+    val selector = FuzzyResultSelector<T>(limit)
+    chunkSelectors.forEach(selector::addAll)
+    return selector.toSortedList()
+}
+
+/**
+ * Keeps the [limit] smallest [FuzzyResult], using a bounded heap.
+ *
+ * On equal results, the first added one is kept, as with a sorted set.
+ */
+internal class FuzzyResultSelector<T>(private val limit: Int) {
+    // Worst result at the head
+    private val heap = PriorityQueue<FuzzyResult<T>>(limit.coerceAtLeast(1), Collections.reverseOrder())
+
+    fun add(item: T, string: String, distance: Double) {
+        if (limit <= 0) return
+        if (heap.size < limit) {
+            heap += FuzzyResult(item, string, distance)
+            return
+        }
+
+        val worst = heap.peek()
+        // Only construct the result if it is better than the worst one
+        if (distance > worst.distance || (distance == worst.distance && string >= worst.string)) return
+
+        heap.poll()
+        heap += FuzzyResult(item, string, distance)
+    }
+
+    fun addAll(other: FuzzyResultSelector<T>) {
+        other.heap.forEach { add(it.item, it.string, it.distance) }
+    }
+
+    fun toSortedList(): List<FuzzyResult<T>> = heap.sortedWith { a, b -> compareResults(a, b) }
+
+    private fun compareResults(a: FuzzyResult<T>, b: FuzzyResult<T>): Int {
+        val distanceCompare = a.distance.compareTo(b.distance)
+        if (distanceCompare != 0) return distanceCompare
+        return a.string.compareTo(b.string)
+    }
+}
@@ -0,0 +1,95 @@
+package io.github.freya022.botcommands.api.commands.application.slash.autocomplete
+
+import net.dv8tion.jda.api.interactions.commands.build.OptionData
+
+/**
+ * Index of items which can be matched against queries multiple times,
+ * such as when the same collection is used on every autocomplete interaction.
+ *
+ * The strings of each item are computed once, on creation,
+ * and only the [limit] most relevant results are kept when answering queries.
+ *
+ * Items are also sorted case-insensitively,
+ * so queries requiring a prefix only check the items starting with the query.
+ *
+ * Large indexes are scored in parallel, see [AutocompleteAlgorithms.parallelismThreshold].
+ *
+ * **Note:** The index does not reflect changes made to the collection after its creation.
+ *
+ * @param items            The items to index
+ * @param toStringFunction The function to transform an item into a String
+ *
+ * @see AutocompleteAlgorithms
+ */
+class FuzzyIndex<T>(items: Collection<T>, toStringFunction: ToStringFunction<T>) {
+    private val items: List<T>
+    private val strings: Array<String>
+
+    init {
+        // Sorted case-insensitively, so items sharing a prefix are contiguous
+        val entries = items
+            .map { it to toStringFunction.toString(it) }
+            .sortedWith { (_, a), (_, b) -> String.CASE_INSENSITIVE_ORDER.compare(a, b) }
+        this.items = entries.map { it.first }
+        this.strings = Array(entries.size) { entries[it].second }
+    }
+
+    /**
+     * The number of indexed items.
+     */
+    val size: Int get() = strings.size
+
+    /**
+     * Returns the [limit] most relevant items with fuzzing matching, sorted by relevance.
+     *
+     * @param query The query to match items against
+     * @param limit The maximum number of results
+     *
+     * @see AutocompleteAlgorithms.fuzzyMatching
+     */
+    @JvmOverloads
+    fun fuzzyMatching(query: String, limit: Int = OptionData.MAX_CHOICES): List<FuzzyResult<T>> {
+        return selectTopResults(0, strings.size, limit) { i ->
+            val str = strings[i]
+            add(items[i], str, AutocompleteAlgorithms.distance(str, query))
+        }
+    }
+
+    /**
+     * Returns the [limit] most relevant items with fuzzing matching, sorted by relevance,
+     * only the items starting with the query are included.
+     *
+     * @param query The query to match items against
+     * @param limit The maximum number of results
+     *
+     * @see AutocompleteAlgorithms.fuzzyMatchingWithContinuity
+     */
+    @JvmOverloads
+    fun fuzzyMatchingWithContinuity(query: String, limit: Int = OptionData.MAX_CHOICES): List<FuzzyResult<T>> {
+        val start = findFirstNotBefore(query)
+        var end = start
+        while (end < strings.size && strings[end].startsWith(query, ignoreCase = true)) end++
+
+        return selectTopResults(start, end, limit) { i ->
+            val str = strings[i]
+            add(items[i], str, AutocompleteAlgorithms.distance(str, query))
+        }
+    }
+
+    /**
+     * Returns the index of the first string which is not lower than the [query].
+     */
+    private fun findFirstNotBefore(query: String): Int {
+        var low = 0
+        var high = strings.size
+        while (low < high) {
+            val mid = (low + high) ushr 1
+            if (String.CASE_INSENSITIVE_ORDER.compare(strings[mid], query) < 0) {
+                low = mid + 1
+            } else {
+                high = mid
+            }
+        }
+        return low
+    }
+}
@@ -10,6 +10,7 @@ import io.github.freya022.botcommands.api.core.config.BConfigBuilder
 import net.dv8tion.jda.api.entities.Guild
 import net.dv8tion.jda.api.entities.User
 import net.dv8tion.jda.api.entities.channel.Channel
+import java.util.concurrent.TimeUnit
 
 /**
  * Enables autocomplete caching.
@@ -95,5 +96,29 @@ annotation class CacheAutocomplete(
      *
      * @see AutocompleteCacheInfoBuilder.channelLocal
      */
-    val channelLocal: Boolean = false
+    val channelLocal: Boolean = false,
+
+    /**
+     * Duration, in [durationUnit], after which cached choices are evicted, forcing them to be computed again.
+     *
+     * Non-positive values disable time-based expiration.
+     *
+     * @see AutocompleteCacheInfoBuilder.expireAfterWrite
+     */
+    val expireAfterWrite: Long = 0,
+
+    /**
+     * Duration, in [durationUnit], after which cached choices are considered stale,
+     * stale choices are still returned immediately while new ones are computed in the background.
+     *
+     * Non-positive values disable refreshing.
+     *
+     * @see AutocompleteCacheInfoBuilder.refreshAfterWrite
+     */
+    val refreshAfterWrite: Long = 0,
+
+    /**
+     * The unit of [expireAfterWrite] and [refreshAfterWrite].
+     */
+    val durationUnit: TimeUnit = TimeUnit.SECONDS
 )
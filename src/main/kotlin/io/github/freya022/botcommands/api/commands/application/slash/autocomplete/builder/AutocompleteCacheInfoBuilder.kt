@@ -3,6 +3,10 @@ package io.github.freya022.botcommands.api.commands.application.slash.autocomple
 import io.github.freya022.botcommands.api.commands.application.slash.autocomplete.annotations.CacheAutocomplete
 import io.github.freya022.botcommands.api.core.config.BConfig
 import io.github.freya022.botcommands.api.core.config.BConfigBuilder
+import io.github.freya022.botcommands.api.core.config.BCoroutineScopesConfig
+import kotlin.time.Duration
+import kotlin.time.toKotlinDuration
+import java.time.Duration as JavaDuration
 
 interface AutocompleteCacheInfoBuilder {
     /**
@@ -39,4 +43,47 @@ interface AutocompleteCacheInfoBuilder {
      * @see CacheAutocomplete.channelLocal
      */
     var channelLocal: Boolean
+
+    /**
+     * Duration after which cached choices are evicted, forcing them to be computed again.
+     *
+     * `null`, non-positive and infinite durations disable time-based expiration,
+     * cached choices are then only evicted when the cache is full.
+     *
+     * **Default:** `null`
+     *
+     * @see CacheAutocomplete.expireAfterWrite
+     */
+    var expireAfterWrite: Duration?
+
+    /**
+     * Duration after which cached choices are considered stale.
+     *
+     * Stale choices are still returned immediately,
+     * while new choices are computed in the background, on the [autocomplete refresh scope][BCoroutineScopesConfig.autocompleteRefreshScope].
+     * This avoids computing slow choices while the user waits, if they were already computed once.
+     *
+     * When used with [expireAfterWrite], this must be lower than the expiration duration.
+     *
+     * `null`, non-positive and infinite durations disable refreshing.
+     *
+     * **Default:** `null`
+     *
+     * @see CacheAutocomplete.refreshAfterWrite
+     */
+    var refreshAfterWrite: Duration?
+
+    /**
+     * @see expireAfterWrite
+     */
+    fun expireAfterWrite(duration: JavaDuration?) {
+        expireAfterWrite = duration?.toKotlinDuration()
+    }
+
+    /**
+     * @see refreshAfterWrite
+     */
+    fun refreshAfterWrite(duration: JavaDuration?) {
+        refreshAfterWrite = duration?.toKotlinDuration()
+    }
 }
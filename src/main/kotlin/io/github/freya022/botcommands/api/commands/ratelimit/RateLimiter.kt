@@ -3,6 +3,8 @@ package io.github.freya022.botcommands.api.commands.ratelimit
 import com.zaxxer.hikari.HikariDataSource
 import io.github.bucket4j.BucketConfiguration
 import io.github.bucket4j.distributed.proxy.ProxyManager
+import io.github.bucket4j.distributed.proxy.optimization.Optimization
+import io.github.bucket4j.distributed.proxy.optimization.Optimizations
 import io.github.freya022.botcommands.api.commands.ratelimit.RateLimiter.Companion.createDefault
 import io.github.freya022.botcommands.api.commands.ratelimit.RateLimiter.Companion.createDefaultProxied
 import io.github.freya022.botcommands.api.commands.ratelimit.bucket.*
@@ -151,5 +153,34 @@ interface RateLimiter : BucketAccessor, RateLimitHandler {
             deleteOnRefill: Boolean = true,
         ): RateLimiter =
             DefaultProxyRateLimiter(scope, proxyManager, configurationSupplier, deleteOnRefill)
+
+        /**
+         * Creates a [RateLimiter] implementation which retrieves its buckets using [proxyManager],
+         * and synchronizes with it less often using the [optimization],
+         * see [DefaultRateLimitHandler] and [OptimizedProxyBucketAccessor] for details.
+         *
+         * The requirements are the same as [createDefaultProxied].
+         *
+         * @param scope                 Scope of the rate limit, see [RateLimitScope] values.
+         * @param proxyManager          The proxy supplying buckets from a key, based on the [scope]
+         * @param configurationSupplier A supplier of [BucketConfiguration], describing the rate limits
+         * @param optimization          The optimization reducing the number of remote requests, see [Optimizations]
+         * @param deleteOnRefill        Whether the rate limit message should be deleted after expiring
+         *
+         * @see DefaultRateLimitHandler
+         * @see OptimizedProxyBucketAccessor
+         *
+         * @see RateLimitScope
+         * @see Buckets
+         */
+        @JvmStatic
+        fun createDefaultProxied(
+            scope: RateLimitScope,
+            proxyManager: ProxyManager<String>,
+            configurationSupplier: BucketConfigurationSupplier,
+            optimization: Optimization,
+            deleteOnRefill: Boolean = true,
+        ): RateLimiter =
+            DefaultProxyRateLimiter(scope, proxyManager, configurationSupplier, deleteOnRefill, optimization)
     }
 }
\ No newline at end of file
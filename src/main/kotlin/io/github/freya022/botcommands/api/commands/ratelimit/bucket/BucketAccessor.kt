@@ -14,6 +14,7 @@ import net.dv8tion.jda.api.events.message.MessageReceivedEvent
  *
  * @see InMemoryBucketAccessor
  * @see ProxyBucketAccessor
+ * @see OptimizedProxyBucketAccessor
  */
 interface BucketAccessor {
     suspend fun getBucket(context: BContext, event: MessageReceivedEvent, commandInfo: TextCommandInfo): Bucket
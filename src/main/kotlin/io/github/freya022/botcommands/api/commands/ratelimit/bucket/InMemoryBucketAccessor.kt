@@ -1,5 +1,9 @@
 package io.github.freya022.botcommands.api.commands.ratelimit.bucket
 
+import com.github.benmanes.caffeine.cache.Cache
+import com.github.benmanes.caffeine.cache.Caffeine
+import com.github.benmanes.caffeine.cache.Expiry
+import com.github.benmanes.caffeine.cache.Scheduler
 import io.github.bucket4j.Bucket
 import io.github.bucket4j.BucketConfiguration
 import io.github.bucket4j.local.LocalBucket
@@ -10,7 +14,6 @@ import io.github.freya022.botcommands.api.commands.text.TextCommandInfo
 import io.github.freya022.botcommands.api.components.ratelimit.ComponentRateLimitReference
 import io.github.freya022.botcommands.api.core.BContext
 import io.github.freya022.botcommands.internal.utils.throwInternal
-import io.github.freya022.botcommands.internal.utils.uniqueCommandPath
 import io.github.oshai.kotlinlogging.KotlinLogging
 import net.dv8tion.jda.api.events.interaction.command.GenericCommandInteractionEvent
 import net.dv8tion.jda.api.events.interaction.component.GenericComponentInteractionCreateEvent
@@ -19,6 +22,7 @@ import net.dv8tion.jda.api.interactions.Interaction
 import net.dv8tion.jda.api.interactions.commands.CommandInteraction
 import net.dv8tion.jda.api.interactions.components.ComponentInteraction
 import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicInteger
 
 private val logger = KotlinLogging.logger { }
 
@@ -28,86 +32,147 @@ private val logger = KotlinLogging.logger { }
  * **Note:** The rate limit scopes using guilds or channels are limited to guild-only events,
  * a user rate limit is applied if the limitation is violated.
  *
+ * ### Eviction
+ * Buckets are removed once they are fully refilled, as they are then identical to new buckets,
+ * the time to refill is computed from the [bandwidths][BucketConfiguration.getBandwidths] of each bucket.
+ *
+ * Buckets may also be evicted earlier if there are more than [maximumSize] of them,
+ * which resets the rate limit of the evicted buckets.
+ *
  * @param scope                 Scope of the rate limit, see [RateLimitScope] values.
  * @param configurationSupplier A supplier of [BucketConfiguration], describing the rate limits
+ * @param maximumSize           The maximum number of buckets kept in memory
  */
-class InMemoryBucketAccessor(
+class InMemoryBucketAccessor @JvmOverloads constructor(
     private val scope: RateLimitScope,
-    private val configurationSupplier: BucketConfigurationSupplier
+    private val configurationSupplier: BucketConfigurationSupplier,
+    maximumSize: Long = 1_000_000
 ) : BucketAccessor {
 
-    private sealed interface Key {
-        override fun equals(other: Any?): Boolean
-        override fun hashCode(): Int
-    }
+    /**
+     * Only holds primitives, so hashing and comparing keys does not go through the identifiers.
+     *
+     * @param identifierId  The interned ID of the command path, or of the component rate limit reference
+     * @param discriminator The command ID for application commands, as guild commands share the same path
+     * @param placeId       The guild or channel ID, `0` if the scope has no place
+     * @param userId        The user ID, `0` if the scope has no user
+     */
+    private data class Key(
+        private val identifierId: Int,
+        private val discriminator: Long,
+        private val placeId: Long,
+        private val userId: Long
+    )
 
-    private data class UserKey(private val identifier: String, private val id: Long) : Key
-    private data class PlaceKey(private val identifier: String, private val id: Long) : Key
-    private data class UserAtPlaceKey(private val identifier: String, private val placeId: Long, private val userId: Long) : Key
+    // Identifiers are interned the first time they are rate limited, there is one per command or rate limit reference
+    private val identifierIds: MutableMap<Any, Int> = ConcurrentHashMap()
+    private val nextIdentifierId = AtomicInteger()
 
-    private val map: MutableMap<Key, Bucket> = ConcurrentHashMap()
+    private val buckets: Cache<Key, LocalBucket> = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfter(RefillExpiry)
+        // Removes refilled buckets even if the cache is not used
+        .scheduler(Scheduler.systemScheduler())
+        .build()
 
+    /**
+     * The approximate number of buckets currently kept in memory.
+     */
+    val bucketCount: Long
+        get() = buckets.estimatedSize()
+
+    // Existing buckets are looked up first, to avoid allocating the capturing lambda
     override suspend fun getBucket(context: BContext, event: MessageReceivedEvent, commandInfo: TextCommandInfo): Bucket {
-        return map.computeIfAbsent(commandInfo.getRateLimitKey(event)) {
+        val key = commandInfo.getRateLimitKey(event)
+        return buckets.getIfPresent(key) ?: buckets.get(key) {
             configurationSupplier.getConfiguration(context, event, commandInfo).toBucket()
         }
     }
 
     private fun TextCommandInfo.getRateLimitKey(event: MessageReceivedEvent): Key {
         if (!event.isFromGuild) throwInternal("Invalid rate limit scope for text commands")
+        val identifierId = internIdentifier(path.fullPath)
         return when (scope) {
-            USER -> UserKey(path.fullPath, event.author.idLong)
-            USER_PER_GUILD -> UserAtPlaceKey(path.fullPath, event.guild.idLong, event.author.idLong)
-            USER_PER_CHANNEL -> UserAtPlaceKey(path.fullPath, event.channel.idLong, event.author.idLong)
-            GUILD -> PlaceKey(path.fullPath, event.guild.idLong)
-            CHANNEL -> PlaceKey(path.fullPath, event.channel.idLong)
+            USER -> Key(identifierId, 0, 0, event.author.idLong)
+            USER_PER_GUILD -> Key(identifierId, 0, event.guild.idLong, event.author.idLong)
+            USER_PER_CHANNEL -> Key(identifierId, 0, event.channel.idLong, event.author.idLong)
+            GUILD -> Key(identifierId, 0, event.guild.idLong, 0)
+            CHANNEL -> Key(identifierId, 0, event.channel.idLong, 0)
         }
     }
 
     override suspend fun getBucket(context: BContext, event: GenericCommandInteractionEvent, commandInfo: ApplicationCommandInfo): Bucket {
-        return map.computeIfAbsent(getRateLimitKey(event)) {
+        val key = getRateLimitKey(event, commandInfo)
+        return buckets.getIfPresent(key) ?: buckets.get(key) {
             configurationSupplier.getConfiguration(context, event, commandInfo).toBucket()
         }
     }
 
     override suspend fun getBucket(context: BContext, event: GenericComponentInteractionCreateEvent, rateLimitReference: ComponentRateLimitReference): Bucket {
-        return map.computeIfAbsent(getRateLimitKey(event, rateLimitReference)) {
+        val key = getRateLimitKey(event, rateLimitReference)
+        return buckets.getIfPresent(key) ?: buckets.get(key) {
             configurationSupplier.getConfiguration(context, event).toBucket()
         }
     }
 
+    private fun internIdentifier(identifier: Any): Int =
+        identifierIds[identifier] ?: identifierIds.computeIfAbsent(identifier) { nextIdentifierId.getAndIncrement() }
+
+    // Buckets are only consumed after being retrieved, so they are refilled at most after the time to refill from empty
+    private object RefillExpiry : Expiry<Key, LocalBucket> {
+        override fun expireAfterCreate(key: Key, value: LocalBucket, currentTime: Long): Long =
+            value.configuration.getNanosToFullRefill()
+
+        override fun expireAfterUpdate(key: Key, value: LocalBucket, currentTime: Long, currentDuration: Long): Long =
+            value.configuration.getNanosToFullRefill()
+
+        override fun expireAfterRead(key: Key, value: LocalBucket, currentTime: Long, currentDuration: Long): Long =
+            value.configuration.getNanosToFullRefill()
+    }
+
     private fun BucketConfiguration.toBucket(): LocalBucket {
         return Bucket.builder()
             .apply { bandwidths.forEach(::addLimit) }
             .build()
     }
 
-    private fun getRateLimitKey(event: CommandInteraction): Key {
-        return getRateLimitKey(event, event.uniqueCommandPath)
+    private fun getRateLimitKey(event: CommandInteraction, commandInfo: ApplicationCommandInfo): Key {
+        // Equivalent to the unique command path, without building it
+        return getRateLimitKey(event, commandInfo.path.fullPath, event.commandIdLong)
     }
 
     private fun getRateLimitKey(event: ComponentInteraction, reference: ComponentRateLimitReference): Key {
-        return getRateLimitKey(event, reference.toBucketKey())
+        return getRateLimitKey(event, reference, 0)
     }
 
-    private fun getRateLimitKey(event: Interaction, identifier: String): Key {
+    private fun getRateLimitKey(event: Interaction, identifier: Any, discriminator: Long): Key {
+        val identifierId = internIdentifier(identifier)
         if (scope.isGuild && !event.isFromGuild) {
             logger.warn { "Cannot get a bucket with the $scope scope outside of a guild, using the user ID instead." }
-            return UserKey(identifier, event.user.idLong)
+            return Key(identifierId, discriminator, 0, event.user.idLong)
         }
 
         return when (scope) {
-            USER -> UserKey(identifier, event.user.idLong)
+            USER -> Key(identifierId, discriminator, 0, event.user.idLong)
             USER_PER_GUILD -> {
                 val guild = event.guild ?: throwInternal("Guild should be present")
-                UserAtPlaceKey(identifier, guild.idLong, event.user.idLong)
+                Key(identifierId, discriminator, guild.idLong, event.user.idLong)
             }
-            USER_PER_CHANNEL -> UserAtPlaceKey(identifier, event.channelIdLong, event.user.idLong)
+            USER_PER_CHANNEL -> Key(identifierId, discriminator, event.channelIdLong, event.user.idLong)
             GUILD -> {
                 val guild = event.guild ?: throwInternal("Guild should be present")
-                PlaceKey(identifier, guild.idLong)
+                Key(identifierId, discriminator, guild.idLong, 0)
             }
-            CHANNEL -> PlaceKey(identifier, event.channelIdLong)
+            CHANNEL -> Key(identifierId, discriminator, event.channelIdLong, 0)
         }
     }
-}
\ No newline at end of file
+}
+
+/**
+ * Returns the time required for an empty bucket with this configuration to be fully refilled.
+ */
+internal fun BucketConfiguration.getNanosToFullRefill(): Long = bandwidths.maxOf { bandwidth ->
+    val refillCount = (bandwidth.capacity + bandwidth.refillTokens - 1) / bandwidth.refillTokens
+    if (refillCount > Long.MAX_VALUE / bandwidth.refillPeriodNanos) Long.MAX_VALUE
+    else refillCount * bandwidth.refillPeriodNanos
+}
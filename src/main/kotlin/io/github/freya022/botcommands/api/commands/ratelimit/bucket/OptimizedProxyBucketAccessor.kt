@@ -0,0 +1,102 @@
+package io.github.freya022.botcommands.api.commands.ratelimit.bucket
+
+import com.github.benmanes.caffeine.cache.Cache
+import com.github.benmanes.caffeine.cache.Caffeine
+import io.github.bucket4j.Bucket
+import io.github.bucket4j.BucketConfiguration
+import io.github.bucket4j.distributed.proxy.ProxyManager
+import io.github.bucket4j.distributed.proxy.optimization.DefaultOptimizationListener
+import io.github.bucket4j.distributed.proxy.optimization.DelayParameters
+import io.github.bucket4j.distributed.proxy.optimization.Optimization
+import io.github.bucket4j.distributed.proxy.optimization.Optimizations
+import io.github.freya022.botcommands.api.commands.application.ApplicationCommandInfo
+import io.github.freya022.botcommands.api.commands.text.TextCommandInfo
+import io.github.freya022.botcommands.api.components.ratelimit.ComponentRateLimitReference
+import io.github.freya022.botcommands.api.core.BContext
+import net.dv8tion.jda.api.events.interaction.command.GenericCommandInteractionEvent
+import net.dv8tion.jda.api.events.interaction.component.GenericComponentInteractionCreateEvent
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent
+import java.time.Duration as JavaDuration
+
+/**
+ * [BucketAccessor] implementation with a [ProxyManager] to retrieve buckets, and a key made using [keySupplier],
+ * which synchronizes with the remote storage less often than [ProxyBucketAccessor], using an [Optimization].
+ *
+ * As the optimization state is held by the bucket proxies,
+ * the proxies are kept in memory for [proxyRetention] after their last use.
+ *
+ * ### Accuracy
+ * The guarantees depend on the optimization:
+ * - [Optimizations.batching]: Concurrent consumptions on the same bucket are merged in a single request, without any loss of accuracy.
+ * - [Optimizations.delaying]: Consumptions are served locally, and synchronized once the [DelayParameters] thresholds are reached,
+ * buckets may be overconsumed by up to the number of unsynchronized tokens, on each instance of your bot.
+ * - [Optimizations.predicting]: Same as delaying, but also predicts the consumption of the other instances between synchronizations.
+ *
+ * Tokens consumed locally but not yet synchronized are lost if the proxy is evicted.
+ *
+ * ### Monitoring
+ * [statistics] reports how many consumptions were [merged][DefaultOptimizationListener.getMergeCount]
+ * and [skipped synchronization][DefaultOptimizationListener.getSkipCount].
+ *
+ * @param proxyManager          The proxy supplying buckets from a key
+ * @param keySupplier           Supplies the key to create/retrieve a bucket using the [proxyManager]
+ * @param configurationSupplier A supplier of [BucketConfiguration], describing the rate limits
+ * @param optimization          The optimization reducing the number of remote requests, see [Optimizations]
+ * @param proxyRetention        The duration after which an unused bucket proxy is dropped
+ * @param maximumProxies        The maximum number of bucket proxies kept in memory
+ *
+ * @see ProxyBucketAccessor
+ */
+class OptimizedProxyBucketAccessor<K : Any> @JvmOverloads constructor(
+    private val proxyManager: ProxyManager<K>,
+    private val keySupplier: BucketKeySupplier<K>,
+    private val configurationSupplier: BucketConfigurationSupplier,
+    optimization: Optimization,
+    proxyRetention: JavaDuration = JavaDuration.ofMinutes(10),
+    maximumProxies: Long = 100_000
+) : BucketAccessor {
+    /**
+     * Statistics of the synchronizations with the remote storage.
+     */
+    val statistics = DefaultOptimizationListener()
+
+    private val optimization: Optimization = optimization.withListener(statistics)
+    private val proxies: Cache<K, Bucket> = Caffeine.newBuilder()
+        .expireAfterAccess(proxyRetention)
+        .maximumSize(maximumProxies)
+        .build()
+
+    override suspend fun getBucket(
+        context: BContext,
+        event: MessageReceivedEvent,
+        commandInfo: TextCommandInfo
+    ): Bucket {
+        val key = keySupplier.getKey(context, event, commandInfo)
+        return getProxy(key) { configurationSupplier.getConfiguration(context, event, commandInfo) }
+    }
+
+    override suspend fun getBucket(
+        context: BContext,
+        event: GenericCommandInteractionEvent,
+        commandInfo: ApplicationCommandInfo
+    ): Bucket {
+        val key = keySupplier.getKey(context, event, commandInfo)
+        return getProxy(key) { configurationSupplier.getConfiguration(context, event, commandInfo) }
+    }
+
+    override suspend fun getBucket(context: BContext, event: GenericComponentInteractionCreateEvent, rateLimitReference: ComponentRateLimitReference): Bucket {
+        val key = keySupplier.getKey(context, event, rateLimitReference)
+        return getProxy(key) { configurationSupplier.getConfiguration(context, event) }
+    }
+
+    private fun getProxy(key: K, configurationSupplier: () -> BucketConfiguration): Bucket {
+        return proxies.get(key) {
+            // The proxy is retained, resolve the configuration now,
+            // so it doesn't keep the event and context of its first use
+            val configuration = configurationSupplier()
+            proxyManager.builder()
+                .withOptimization(optimization)
+                .build(key) { configuration }
+        }
+    }
+}
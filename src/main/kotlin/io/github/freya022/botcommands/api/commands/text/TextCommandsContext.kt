@@ -5,6 +5,7 @@ import io.github.freya022.botcommands.api.core.DefaultEmbedSupplier
 import io.github.freya022.botcommands.api.core.config.BTextConfig
 import io.github.freya022.botcommands.api.core.service.annotations.InterfacedService
 import net.dv8tion.jda.api.JDA
+import net.dv8tion.jda.api.entities.Guild
 import net.dv8tion.jda.api.entities.channel.middleman.GuildMessageChannel
 
 /**
@@ -69,6 +70,33 @@ interface TextCommandsContext {
      */
     fun getEffectivePrefixes(channel: GuildMessageChannel): List<String>
 
+    /**
+     * Invalidates the prefixes of the specified channel.
+     *
+     * Prefixes supplied by [TextPrefixSupplier.getPrefixes] are cached per channel when detecting commands,
+     * you must call this method when the prefixes of a channel change.
+     *
+     * @see TextPrefixSupplier
+     */
+    fun invalidatePrefixes(channel: GuildMessageChannel)
+
+    /**
+     * Invalidates the prefixes of the specified guild, and of all its channels.
+     *
+     * Prefixes supplied by [TextPrefixSupplier.getPrefixes] are cached per channel when detecting commands,
+     * you must call this method when the prefixes of a guild change.
+     *
+     * @see TextPrefixSupplier
+     */
+    fun invalidatePrefixes(guild: Guild)
+
+    /**
+     * Invalidates the prefixes of all guilds and channels.
+     *
+     * @see invalidatePrefixes
+     */
+    fun invalidatePrefixes()
+
     /**
      * Returns the preferred prefix this bot is able to respond to, in the specified guild,
      * or `null` if no prefix could be determined, in which case text commands are not usable.
@@ -10,6 +10,9 @@ import net.dv8tion.jda.api.entities.channel.middleman.GuildMessageChannel
  *
  * This overrides any other configured prefixes.
  *
+ * **Note:** Prefixes are cached per channel when detecting commands,
+ * you must [invalidate them][TextCommandsContext.invalidatePrefixes] when they change.
+ *
  * **Usage**: Register your instance as a service with [@BService][BService].
  *
  * @see getPrefixes
@@ -27,6 +30,11 @@ interface TextPrefixSupplier {
      *
      * Returning an empty list means the bot will not respond to commands in that guild.
      *
+     * **Note:** The returned prefixes are cached per channel when detecting commands, for up to 10 minutes,
+     * this function is only called again after the prefixes of the channel, or of its guild,
+     * were [invalidated][TextCommandsContext.invalidatePrefixes], after the cached prefixes expired,
+     * or after the channel was deleted or archived.
+     *
      * @param channel The channel in which the command is executed
      */
     fun getPrefixes(channel: GuildMessageChannel): List<String>
@@ -1,9 +1,11 @@
 package io.github.freya022.botcommands.api.components
 
 import io.github.freya022.botcommands.api.commands.ratelimit.declaration.RateLimitProvider
+import io.github.freya022.botcommands.api.components.builder.button.ButtonBuilder
 import io.github.freya022.botcommands.api.components.builder.group.ComponentGroupFactory
 import io.github.freya022.botcommands.api.components.ratelimit.ComponentRateLimitReference
 import io.github.freya022.botcommands.api.core.BContext
+import io.github.freya022.botcommands.internal.components.builder.button.AbstractButtonBuilder
 import io.github.freya022.botcommands.internal.components.controller.ComponentController
 import kotlinx.coroutines.runBlocking
 import net.dv8tion.jda.api.interactions.components.LayoutComponent
@@ -16,6 +18,38 @@ abstract class AbstractComponentFactory internal constructor(internal val compon
     fun group(vararg components: IGroupHolder): ComponentGroupFactory =
         ComponentGroupFactory(componentController, components)
 
+    /**
+     * Builds all the provided buttons at once.
+     *
+     * This is faster than building them one by one,
+     * as all components are created in a single database transaction,
+     * for example, when creating an entire action row.
+     *
+     * Builders are only marked as built if all components were created,
+     * they can be built again if the creation failed.
+     *
+     * @throws IllegalStateException If one of the builders was already built, or if a builder is present more than once
+     */
+    @JvmName("buildAll")
+    fun buildAllJava(builders: Collection<ButtonBuilder<*>>): List<Button> = runBlocking { buildAll(builders) }
+
+    /**
+     * Builds all the provided buttons at once.
+     *
+     * This is faster than building them one by one,
+     * as all components are created in a single database transaction,
+     * for example, when creating an entire action row.
+     *
+     * Builders are only marked as built if all components were created,
+     * they can be built again if the creation failed.
+     *
+     * @throws IllegalStateException If one of the builders was already built, or if a builder is present more than once
+     */
+    @JvmSynthetic
+    suspend fun buildAll(builders: Collection<ButtonBuilder<*>>): List<Button> {
+        return componentController.buildComponents(builders.map { it as AbstractButtonBuilder<*> })
+    }
+
     @JvmName("deleteComponents")
     fun deleteComponentsJava(vararg components: IdentifiableComponent) = deleteComponentsJava(components.asList())
 
@@ -9,21 +9,31 @@ interface IdentifiableComponent {
         @JvmStatic
         fun isCompatible(id: String): Boolean = ComponentController.isCompatibleComponent(id)
 
+        /**
+         * @throws IllegalArgumentException If the ID is not compatible, or is an in-memory component from a previous run
+         */
         @JvmStatic
         fun fromId(id: String): IdentifiableComponent {
             require(isCompatible(id)) {
                 "Incompatible component id: '$id'"
             }
+            val parsedId = requireNotNull(ComponentController.parseComponentIdOrNull(id)) {
+                "Component id '$id' is an in-memory component from a previous run"
+            }
             return object : IdentifiableComponent {
-                override val internalId = ComponentController.parseComponentId(id)
+                override val internalId = parsedId
             }
         }
 
+        /**
+         * Returns `null` if the ID is not compatible, or is an in-memory component from a previous run.
+         */
         @JvmStatic
         fun fromIdOrNull(id: String): IdentifiableComponent? {
             if (!isCompatible(id)) return null
+            val parsedId = ComponentController.parseComponentIdOrNull(id) ?: return null
             return object : IdentifiableComponent {
-                override val internalId = ComponentController.parseComponentId(id)
+                override val internalId = parsedId
             }
         }
     }
@@ -25,6 +25,37 @@ interface BComponentsConfig {
     @ConfigurationValue(path = "botcommands.components.enable", defaultValue = "false")
     val enable: Boolean
 
+    /**
+     * The maximum number of components kept in the in-memory component cache,
+     * allowing interactions on recently created or used components to skip the database.
+     *
+     * The cache is populated when components are created or retrieved,
+     * and entries are invalidated when components are deleted or have their timeout reset.
+     *
+     * **Note:** The cache assumes this instance is the only one modifying components,
+     * do not enable it if multiple bot instances share the same database.
+     *
+     * Default: `0` (disabled)
+     *
+     * Spring property: `botcommands.components.cacheSize`
+     */
+    @ConfigurationValue(path = "botcommands.components.cacheSize", defaultValue = "0")
+    val cacheSize: Int
+
+    /**
+     * Whether ephemeral components and ephemeral groups should be stored in memory,
+     * instead of the database.
+     *
+     * This avoids any database access when creating, using and deleting ephemeral components,
+     * but ephemeral groups can then only contain ephemeral components.
+     *
+     * Default: `false`
+     *
+     * Spring property: `botcommands.components.useInMemoryEphemeralStorage`
+     */
+    @ConfigurationValue(path = "botcommands.components.useInMemoryEphemeralStorage", defaultValue = "false")
+    val useInMemoryEphemeralStorage: Boolean
+
     /**
      * Allows loading component services,
      * such as [Components], [Buttons] and [SelectMenus].
@@ -45,6 +76,10 @@ interface BComponentsConfig {
 class BComponentsConfigBuilder internal constructor() : BComponentsConfig {
     @set:JvmName("enable")
     override var enable: Boolean = false
+    @set:JvmName("cacheSize")
+    override var cacheSize: Int = 0
+    @set:JvmName("useInMemoryEphemeralStorage")
+    override var useInMemoryEphemeralStorage: Boolean = false
 
     @Deprecated("Replaced by 'enable'", replaceWith = ReplaceWith("enable"))
     @set:JvmName("useComponents")
@@ -57,5 +92,7 @@ class BComponentsConfigBuilder internal constructor() : BComponentsConfig {
     @JvmSynthetic
     internal fun build() = object : BComponentsConfig {
         override val enable: Boolean = this@BComponentsConfigBuilder.enable
+        override val cacheSize: Int = this@BComponentsConfigBuilder.cacheSize
+        override val useInMemoryEphemeralStorage: Boolean = this@BComponentsConfigBuilder.useInMemoryEphemeralStorage
     }
 }
\ No newline at end of file
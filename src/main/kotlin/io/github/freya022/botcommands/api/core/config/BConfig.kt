@@ -7,6 +7,7 @@ import io.github.freya022.botcommands.api.core.BotOwners
 import io.github.freya022.botcommands.api.core.annotations.BEventListener
 import io.github.freya022.botcommands.api.core.requests.PriorityGlobalRestRateLimiter
 import io.github.freya022.botcommands.api.core.service.ClassGraphProcessor
+import io.github.freya022.botcommands.api.core.service.ScanIndex
 import io.github.freya022.botcommands.api.core.service.annotations.InjectedService
 import io.github.freya022.botcommands.api.core.utils.enumSetOf
 import io.github.freya022.botcommands.api.core.utils.loggerOf
@@ -136,6 +137,21 @@ interface BConfig {
     @ConfigurationValue("botcommands.core.ignoreRestRateLimiter", defaultValue = "false")
     val ignoreRestRateLimiter: Boolean
 
+    /**
+     * Loads the scanned classes from an index generated at build time, instead of scanning the classpath at startup.
+     *
+     * The index must be generated using [ScanIndex], with the same [packages] and [classes],
+     * if the index is missing or does not match, the classpath is scanned.
+     *
+     * Default: `false`
+     *
+     * Spring property: `botcommands.core.useScanIndex`
+     *
+     * @see ScanIndex
+     */
+    @ConfigurationValue("botcommands.core.useScanIndex", defaultValue = "false")
+    val useScanIndex: Boolean
+
     val classGraphProcessors: List<ClassGraphProcessor>
 
     @Suppress("DEPRECATION")
@@ -193,6 +209,8 @@ class BConfigBuilder internal constructor() : BConfig {
 
     override var ignoreRestRateLimiter: Boolean = false
 
+    override var useScanIndex: Boolean = false
+
     override val classGraphProcessors: MutableList<ClassGraphProcessor> = arrayListOf()
 
     @Suppress("DEPRECATION")
@@ -374,6 +392,7 @@ class BConfigBuilder internal constructor() : BConfig {
             override val ignoredIntents = this@BConfigBuilder.ignoredIntents.toImmutableSet()
             override val ignoredEventIntents = this@BConfigBuilder.ignoredEventIntents.toImmutableSet()
             override val ignoreRestRateLimiter = this@BConfigBuilder.ignoreRestRateLimiter
+            override val useScanIndex = this@BConfigBuilder.useScanIndex
             override val classGraphProcessors = this@BConfigBuilder.classGraphProcessors.toImmutableList()
             override val debugConfig = this@BConfigBuilder.debugConfig.build()
             override val serviceConfig = this@BConfigBuilder.serviceConfig.build()
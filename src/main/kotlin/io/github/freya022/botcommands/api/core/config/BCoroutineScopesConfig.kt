@@ -1,5 +1,6 @@
 package io.github.freya022.botcommands.api.core.config
 
+import io.github.freya022.botcommands.api.commands.application.slash.autocomplete.builder.AutocompleteCacheInfoBuilder
 import io.github.freya022.botcommands.api.core.annotations.BEventListener
 import io.github.freya022.botcommands.api.core.hooks.EventDispatcher
 import io.github.freya022.botcommands.api.core.service.annotations.InjectedService
@@ -24,6 +25,11 @@ interface BCoroutineScopesConfig {
     val modalScope: CoroutineScope                  //Should not be long-running
     val modalTimeoutScope: CoroutineScope           //Should not be long-running, spends time waiting
     val paginationTimeoutScope: CoroutineScope      //Should not be long-running
+    /**
+     * Used to refresh stale autocomplete choices in the background,
+     * see [AutocompleteCacheInfoBuilder.refreshAfterWrite].
+     */
+    val autocompleteRefreshScope: CoroutineScope    //Should not be long-running
 }
 
 fun interface CoroutineScopeFactory {
@@ -41,6 +47,7 @@ class BCoroutineScopesConfigBuilder internal constructor() : BCoroutineScopesCon
     override val modalScope: Nothing get() = throwArgument("Cannot get a coroutine scope from the builder")
     override val modalTimeoutScope: Nothing get() = throwArgument("Cannot get a coroutine scope from the builder")
     override val paginationTimeoutScope: Nothing get() = throwArgument("Cannot get a coroutine scope from the builder")
+    override val autocompleteRefreshScope: Nothing get() = throwArgument("Cannot get a coroutine scope from the builder")
 
     var commandUpdateScopeFactory: CoroutineScopeFactory = defaultFactory("Command updater", 0)
     var eventDispatcherScopeFactory: CoroutineScopeFactory = defaultFactory("Event dispatcher", 4)
@@ -51,6 +58,7 @@ class BCoroutineScopesConfigBuilder internal constructor() : BCoroutineScopesCon
     var modalScopeFactory: CoroutineScopeFactory = defaultFactory("Modal handler", 2)
     var modalTimeoutScopeFactory: CoroutineScopeFactory = defaultFactory("Modal timeout handler", 2)
     var paginationTimeoutScopeFactory: CoroutineScopeFactory = defaultFactory("Pagination timeout handler", 2)
+    var autocompleteRefreshScopeFactory: CoroutineScopeFactory = defaultFactory("Autocomplete refresher", 2)
 
     /**
      * Creates a new coroutine scope factory out of an executor.
@@ -87,5 +95,6 @@ class BCoroutineScopesConfigBuilder internal constructor() : BCoroutineScopesCon
         override val modalScope = modalScopeFactory.create()
         override val modalTimeoutScope = modalTimeoutScopeFactory.create()
         override val paginationTimeoutScope = paginationTimeoutScopeFactory.create()
+        override val autocompleteRefreshScope = autocompleteRefreshScopeFactory.create()
     }
 }
@@ -19,6 +19,20 @@ interface BServiceConfig {
      */
     val debug: Boolean
 
+    /**
+     * Number of threads used to create services at startup.
+     *
+     * When greater than 1, services are created as soon as the services they depend on are created,
+     * which may help when services are slow to create, such as when they do I/O.
+     * The time spent creating the slowest services is logged at the `DEBUG` level.
+     *
+     * **Note:** Services must be safe to create on any thread,
+     * and must not rely on being created in a specific order, other than with their dependencies.
+     *
+     * Default: `1`
+     */
+    val instantiationParallelism: Int
+
     @Deprecated(message = "For removal, didn't do much in the first place")
     val serviceAnnotations: Set<KClass<out Annotation>>
     val instanceSupplierMap: Map<KClass<*>, InstanceSupplier<*>>
@@ -27,6 +41,11 @@ interface BServiceConfig {
 @ConfigDSL
 class BServiceConfigBuilder internal constructor() : BServiceConfig {
     override var debug: Boolean = false
+    override var instantiationParallelism: Int = 1
+        set(value) {
+            require(value >= 1) { "Instantiation parallelism must be at least 1" }
+            field = value
+        }
 
     @Deprecated("For removal, didn't do much in the first place")
     override val serviceAnnotations: MutableSet<KClass<out Annotation>> = hashSetOf(BService::class, Command::class, Resolver::class, ResolverFactory::class, Handler::class)
@@ -54,6 +73,7 @@ class BServiceConfigBuilder internal constructor() : BServiceConfig {
     @JvmSynthetic
     internal fun build() = object : BServiceConfig {
         override val debug = this@BServiceConfigBuilder.debug
+        override val instantiationParallelism = this@BServiceConfigBuilder.instantiationParallelism
         @Suppress("OVERRIDE_DEPRECATION", "DEPRECATION")
         override val serviceAnnotations = this@BServiceConfigBuilder.serviceAnnotations.toImmutableSet()
         override val instanceSupplierMap = this@BServiceConfigBuilder.instanceSupplierMap.toImmutableMap()
@@ -1,6 +1,7 @@
 package io.github.freya022.botcommands.api.core.service
 
 import kotlin.reflect.KClass
+import kotlin.time.Duration
 
 interface DefaultServiceContainer : ServiceContainer {
     fun <T : Any> putService(
@@ -18,6 +19,14 @@ interface DefaultServiceContainer : ServiceContainer {
 
     override fun putService(t: Any, name: String): Unit = putService(t, t::class, name)
     override fun putService(t: Any): Unit = putService(t, t::class)
+
+    /**
+     * Returns the time spent in the constructor, or factory, of each service created by this container,
+     * by provider name.
+     *
+     * This does not include services which were [put][putService] in the container.
+     */
+    fun getServiceCreationDurations(): Map<String, Duration>
 }
 
 inline fun <reified T : Any> DefaultServiceContainer.putServiceAs(
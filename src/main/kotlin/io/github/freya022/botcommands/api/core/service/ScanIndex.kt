@@ -0,0 +1,87 @@
+package io.github.freya022.botcommands.api.core.service
+
+import io.github.freya022.botcommands.api.core.config.BConfig
+import io.github.freya022.botcommands.internal.core.service.ScanIndexes
+import java.nio.file.Path
+import kotlin.io.path.Path
+import kotlin.io.path.createDirectories
+import kotlin.io.path.outputStream
+import kotlin.io.path.writeText
+
+/**
+ * Generates an index of the classes scanned by the framework,
+ * letting the framework load it at startup instead of scanning the classpath,
+ * when [BConfig.useScanIndex] is enabled.
+ *
+ * The index must be generated again after changing your classes, or the framework version,
+ * this is best done as part of your build, after your classes are compiled,
+ * with the same packages and classes as your configuration.
+ * An index generated with other BotCommands or JDA versions, or other packages and classes, is ignored.
+ * Scanned class files being added, removed or changing size also makes the index outdated, it is then ignored with a warning.
+ *
+ * For example, with Maven, using the `exec-maven-plugin`, in the `process-classes` phase:
+ * ```xml
+ * <execution>
+ *     <id>generate-scan-index</id>
+ *     <phase>process-classes</phase>
+ *     <goals>
+ *         <goal>java</goal>
+ *     </goals>
+ *     <configuration>
+ *         <mainClass>io.github.freya022.botcommands.api.core.service.ScanIndex</mainClass>
+ *         <arguments>
+ *             <argument>${project.build.outputDirectory}</argument>
+ *             <argument>com.example.bot</argument>
+ *             <argument>class:com.example.Main</argument>
+ *         </arguments>
+ *     </configuration>
+ * </execution>
+ * ```
+ *
+ * **Note:** Resources used by application emojis are still scanned when emojis need to be uploaded.
+ */
+object ScanIndex {
+    /**
+     * Scans the provided packages and classes, as well as the framework classes,
+     * and writes the index in the `META-INF/botcommands` directory of [outputDirectory].
+     *
+     * @param outputDirectory The resources directory to write the index in, usually your build's classes directory
+     * @param packages        The [packages][BConfig.packages] configured in the framework
+     * @param classes         The fully qualified names of the [classes][BConfig.classes] configured in the framework
+     */
+    @JvmStatic
+    @JvmOverloads
+    fun generate(outputDirectory: Path, packages: Collection<String>, classes: Collection<String> = emptyList()) {
+        ScanIndexes.createReflectionScan(packages, classes).scan().use { scanResult ->
+            outputDirectory.resolve(ScanIndexes.REFLECTION_INDEX_PATH).writeIndex(scanResult.toJSON())
+        }
+        outputDirectory.resolve(ScanIndexes.REFLECTION_INDEX_PROPERTIES_PATH).outputStream().use {
+            ScanIndexes.createReflectionIndexProperties(packages, classes).store(it, null)
+        }
+
+        ScanIndexes.createEventScan().scan().use { scanResult ->
+            outputDirectory.resolve(ScanIndexes.EVENT_INDEX_PATH).writeIndex(scanResult.toJSON())
+        }
+    }
+
+    /**
+     * Generates the index, the first argument is the output directory,
+     * the following ones are packages, or classes, when prefixed with `class:`.
+     *
+     * @see generate
+     */
+    @JvmStatic
+    fun main(args: Array<String>) {
+        require(args.isNotEmpty()) {
+            "Usage: ScanIndex <output directory> [package | class:<class name>]..."
+        }
+
+        val (classes, packages) = args.drop(1).partition { it.startsWith("class:") }
+        generate(Path(args[0]), packages, classes.map { it.removePrefix("class:") })
+    }
+
+    private fun Path.writeIndex(json: String) {
+        parent.createDirectories()
+        writeText(json)
+    }
+}
@@ -0,0 +1,39 @@
+package io.github.freya022.botcommands.api.core.timeout
+
+import io.github.freya022.botcommands.api.core.service.annotations.InterfacedService
+import kotlin.time.Duration
+import kotlin.time.toJavaDuration
+import java.time.Duration as JavaDuration
+
+/**
+ * Metrics of the scheduler running the timeouts of components, modals and paginations.
+ *
+ * You can get an instance of this interface as a service.
+ */
+@InterfacedService(acceptMultiple = false)
+interface TimeoutMetrics {
+    /**
+     * Number of timeouts which are neither expired nor cancelled.
+     */
+    val pendingTimeouts: Long
+
+    /**
+     * Delay between the deadline of the last expired timeout, and when it actually ran.
+     */
+    val lastFiringLag: Duration
+
+    /**
+     * Delay between the deadline of the last expired timeout, and when it actually ran.
+     */
+    fun getLastFiringLag(): JavaDuration = lastFiringLag.toJavaDuration()
+
+    /**
+     * Maximum delay between the deadline of an expired timeout, and when it actually ran.
+     */
+    val maxFiringLag: Duration
+
+    /**
+     * Maximum delay between the deadline of an expired timeout, and when it actually ran.
+     */
+    fun getMaxFiringLag(): JavaDuration = maxFiringLag.toJavaDuration()
+}
@@ -51,6 +51,71 @@ interface EventWaiterBuilder<T : Event> {
      */
     fun addPrecondition(precondition: Predicate<T>): EventWaiterBuilder<T>
 
+    /**
+     * Only accepts events from the user with the specified ID.
+     *
+     * Unlike [preconditions][addPrecondition], waiters with IDs are indexed,
+     * meaning they are only checked against events with the same IDs,
+     * this is preferable when many waiters are pending for the same event type.
+     *
+     * This applies to message (received, updated, reactions), interaction, guild member, voice and user events.
+     *
+     * @param userId The ID of the user which must trigger the event
+     *
+     * @throws IllegalArgumentException If the event type does not have a user
+     *
+     * @return This builder for chaining convenience
+     */
+    fun setUserId(userId: Long): EventWaiterBuilder<T>
+
+    /**
+     * Only accepts events from the channel with the specified ID.
+     *
+     * Unlike [preconditions][addPrecondition], waiters with IDs are indexed,
+     * see [setUserId] for more details.
+     *
+     * This applies to message, interaction and channel events.
+     *
+     * @param channelId The ID of the channel in which the event must happen
+     *
+     * @throws IllegalArgumentException If the event type does not have a channel
+     *
+     * @return This builder for chaining convenience
+     */
+    fun setChannelId(channelId: Long): EventWaiterBuilder<T>
+
+    /**
+     * Only accepts events from the guild with the specified ID.
+     *
+     * Unlike [preconditions][addPrecondition], waiters with IDs are indexed,
+     * see [setUserId] for more details.
+     *
+     * This applies to guild, message and interaction events.
+     *
+     * @param guildId The ID of the guild in which the event must happen
+     *
+     * @throws IllegalArgumentException If the event type does not have a guild
+     *
+     * @return This builder for chaining convenience
+     */
+    fun setGuildId(guildId: Long): EventWaiterBuilder<T>
+
+    /**
+     * Only accepts events about the message with the specified ID.
+     *
+     * Unlike [preconditions][addPrecondition], waiters with IDs are indexed,
+     * see [setUserId] for more details.
+     *
+     * This applies to message and component interaction events.
+     *
+     * @param messageId The ID of the message the event must be about
+     *
+     * @throws IllegalArgumentException If the event type does not have a message
+     *
+     * @return This builder for chaining convenience
+     */
+    fun setMessageId(messageId: Long): EventWaiterBuilder<T>
+
     /**
      * Sets the consumer called after the event waiter has all its preconditions met
      * and the task has not timeout nor been canceled.
@@ -31,6 +31,15 @@ private val alphanumericRegex = Regex("""\w+""")
 class DefaultLocalizationTemplate(context: BContext, private val template: String, locale: Locale) : LocalizationTemplate {
     private val localizableArguments: MutableList<LocalizableArgument> = ArrayList()
 
+    // Compiled template, each argument is replaced by the index of its value
+    private val argumentIndexes: Map<String, Int>
+    private val instructions: Array<Instruction>
+    private val rawLength: Int
+
+    private sealed interface Instruction
+    private class RawInstruction(val string: String) : Instruction
+    private class FormatInstruction(val argument: FormattableArgument, val valueIndex: Int) : Instruction
+
     init {
         val formattableArgumentFactories = context.getInterfacedServices<FormattableArgumentFactory>()
 
@@ -59,6 +68,20 @@ class DefaultLocalizationTemplate(context: BContext, private val template: Strin
             throwArgument("Could not match formattable argument '$formattableArgument' against ${formattableArgumentFactories.map { it.javaClass.simpleNestedName }}")
         }
         addRawArgument(template.substring(start))
+
+        val argumentIndexes = hashMapOf<String, Int>()
+        instructions = localizableArguments.map { localizableArgument ->
+            when (localizableArgument) {
+                is RawArgument -> RawInstruction(localizableArgument.get())
+                is FormattableArgument -> {
+                    val valueIndex = argumentIndexes.getOrPut(localizableArgument.argumentName) { argumentIndexes.size }
+                    FormatInstruction(localizableArgument, valueIndex)
+                }
+                else -> throwArgument("Unknown localizable argument type: ${localizableArgument::class.simpleNestedName}")
+            }
+        }.toTypedArray()
+        this.argumentIndexes = argumentIndexes
+        rawLength = instructions.sumOf { if (it is RawInstruction) it.string.length else 0 }
     }
 
     private fun addRawArgument(substring: String) {
@@ -67,17 +90,27 @@ class DefaultLocalizationTemplate(context: BContext, private val template: Strin
     }
 
     override fun localize(vararg args: Localization.Entry): String {
-        return localizableArguments.joinToString("") { localizableArgument ->
-            when (localizableArgument) {
-                is RawArgument -> localizableArgument.get()
-                is FormattableArgument -> formatFormattableString(args, localizableArgument)
-                else -> throwArgument("Unknown localizable argument type: ${localizableArgument::class.simpleNestedName}")
+        val values = arrayOfNulls<Any>(argumentIndexes.size)
+        for (arg in args) {
+            val index = argumentIndexes[arg.argumentName] ?: continue
+            // Keep the first value, if an argument is passed multiple times
+            if (values[index] == null) values[index] = arg.value
+        }
+
+        val builder = StringBuilder(rawLength + values.size * 16)
+        for (instruction in instructions) {
+            when (instruction) {
+                is RawInstruction -> builder.append(instruction.string)
+                is FormatInstruction -> {
+                    val value = values[instruction.valueIndex] ?: throwMissingArgument(args, instruction.argument.argumentName)
+                    builder.append(formatFormattableString(instruction.argument, value))
+                }
             }
         }
+        return builder.toString()
     }
 
-    private fun formatFormattableString(args: Array<out Localization.Entry>, formattableArgument: FormattableArgument): String {
-        val value = getValueByArgumentName(args, formattableArgument.argumentName)
+    private fun formatFormattableString(formattableArgument: FormattableArgument, value: Any): String {
         return try {
             formattableArgument.format(value)
         } catch (e: Exception) { //For example, if the user provided a string to a number format
@@ -85,9 +118,8 @@ class DefaultLocalizationTemplate(context: BContext, private val template: Strin
         }
     }
 
-    private fun getValueByArgumentName(args: Array<out Localization.Entry>, argumentName: String): Any {
-        return args.find { it.argumentName == argumentName }?.value
-            ?: throwArgument("Could not find argument '$argumentName' from passed arguments ${args.contentToString()}, in template: '$template'")
+    private fun throwMissingArgument(args: Array<out Localization.Entry>, argumentName: String): Nothing {
+        throwArgument("Could not find argument '$argumentName' from passed arguments ${args.contentToString()}, in template: '$template'")
     }
 
     override fun toString(): String {
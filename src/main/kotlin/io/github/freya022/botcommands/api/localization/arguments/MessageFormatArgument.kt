@@ -2,18 +2,17 @@ package io.github.freya022.botcommands.api.localization.arguments
 
 import java.text.MessageFormat
 import java.util.*
-import java.util.concurrent.locks.ReentrantLock
-import kotlin.concurrent.withLock
 
 class MessageFormatArgument(
     override val argumentName: String,
     formatter: String,
     locale: Locale
 ) : FormattableArgument {
-    private val lock = ReentrantLock()
     private val formatter = MessageFormat(formatter, locale)
+    // MessageFormat is not thread-safe, each thread uses its own copy
+    private val localFormatter: ThreadLocal<MessageFormat> = ThreadLocal.withInitial { this.formatter.clone() as MessageFormat }
 
-    override fun format(obj: Any): String = lock.withLock { formatter.format(arrayOf(obj)) }
+    override fun format(obj: Any): String = localFormatter.get().format(arrayOf(obj))
 
     override fun toString(): String {
         return "MessageFormatArgument(argumentName='$argumentName', formatter=${formatter.toPattern()})"
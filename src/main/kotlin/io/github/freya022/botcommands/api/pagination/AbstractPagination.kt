@@ -8,10 +8,10 @@ import io.github.freya022.botcommands.api.core.BContext
 import io.github.freya022.botcommands.api.core.service.getService
 import io.github.freya022.botcommands.api.core.utils.toEditData
 import io.github.freya022.botcommands.internal.core.ExceptionHandler
-import io.github.freya022.botcommands.internal.utils.launchCatchingDelayed
+import io.github.freya022.botcommands.internal.core.timeout.TimeoutScheduler
+import io.github.freya022.botcommands.internal.core.timeout.TimeoutWheel.WheelTimeout
 import io.github.oshai.kotlinlogging.KotlinLogging
 import kotlinx.coroutines.CoroutineScope
-import kotlinx.coroutines.Job
 import kotlinx.coroutines.runBlocking
 import net.dv8tion.jda.api.entities.Message
 import net.dv8tion.jda.api.interactions.InteractionHook
@@ -37,7 +37,8 @@ abstract class AbstractPagination<T : AbstractPagination<T>> protected construct
 
     private val usedComponents = UsedComponentSet(componentsService, builder.cleanAfterRefresh)
 
-    private lateinit var timeoutJob: Job
+    private val timeoutScheduler: TimeoutScheduler = context.getService()
+    private lateinit var timeoutJob: WheelTimeout
     private var timeoutPassed = false
 
     /**
@@ -92,7 +93,7 @@ abstract class AbstractPagination<T : AbstractPagination<T>> protected construct
                 timeoutJob.cancel()
             }
 
-            timeoutJob = paginationTimeoutScope.launchCatchingDelayed(timeout.timeout, { onTimeoutHandlerException(it) }) {
+            timeoutJob = timeoutScheduler.launchCatchingDelayed(paginationTimeoutScope, timeout.timeout, { onTimeoutHandlerException(it) }) {
                 timeoutPassed = true
                 runCatching { cleanup() }.onFailure(::onTimeoutHandlerException)
                 @Suppress("UNCHECKED_CAST")
@@ -63,8 +63,8 @@ class ButtonMenu<E> internal constructor(
                         callback(event, item)
                     }
                     .constraints(constraints)
-                    .build()
             }
+            .let(buttons::buildAllJava)
             .chunked(5, ActionRow::of)
             .also(builder::addComponents)
     }
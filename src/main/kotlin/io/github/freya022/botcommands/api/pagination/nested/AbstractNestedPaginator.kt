@@ -1,13 +1,20 @@
 package io.github.freya022.botcommands.api.pagination.nested
 
+import io.github.freya022.botcommands.api.components.Button
+import io.github.freya022.botcommands.api.components.builder.select.ephemeral.EphemeralStringSelectBuilder
 import io.github.freya022.botcommands.api.components.event.StringSelectEvent
 import io.github.freya022.botcommands.api.components.utils.SelectContent
 import io.github.freya022.botcommands.api.core.BContext
 import io.github.freya022.botcommands.api.core.utils.toImmutableList
 import io.github.freya022.botcommands.api.pagination.paginator.AbstractPaginator
+import io.github.freya022.botcommands.internal.components.builder.BatchableComponentBuilder
+import io.github.freya022.botcommands.internal.components.builder.button.AbstractButtonBuilder
+import io.github.freya022.botcommands.internal.components.builder.select.ephemeral.EphemeralStringSelectBuilderImpl
 import io.github.freya022.botcommands.internal.utils.throwArgument
+import kotlinx.coroutines.runBlocking
 import net.dv8tion.jda.api.EmbedBuilder
 import net.dv8tion.jda.api.interactions.InteractionHook
+import net.dv8tion.jda.api.interactions.components.ActionComponent
 import net.dv8tion.jda.api.interactions.components.selections.StringSelectMenu
 import net.dv8tion.jda.api.utils.messages.MessageCreateBuilder
 import net.dv8tion.jda.internal.utils.Checks
@@ -45,7 +52,15 @@ abstract class AbstractNestedPaginator<T : AbstractNestedPaginator<T>> protected
         setSelectedItem(0)
     }
 
-    protected open fun createSelectMenu(): StringSelectMenu {
+    @Deprecated("Replaced with createSelectMenuBuilder, which is built alongside the paginator buttons, overriding this function has no effect")
+    protected open fun createSelectMenu(): StringSelectMenu = createSelectMenuBuilder().build()
+
+    /**
+     * Creates the select menu used to choose the wrapped pagination.
+     *
+     * The select menu is built alongside the paginator buttons, in a single transaction.
+     */
+    protected open fun createSelectMenuBuilder(): EphemeralStringSelectBuilder {
         val options = selectOptions.mapIndexed { i, it -> it.withDefault(i == selectedItemIndex) }
 
         return selectMenus.stringSelectMenu().ephemeral()
@@ -53,7 +68,6 @@ abstract class AbstractNestedPaginator<T : AbstractNestedPaginator<T>> protected
             .singleUse(true)
             .constraints(constraints)
             .addOptions(options)
-            .build()
     }
 
     private fun onItemSelected(event: StringSelectEvent) {
@@ -113,10 +127,18 @@ abstract class AbstractNestedPaginator<T : AbstractNestedPaginator<T>> protected
     }
 
     override fun putComponents(builder: MessageCreateBuilder) {
-        if (usePaginatorControls) {
-            super.putComponents(builder)
+        val selectMenuBuilder = createSelectMenuBuilder() as EphemeralStringSelectBuilderImpl
+        if (!usePaginatorControls) {
+            builder.addActionRow(selectMenuBuilder.build())
+            return
         }
 
-        builder.addActionRow(createSelectMenu())
+        // Create the paginator buttons and the select menu at once
+        val builders: List<BatchableComponentBuilder<*, ActionComponent>> =
+            createPaginatorButtonBuilders().map { it as AbstractButtonBuilder<*> } + selectMenuBuilder
+        val components = runBlocking { buttons.componentController.buildComponents(builders) }
+
+        builder.addActionRow(createPaginatorRow(components.filterIsInstance<Button>()))
+        builder.addActionRow(components.filterIsInstance<StringSelectMenu>().single())
     }
-}
+}
\ No newline at end of file
@@ -1,5 +1,7 @@
 package io.github.freya022.botcommands.api.pagination.paginator
 
+import io.github.freya022.botcommands.api.components.Button
+import io.github.freya022.botcommands.api.components.builder.button.ButtonBuilder
 import io.github.freya022.botcommands.api.components.event.ButtonEvent
 import io.github.freya022.botcommands.api.components.utils.ButtonContent
 import io.github.freya022.botcommands.api.core.BContext
@@ -54,22 +56,34 @@ abstract class AbstractPaginator<T : AbstractPaginator<T>> protected constructor
     }
 
     protected open fun putComponents(builder: MessageCreateBuilder) {
-        val buttons = buildList {
-            this += firstButton.toPageButton(targetPage = 0).withDisabled(isFirstPage)
-            this += previousButton.toPageButton(targetPage = page - 1).withDisabled(isFirstPage)
-
-            this += nextButton.toPageButton(targetPage = page + 1).withDisabled(isLastPage)
-            this += lastButton.toPageButton(targetPage = maxPages - 1).withDisabled(isLastPage)
-
-            if (deleteButton != null) {
-                this += buttons.of(deleteButton).ephemeral()
-                    .bindTo(::onDeleteClicked)
-                    .constraints(constraints)
-                    .build()
-            }
+        // Create all buttons at once
+        val builtButtons = buttons.buildAllJava(createPaginatorButtonBuilders())
+        builder.addActionRow(createPaginatorRow(builtButtons))
+    }
+
+    internal fun createPaginatorButtonBuilders(): List<ButtonBuilder<*>> = buildList {
+        this += firstButton.toPageButton(targetPage = 0)
+        this += previousButton.toPageButton(targetPage = page - 1)
+
+        this += nextButton.toPageButton(targetPage = page + 1)
+        this += lastButton.toPageButton(targetPage = maxPages - 1)
+
+        if (deleteButton != null) {
+            this += buttons.of(deleteButton).ephemeral()
+                .bindTo(::onDeleteClicked)
+                .constraints(constraints)
         }
+    }
+
+    internal fun createPaginatorRow(builtButtons: List<Button>): List<Button> = buildList {
+        this += builtButtons[0].withDisabled(isFirstPage)
+        this += builtButtons[1].withDisabled(isFirstPage)
+
+        this += builtButtons[2].withDisabled(isLastPage)
+        this += builtButtons[3].withDisabled(isLastPage)
 
-        builder.addActionRow(buttons)
+        // Delete button
+        builtButtons.getOrNull(4)?.let { this += it }
     }
 
     private fun ButtonContent.toPageButton(targetPage: Int) =
@@ -79,5 +93,4 @@ abstract class AbstractPaginator<T : AbstractPaginator<T>> protected constructor
                 e.editMessage(getCurrentMessage()).queue()
             }
             .constraints(constraints)
-            .build()
 }
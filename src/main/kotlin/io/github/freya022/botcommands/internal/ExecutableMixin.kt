@@ -1,7 +1,9 @@
 package io.github.freya022.botcommands.internal
 
 import io.github.freya022.botcommands.api.core.Executable
+import io.github.freya022.botcommands.internal.core.options.OptionFrameLayout
 import io.github.freya022.botcommands.internal.core.reflection.MemberParamFunction
+import io.github.freya022.botcommands.internal.parameters.AggregatedParameterMixin
 import io.github.freya022.botcommands.internal.utils.requireAt
 import io.github.freya022.botcommands.internal.utils.throwArgument
 import kotlin.contracts.ExperimentalContracts
@@ -14,6 +16,9 @@ internal interface ExecutableMixin : Executable {
         get() = eventFunction.kFunction
     val instance: Any
         get() = eventFunction.instance
+
+    override val parameters: List<AggregatedParameterMixin>
+    val optionFrameLayout: OptionFrameLayout
 }
 
 @Suppress("NOTHING_TO_INLINE") //Don't want this to appear in stack trace
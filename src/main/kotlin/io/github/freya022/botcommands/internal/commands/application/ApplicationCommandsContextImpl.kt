@@ -1,6 +1,5 @@
 package io.github.freya022.botcommands.internal.commands.application
 
-import gnu.trove.map.hash.TLongObjectHashMap
 import io.github.freya022.botcommands.api.commands.CommandPath
 import io.github.freya022.botcommands.api.commands.application.*
 import io.github.freya022.botcommands.api.commands.application.annotations.RequiresApplicationCommands
@@ -23,7 +22,9 @@ import io.github.oshai.kotlinlogging.KotlinLogging
 import kotlinx.coroutines.async
 import kotlinx.coroutines.future.asCompletableFuture
 import net.dv8tion.jda.api.entities.Guild
+import net.dv8tion.jda.api.interactions.commands.Command
 import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ConcurrentHashMap
 import java.util.concurrent.locks.ReentrantLock
 import kotlin.concurrent.withLock
 import kotlin.reflect.KFunction
@@ -39,28 +40,34 @@ internal class ApplicationCommandsContextImpl internal constructor(
 ) : ApplicationCommandsContext {
     private val applicationCommandsBuilder: ApplicationCommandsBuilder by serviceContainer.lazy()
 
+    private data class CommandKey(val guildId: Long?, val type: Command.Type, val name: String)
+
+    // Readers are lock-free, writers hold the lock so the indexes are updated together
     private val writeLock = ReentrantLock()
-    private val liveTopLevelApplicationCommands = TLongObjectHashMap<TopLevelApplicationCommandInfo>()
+    private val liveTopLevelApplicationCommands: MutableMap<Long, TopLevelApplicationCommandInfo> = ConcurrentHashMap()
+    private val topLevelCommandsByKey: MutableMap<CommandKey, TopLevelApplicationCommandInfo> = ConcurrentHashMap()
+    // Immutable lists, replaced on each update, global commands are stored with the 0 key
+    private val topLevelCommandsByGuild: MutableMap<Long, List<TopLevelApplicationCommandInfo>> = ConcurrentHashMap()
+
+    private fun findTopLevelCommand(guild: Guild?, type: Command.Type, name: String): TopLevelApplicationCommandInfo? =
+        topLevelCommandsByKey[CommandKey(guild?.idLong, type, name)]
 
     override fun findSlashCommand(guild: Guild?, path: CommandPath): SlashCommandInfo? {
-        val topLevelCommand = liveTopLevelApplicationCommands.valueCollection()
-            .find { it.guildId == guild?.idLong && it.name == path.name }
+        val topLevelCommand = findTopLevelCommand(guild, Command.Type.SLASH, path.name)
             ?: return logger.debugNull { "Could not find slash command with top-level name '${path.name}'" }
 
         return getApplicationCommandById<SlashCommandInfo>(topLevelCommand.idLong, path.group, path.subname)
     }
 
     override fun findTopLevelSlashCommand(guild: Guild?, name: String): TopLevelSlashCommandInfo? {
-        val topLevelCommand = liveTopLevelApplicationCommands.valueCollection()
-            .find { it.guildId == guild?.idLong && it.name == name }
+        val topLevelCommand = findTopLevelCommand(guild, Command.Type.SLASH, name)
             ?: return logger.debugNull { "Could not find top-level slash command named '$name'" }
 
         return getApplicationCommandById<TopLevelSlashCommandInfo>(topLevelCommand.idLong, group = null, subcommand = null)
     }
 
     override fun findUserCommand(guild: Guild?, name: String): UserCommandInfo? {
-        val topLevelCommand = liveTopLevelApplicationCommands.valueCollection()
-            .find { it.guildId == guild?.idLong && it.name == name }
+        val topLevelCommand = findTopLevelCommand(guild, Command.Type.USER, name)
             ?: return logger.debugNull { "Could not find user command '$name'" }
 
         return topLevelCommand as? UserCommandInfo
@@ -68,8 +75,7 @@ internal class ApplicationCommandsContextImpl internal constructor(
     }
 
     override fun findMessageCommand(guild: Guild?, name: String): MessageCommandInfo? {
-        val topLevelCommand = liveTopLevelApplicationCommands.valueCollection()
-            .find { it.guildId == guild?.idLong && it.name == name }
+        val topLevelCommand = findTopLevelCommand(guild, Command.Type.MESSAGE, name)
             ?: return logger.debugNull { "Could not find message command '$name'" }
 
         return topLevelCommand as? MessageCommandInfo
@@ -77,21 +83,28 @@ internal class ApplicationCommandsContextImpl internal constructor(
     }
 
     override fun getApplicationCommands(guild: Guild?): List<TopLevelApplicationCommandInfo> =
-        liveTopLevelApplicationCommands.valueCollection().filter { it.guildId == guild?.idLong }
+        topLevelCommandsByGuild[guild?.idLong ?: 0] ?: emptyList()
 
     override fun getEffectiveApplicationCommands(guild: Guild?): List<TopLevelApplicationCommandInfo> {
-        val topLevelCommands = liveTopLevelApplicationCommands.valueCollection()
+        val globalCommands = topLevelCommandsByGuild[0] ?: emptyList()
         return when (guild) {
             // Keep global
-            null -> topLevelCommands.filter { it.guildId == null }.unmodifiableView()
+            null -> globalCommands
             // Keep global and guild with id
-            else -> topLevelCommands.filter { it.guildId == null || it.guildId == guild.idLong }.unmodifiableView()
+            else -> (globalCommands + (topLevelCommandsByGuild[guild.idLong] ?: emptyList())).unmodifiableView()
         }
     }
 
     internal fun putApplicationCommands(topLevelCommands: Collection<TopLevelApplicationCommandInfo>): Unit = writeLock.withLock {
         topLevelCommands.forEach { topLevelCommand ->
-            liveTopLevelApplicationCommands.put(topLevelCommand.idLong, topLevelCommand)
+            liveTopLevelApplicationCommands[topLevelCommand.idLong] = topLevelCommand
+            topLevelCommandsByKey[CommandKey(topLevelCommand.guildId, topLevelCommand.type, topLevelCommand.name)] = topLevelCommand
+        }
+
+        topLevelCommands.groupBy { it.guildId ?: 0 }.forEach { (guildKey, newCommands) ->
+            val newIds = newCommands.mapTo(hashSetOf()) { it.idLong }
+            val oldCommands = topLevelCommandsByGuild[guildKey] ?: emptyList()
+            topLevelCommandsByGuild[guildKey] = (oldCommands.filter { it.idLong !in newIds } + newCommands).unmodifiableView()
         }
     }
 
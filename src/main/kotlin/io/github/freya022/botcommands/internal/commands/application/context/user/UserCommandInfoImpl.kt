@@ -15,8 +15,10 @@ import io.github.freya022.botcommands.internal.commands.application.mixins.TopLe
 import io.github.freya022.botcommands.internal.commands.application.options.ApplicationGeneratedOption
 import io.github.freya022.botcommands.internal.commands.application.slash.SlashUtils.getCheckedDefaultValue
 import io.github.freya022.botcommands.internal.commands.text.TextUtils.getSpacedPath
+import io.github.freya022.botcommands.internal.core.options.OptionFrameLayout
 import io.github.freya022.botcommands.internal.core.options.OptionImpl
 import io.github.freya022.botcommands.internal.core.options.OptionType
+import io.github.freya022.botcommands.internal.core.options.OptionValues
 import io.github.freya022.botcommands.internal.core.reflection.toMemberParamFunction
 import io.github.freya022.botcommands.internal.options.transform
 import io.github.freya022.botcommands.internal.parameters.CustomMethodOption
@@ -25,7 +27,6 @@ import io.github.freya022.botcommands.internal.utils.*
 import net.dv8tion.jda.api.interactions.IntegrationType
 import net.dv8tion.jda.api.interactions.InteractionContextType
 import net.dv8tion.jda.api.interactions.commands.Command
-import kotlin.reflect.full.callSuspendBy
 
 internal class UserCommandInfoImpl internal constructor(
     override val context: BContext,
@@ -60,21 +61,23 @@ internal class UserCommandInfoImpl internal constructor(
         }
     }
 
+    override val optionFrameLayout = OptionFrameLayout(parameters)
+
     internal suspend fun execute(event: GlobalUserEvent): Boolean {
-        val optionValues = parameters.mapOptions { option ->
+        val optionValues = mapOptions { option ->
             if (tryInsertOption(event, this, option) == InsertOptionResult.ABORT)
                 return false
         }
 
-        val finalParameters = parameters.mapFinalParameters(event, optionValues)
-        function.callSuspendBy(finalParameters)
+        val finalParameters = mapFinalParameters(event, optionValues)
+        eventFunction.callSuspendBy(finalParameters)
 
         return true
     }
 
     private suspend fun tryInsertOption(
         event: GlobalUserEvent,
-        optionMap: MutableMap<OptionImpl, Any?>,
+        optionMap: OptionValues,
         option: OptionImpl
     ): InsertOptionResult {
         val value = when (option.optionType) {
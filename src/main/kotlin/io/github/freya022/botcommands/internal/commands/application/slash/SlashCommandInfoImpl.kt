@@ -18,11 +18,12 @@ import io.github.freya022.botcommands.internal.commands.application.slash.except
 import io.github.freya022.botcommands.internal.commands.application.slash.options.*
 import io.github.freya022.botcommands.internal.commands.application.slash.options.builder.SlashCommandOptionAggregateBuilderImpl
 import io.github.freya022.botcommands.internal.commands.text.TextUtils.getSpacedPath
+import io.github.freya022.botcommands.internal.core.options.OptionFrameLayout
 import io.github.freya022.botcommands.internal.core.options.OptionImpl
 import io.github.freya022.botcommands.internal.core.options.OptionType
+import io.github.freya022.botcommands.internal.core.options.OptionValues
 import io.github.freya022.botcommands.internal.core.reflection.toMemberParamFunction
 import io.github.freya022.botcommands.internal.options.transform
-import io.github.freya022.botcommands.internal.parameters.AggregatedParameterMixin
 import io.github.freya022.botcommands.internal.parameters.CustomMethodOption
 import io.github.freya022.botcommands.internal.parameters.ServiceMethodOption
 import io.github.freya022.botcommands.internal.utils.*
@@ -34,7 +35,6 @@ import net.dv8tion.jda.api.interactions.Interaction
 import net.dv8tion.jda.api.interactions.commands.CommandInteractionPayload
 import net.dv8tion.jda.api.interactions.commands.OptionMapping
 import kotlin.reflect.KParameter
-import kotlin.reflect.full.callSuspendBy
 import kotlin.reflect.jvm.jvmErasure
 
 private val logger = KotlinLogging.logger { }
@@ -76,9 +76,11 @@ internal sealed class SlashCommandInfoImpl(
             .forEach(SlashCommandOptionImpl::buildAutocomplete)
     }
 
+    final override val optionFrameLayout = OptionFrameLayout(parameters)
+
     internal suspend fun execute(event: GlobalSlashEvent): Boolean {
-        val objects = getSlashOptions(event, parameters) ?: return false
-        function.callSuspendBy(objects)
+        val objects = getSlashOptions(event) ?: return false
+        eventFunction.callSuspendBy(objects)
 
         return true
     }
@@ -89,20 +91,19 @@ internal sealed class SlashCommandInfoImpl(
 }
 
 internal suspend fun <T> ExecutableMixin.getSlashOptions(
-    event: T,
-    parameters: List<AggregatedParameterMixin>
+    event: T
 ): Map<KParameter, Any?>? where T : CommandInteractionPayload, T : Event {
-    val optionValues = parameters.mapOptions { option ->
+    val optionValues = mapOptions { option ->
         if (tryInsertOption(event, this, option) == InsertOptionResult.ABORT)
             return null
     }
 
-    return parameters.mapFinalParameters(event, optionValues)
+    return mapFinalParameters(event, optionValues)
 }
 
 private suspend fun <T> tryInsertOption(
     event: T,
-    optionMap: MutableMap<OptionImpl, Any?>,
+    optionMap: OptionValues,
     option: OptionImpl
 ): InsertOptionResult where T : CommandInteractionPayload,
                             T : Event {
@@ -2,6 +2,7 @@ package io.github.freya022.botcommands.internal.commands.application.slash.autoc
 
 import io.github.freya022.botcommands.internal.commands.application.slash.autocomplete.builder.AutocompleteCacheInfoBuilderImpl
 import io.github.freya022.botcommands.internal.utils.toDiscordString
+import kotlin.time.Duration
 
 internal class AutocompleteCacheInfo internal constructor(builder: AutocompleteCacheInfoBuilderImpl) {
     val force: Boolean = builder.forceCache
@@ -10,6 +11,16 @@ internal class AutocompleteCacheInfo internal constructor(builder: AutocompleteC
     val guildLocal: Boolean = builder.guildLocal
     val userLocal: Boolean = builder.userLocal
     val channelLocal: Boolean = builder.channelLocal
+    val expireAfterWrite: Duration? = builder.expireAfterWrite?.takeIf { it.isPositive() && it.isFinite() }
+    val refreshAfterWrite: Duration? = builder.refreshAfterWrite?.takeIf { it.isPositive() && it.isFinite() }
+
+    init {
+        if (expireAfterWrite != null && refreshAfterWrite != null) {
+            require(refreshAfterWrite < expireAfterWrite) {
+                "The refresh duration ($refreshAfterWrite) must be lower than the expiration duration ($expireAfterWrite)"
+            }
+        }
+    }
 
     override fun equals(other: Any?): Boolean {
         if (this === other) return true
@@ -23,6 +34,8 @@ internal class AutocompleteCacheInfo internal constructor(builder: AutocompleteC
         if (guildLocal != other.guildLocal) return false
         if (userLocal != other.userLocal) return false
         if (channelLocal != other.channelLocal) return false
+        if (expireAfterWrite != other.expireAfterWrite) return false
+        if (refreshAfterWrite != other.refreshAfterWrite) return false
 
         return true
     }
@@ -34,6 +47,8 @@ internal class AutocompleteCacheInfo internal constructor(builder: AutocompleteC
         result = 31 * result + guildLocal.hashCode()
         result = 31 * result + userLocal.hashCode()
         result = 31 * result + channelLocal.hashCode()
+        result = 31 * result + expireAfterWrite.hashCode()
+        result = 31 * result + refreshAfterWrite.hashCode()
         return result
     }
 }
\ No newline at end of file
@@ -15,6 +15,8 @@ import io.github.freya022.botcommands.internal.core.service.FunctionAnnotationsM
 import io.github.freya022.botcommands.internal.utils.FunctionFilter
 import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent
 import kotlin.reflect.KFunction
+import kotlin.time.toDuration
+import kotlin.time.toDurationUnit
 
 @BService
 @RequiresApplicationCommands
@@ -46,6 +48,10 @@ internal class AutocompleteInfoAutoBuilder internal constructor() : Autocomplete
                             userLocal = autocompleteCacheAnnotation.userLocal
                             channelLocal = autocompleteCacheAnnotation.channelLocal
                             guildLocal = autocompleteCacheAnnotation.guildLocal
+
+                            val durationUnit = autocompleteCacheAnnotation.durationUnit.toDurationUnit()
+                            expireAfterWrite = autocompleteCacheAnnotation.expireAfterWrite.toDuration(durationUnit)
+                            refreshAfterWrite = autocompleteCacheAnnotation.refreshAfterWrite.toDuration(durationUnit)
                         }
                     }
                 }
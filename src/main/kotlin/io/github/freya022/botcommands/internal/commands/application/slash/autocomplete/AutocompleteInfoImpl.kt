@@ -25,7 +25,7 @@ internal class AutocompleteInfoImpl internal constructor(
 
     internal val cache = when {
         context.applicationConfig.disableAutocompleteCache && builder.autocompleteCache?.force != true -> NoCacheAutocomplete
-        else -> AbstractAutocompleteCache.fromMode(this)
+        else -> AbstractAutocompleteCache.fromMode(context, this)
     }
 
     override fun invalidate() {
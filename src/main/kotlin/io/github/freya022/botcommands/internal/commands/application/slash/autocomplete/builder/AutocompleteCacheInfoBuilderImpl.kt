@@ -2,6 +2,7 @@ package io.github.freya022.botcommands.internal.commands.application.slash.autoc
 
 import io.github.freya022.botcommands.api.commands.application.slash.autocomplete.builder.AutocompleteCacheInfoBuilder
 import io.github.freya022.botcommands.internal.commands.application.slash.autocomplete.AutocompleteCacheInfo
+import kotlin.time.Duration
 
 internal class AutocompleteCacheInfoBuilderImpl internal constructor() : AutocompleteCacheInfoBuilder {
     internal fun build() = AutocompleteCacheInfo(this)
@@ -14,4 +15,7 @@ internal class AutocompleteCacheInfoBuilderImpl internal constructor() : Autocom
     override var guildLocal: Boolean = false
     override var userLocal: Boolean = false
     override var channelLocal: Boolean = false
+
+    override var expireAfterWrite: Duration? = null
+    override var refreshAfterWrite: Duration? = null
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package io.github.freya022.botcommands.internal.commands.application.slash.autocomplete.caches
 
+import io.github.freya022.botcommands.api.core.BContext
 import io.github.freya022.botcommands.internal.commands.application.slash.autocomplete.AutocompleteHandler
 import io.github.freya022.botcommands.internal.commands.application.slash.autocomplete.AutocompleteInfo
 import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent
@@ -15,10 +16,13 @@ internal sealed class AbstractAutocompleteCache {
     abstract fun invalidate()
 
     companion object {
-        //In case more caches are to come
-        fun fromMode(autocompleteInfo: AutocompleteInfo): AbstractAutocompleteCache {
+        fun fromMode(context: BContext, autocompleteInfo: AutocompleteInfo): AbstractAutocompleteCache {
             val autocompleteCache = autocompleteInfo.autocompleteCache ?: return NoCacheAutocomplete
-            return ConstantByKeyAutocompleteCache(autocompleteCache)
+            return when {
+                autocompleteCache.refreshAfterWrite != null ->
+                    RefreshAheadAutocompleteCache(autocompleteCache, context.coroutineScopesConfig.autocompleteRefreshScope)
+                else -> ConstantByKeyAutocompleteCache(autocompleteCache)
+            }
         }
     }
 }
@@ -5,17 +5,16 @@ import com.github.benmanes.caffeine.cache.Caffeine
 import io.github.freya022.botcommands.internal.commands.application.slash.autocomplete.AutocompleteCacheInfo
 import io.github.freya022.botcommands.internal.commands.application.slash.autocomplete.AutocompleteHandler
 import io.github.freya022.botcommands.internal.commands.application.slash.autocomplete.CompositeAutocompleteKey
-import kotlinx.coroutines.sync.Mutex
-import kotlinx.coroutines.sync.withLock
 import kotlinx.coroutines.withTimeout
 import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent
 import net.dv8tion.jda.api.interactions.commands.Command
 import kotlin.time.Duration.Companion.minutes
+import kotlin.time.toJavaDuration
 
 internal class ConstantByKeyAutocompleteCache(cacheInfo: AutocompleteCacheInfo) : BaseAutocompleteCache(cacheInfo) {
     private val cache: Cache<CompositeAutocompleteKey, List<Command.Choice>>
     private val maxWeight: Long = cacheInfo.cacheSize * 1024
-    private val lock = Mutex()
+    private val pendingComputations = PendingComputations<CompositeAutocompleteKey, List<Command.Choice>>()
 
     init {
         cache = Caffeine.newBuilder()
@@ -26,6 +25,7 @@ internal class ConstantByKeyAutocompleteCache(cacheInfo: AutocompleteCacheInfo)
 //            }
             .maximumWeight(maxWeight)
             .weigher { k: CompositeAutocompleteKey, v: List<Command.Choice> -> getEntrySize(k, v) }
+            .apply { cacheInfo.expireAfterWrite?.let { expireAfterWrite(it.toJavaDuration()) } }
             .build()
     }
 
@@ -39,14 +39,11 @@ internal class ConstantByKeyAutocompleteCache(cacheInfo: AutocompleteCacheInfo)
         valueComputer: suspend (CommandAutoCompleteInteractionEvent) -> List<Command.Choice>
     ): List<Command.Choice> {
         val compositeKey = getCompositeKey(event)
+        cache.getIfPresent(compositeKey)?.let { return it }
 
-        return lock.withLock {
-            cache.getIfPresent(compositeKey)
-                ?: withTimeout(1.minutes) {
-                    valueComputer(event).also { computedChoices ->
-                        cache.put(compositeKey, computedChoices)
-                    }
-                }
+        return pendingComputations.compute(compositeKey) {
+            withTimeout(1.minutes) { valueComputer(event) }
+                .also { cache.put(compositeKey, it) }
         }
     }
 
@@ -0,0 +1,45 @@
+package io.github.freya022.botcommands.internal.commands.application.slash.autocomplete.caches
+
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.CompletableDeferred
+import kotlinx.coroutines.currentCoroutineContext
+import kotlinx.coroutines.ensureActive
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Computations in progress, so concurrent requests with the same key share the same result.
+ */
+internal class PendingComputations<K : Any, V> {
+    private val computations: MutableMap<K, CompletableDeferred<V>> = ConcurrentHashMap()
+
+    operator fun contains(key: K): Boolean = key in computations
+
+    /**
+     * Runs the [computer] if no computation for this key is in progress,
+     * or awaits the result of the computation in progress.
+     */
+    suspend fun compute(key: K, computer: suspend () -> V): V {
+        while (true) {
+            val computation = CompletableDeferred<V>()
+            val pendingComputation = computations.putIfAbsent(key, computation)
+            if (pendingComputation != null) {
+                try {
+                    return pendingComputation.await()
+                } catch (e: CancellationException) {
+                    // Rethrow if this coroutine was cancelled, compute it ourselves if the other computation was
+                    currentCoroutineContext().ensureActive()
+                    continue
+                }
+            }
+
+            try {
+                return computer().also { computation.complete(it) }
+            } catch (e: Throwable) {
+                computation.completeExceptionally(e)
+                throw e
+            } finally {
+                computations.remove(key, computation)
+            }
+        }
+    }
+}
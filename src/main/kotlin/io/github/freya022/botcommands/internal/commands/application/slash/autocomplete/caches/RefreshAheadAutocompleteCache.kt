@@ -0,0 +1,91 @@
+package io.github.freya022.botcommands.internal.commands.application.slash.autocomplete.caches
+
+import com.github.benmanes.caffeine.cache.Cache
+import com.github.benmanes.caffeine.cache.Caffeine
+import io.github.freya022.botcommands.internal.commands.application.slash.autocomplete.AutocompleteCacheInfo
+import io.github.freya022.botcommands.internal.commands.application.slash.autocomplete.AutocompleteHandler
+import io.github.freya022.botcommands.internal.commands.application.slash.autocomplete.CompositeAutocompleteKey
+import io.github.freya022.botcommands.internal.utils.launchCatching
+import io.github.freya022.botcommands.internal.utils.throwInternal
+import io.github.oshai.kotlinlogging.KotlinLogging
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.withTimeout
+import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent
+import net.dv8tion.jda.api.interactions.commands.Command
+import kotlin.time.Duration.Companion.minutes
+import kotlin.time.TimeMark
+import kotlin.time.TimeSource
+import kotlin.time.toJavaDuration
+
+private val logger = KotlinLogging.logger { }
+
+/**
+ * Cache returning the cached choices immediately, even if they are stale,
+ * and refreshing stale choices on the [refreshScope].
+ *
+ * Choices are computed while the user waits only if no value was cached for that key.
+ */
+internal class RefreshAheadAutocompleteCache(
+    cacheInfo: AutocompleteCacheInfo,
+    private val refreshScope: CoroutineScope
+) : BaseAutocompleteCache(cacheInfo) {
+    private class CachedChoices(val choices: List<Command.Choice>, val staleMark: TimeMark)
+
+    private val refreshAfterWrite = cacheInfo.refreshAfterWrite ?: throwInternal("Refresh-ahead cache requires a refresh duration")
+    private val cache: Cache<CompositeAutocompleteKey, CachedChoices>
+    private val maxWeight: Long = cacheInfo.cacheSize * 1024
+    private val pendingComputations = PendingComputations<CompositeAutocompleteKey, List<Command.Choice>>()
+
+    init {
+        cache = Caffeine.newBuilder()
+            .maximumWeight(maxWeight)
+            .weigher { k: CompositeAutocompleteKey, v: CachedChoices -> getEntrySize(k, v.choices) }
+            .apply { cacheInfo.expireAfterWrite?.let { expireAfterWrite(it.toJavaDuration()) } }
+            .build()
+    }
+
+    //Weight by the sum of the choice value lengths
+    private fun getEntrySize(key: CompositeAutocompleteKey, choices: List<Command.Choice>): Int =
+        key.length() + choices.sumOf { c -> c.name.length + c.asString.length }
+
+    override suspend fun retrieveAndCall(
+        handler: AutocompleteHandler,
+        event: CommandAutoCompleteInteractionEvent,
+        valueComputer: suspend (CommandAutoCompleteInteractionEvent) -> List<Command.Choice>
+    ): List<Command.Choice> {
+        val compositeKey = getCompositeKey(event)
+        val cachedChoices = cache.getIfPresent(compositeKey)
+        if (cachedChoices != null) {
+            if (cachedChoices.staleMark.hasPassedNow() && compositeKey !in pendingComputations)
+                refreshInBackground(compositeKey, event, valueComputer)
+            return cachedChoices.choices
+        }
+
+        return computeChoices(compositeKey, event, valueComputer)
+    }
+
+    private fun refreshInBackground(
+        compositeKey: CompositeAutocompleteKey,
+        event: CommandAutoCompleteInteractionEvent,
+        valueComputer: suspend (CommandAutoCompleteInteractionEvent) -> List<Command.Choice>
+    ) {
+        // Stale choices are kept if the refresh fails
+        refreshScope.launchCatching({ logger.warn(it) { "Could not refresh autocomplete choices of '${event.fullCommandName}'" } }) {
+            computeChoices(compositeKey, event, valueComputer)
+        }
+    }
+
+    private suspend fun computeChoices(
+        compositeKey: CompositeAutocompleteKey,
+        event: CommandAutoCompleteInteractionEvent,
+        valueComputer: suspend (CommandAutoCompleteInteractionEvent) -> List<Command.Choice>
+    ): List<Command.Choice> = pendingComputations.compute(compositeKey) {
+        val staleMark = TimeSource.Monotonic.markNow() + refreshAfterWrite
+        withTimeout(1.minutes) { valueComputer(event) }
+            .also { cache.put(compositeKey, CachedChoices(it, staleMark)) }
+    }
+
+    override fun invalidate() {
+        cache.invalidateAll()
+    }
+}
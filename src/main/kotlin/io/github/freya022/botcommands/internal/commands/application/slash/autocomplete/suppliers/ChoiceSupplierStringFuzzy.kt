@@ -7,11 +7,15 @@ import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInterac
 import net.dv8tion.jda.api.interactions.commands.Command
 
 internal class ChoiceSupplierStringFuzzy(private val numChoices: Int) : ChoiceSupplier {
+    private val indexCache = FuzzyIndexCache()
+
     @Throws(Exception::class)
     override fun apply(event: CommandAutoCompleteInteractionEvent, collection: Collection<Any>): List<Command.Choice> {
         val autoCompleteQuery = event.focusedOption
-        return AutocompleteAlgorithms.fuzzyMatching(collection, { it.toString() }, event.focusedOption.value)
-            .take(numChoices)
+        val query = autoCompleteQuery.value
+        val results = indexCache.getIndex(collection)?.fuzzyMatching(query, numChoices)
+            ?: AutocompleteAlgorithms.fuzzyMatching(collection, { it.toString() }, query, numChoices)
+        return results
             .map { it.string.asChoice(autoCompleteQuery.type) ?: throwArgument("Malformed input for option type ${autoCompleteQuery.type}: '${it.string}'") }
     }
 }
\ No newline at end of file
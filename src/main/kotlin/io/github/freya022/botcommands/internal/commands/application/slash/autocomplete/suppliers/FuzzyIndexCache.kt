@@ -0,0 +1,41 @@
+package io.github.freya022.botcommands.internal.commands.application.slash.autocomplete.suppliers
+
+import io.github.freya022.botcommands.api.commands.application.slash.autocomplete.FuzzyIndex
+
+/**
+ * Keeps a [FuzzyIndex] of the last collection returned by an autocomplete handler.
+ *
+ * The index is only created when the same collection instance is returned twice in a row,
+ * handlers returning new collections each time do not pay for indexing.
+ *
+ * As the collection may be modified in place, its hash code is compared on each call,
+ * which is much cheaper than indexing or matching, and the index is rebuilt if it changed.
+ */
+internal class FuzzyIndexCache {
+    private class Entry(val collection: Collection<Any>, val contentHash: Int, val index: FuzzyIndex<Any>?)
+
+    @Volatile
+    private var entry: Entry? = null
+
+    /**
+     * Returns the index of the collection, or `null` if it is not indexed yet.
+     */
+    fun getIndex(collection: Collection<Any>): FuzzyIndex<Any>? {
+        val entry = entry
+        if (entry == null || entry.collection !== collection) {
+            this.entry = Entry(collection, collection.hashCode(), index = null)
+            return null
+        }
+
+        // Content is checked in case the collection was modified
+        val contentHash = collection.hashCode()
+        if (entry.contentHash != contentHash) {
+            this.entry = Entry(collection, contentHash, index = null)
+            return null
+        }
+
+        return entry.index ?: FuzzyIndex(collection) { it.toString() }.also {
+            this.entry = Entry(collection, contentHash, it)
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package io.github.freya022.botcommands.internal.commands.ratelimit
 
 import io.github.bucket4j.distributed.proxy.ProxyManager
+import io.github.bucket4j.distributed.proxy.optimization.Optimization
 import io.github.freya022.botcommands.api.commands.application.ApplicationCommandInfo
 import io.github.freya022.botcommands.api.commands.ratelimit.RateLimitScope
 import io.github.freya022.botcommands.api.commands.ratelimit.RateLimitScope.*
@@ -8,6 +9,7 @@ import io.github.freya022.botcommands.api.commands.ratelimit.RateLimiter
 import io.github.freya022.botcommands.api.commands.ratelimit.bucket.BucketAccessor
 import io.github.freya022.botcommands.api.commands.ratelimit.bucket.BucketConfigurationSupplier
 import io.github.freya022.botcommands.api.commands.ratelimit.bucket.BucketKeySupplier
+import io.github.freya022.botcommands.api.commands.ratelimit.bucket.OptimizedProxyBucketAccessor
 import io.github.freya022.botcommands.api.commands.ratelimit.bucket.ProxyBucketAccessor
 import io.github.freya022.botcommands.api.commands.ratelimit.handler.DefaultRateLimitHandler
 import io.github.freya022.botcommands.api.commands.ratelimit.handler.RateLimitHandler
@@ -64,13 +66,24 @@ private class DefaultBucketKeySupplier(private val scope: RateLimitScope) : Buck
     }
 }
 
+private fun createBucketAccessor(
+    scope: RateLimitScope,
+    proxyManager: ProxyManager<String>,
+    bucketConfigurationSupplier: BucketConfigurationSupplier,
+    optimization: Optimization?,
+): BucketAccessor = when (optimization) {
+    null -> ProxyBucketAccessor(proxyManager, DefaultBucketKeySupplier(scope), bucketConfigurationSupplier)
+    else -> OptimizedProxyBucketAccessor(proxyManager, DefaultBucketKeySupplier(scope), bucketConfigurationSupplier, optimization)
+}
+
 internal class DefaultProxyRateLimiter internal constructor(
     private val scope: RateLimitScope,
     proxyManager: ProxyManager<String>,
     bucketConfigurationSupplier: BucketConfigurationSupplier,
     private val deleteOnRefill: Boolean,
+    optimization: Optimization? = null,
 ) : RateLimiter,
-    BucketAccessor by ProxyBucketAccessor(proxyManager, DefaultBucketKeySupplier(scope), bucketConfigurationSupplier),
+    BucketAccessor by createBucketAccessor(scope, proxyManager, bucketConfigurationSupplier, optimization),
     RateLimitHandler by DefaultRateLimitHandler(scope, deleteOnRefill) {
 
     override fun toString(): String {
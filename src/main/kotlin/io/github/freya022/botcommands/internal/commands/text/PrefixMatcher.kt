@@ -0,0 +1,33 @@
+package io.github.freya022.botcommands.internal.commands.text
+
+import gnu.trove.map.hash.TCharObjectHashMap
+
+/**
+ * Finds which of the [prefixes] a message starts with.
+ *
+ * Prefixes are dispatched by their first character,
+ * so messages not starting with a prefix are rejected after reading their first character.
+ */
+internal class PrefixMatcher(private val prefixes: List<String>) {
+    // Prefixes keep their order, so the first matching prefix is returned, like a linear search
+    private val prefixesByFirstChar = TCharObjectHashMap<List<String>>()
+    // An empty prefix matches everything, and may need to be returned before other prefixes
+    private val hasEmptyPrefix = prefixes.any { it.isEmpty() }
+
+    init {
+        prefixes.filter { it.isNotEmpty() }
+            .groupBy { it[0] }
+            .forEach { (firstChar, prefixes) -> prefixesByFirstChar.put(firstChar, prefixes) }
+    }
+
+    /**
+     * Returns the first prefix the [message] starts with, or `null` if none matched.
+     */
+    fun findPrefix(message: String): String? {
+        if (hasEmptyPrefix) return prefixes.find { message.startsWith(it) }
+        if (message.isEmpty()) return null
+
+        val candidates = prefixesByFirstChar[message[0]] ?: return null
+        return candidates.find { message.startsWith(it) }
+    }
+}
@@ -0,0 +1,43 @@
+package io.github.freya022.botcommands.internal.commands.text
+
+internal data class CommandWithArgs(val command: TextCommandInfoImpl, val args: String)
+
+/**
+ * Finds the deepest command matching the start of [content], and returns it with the rest of the content.
+ *
+ * Hidden commands are skipped if the user is not an owner,
+ * behaving as if they did not exist, while their subcommands can still be matched.
+ */
+internal fun findCommandWithArgs(rootCommands: Map<String, TextCommandInfoImpl>, content: String, isNotOwner: Boolean): CommandWithArgs? {
+    var commandInfo: TextCommandInfoImpl? = null
+    var argsStart = 0
+
+    // Walk down the command tree, one word at a time
+    var commands: Map<String, TextCommandInfoImpl> = rootCommands
+    var wordStart = 0
+    while (wordStart < content.length && content[wordStart].isSpace()) wordStart++
+    while (wordStart < content.length) {
+        var wordEnd = wordStart
+        while (wordEnd < content.length && !content[wordEnd].isSpace()) wordEnd++
+
+        val info = commands[content.substring(wordStart, wordEnd)] ?: break
+        //Skipping hidden commands will help us have the same behavior as if the command didn't exist
+        if (!info.hidden || !isNotOwner) {
+            commandInfo = info
+            argsStart = wordEnd
+        }
+
+        commands = info.subcommands
+        wordStart = wordEnd
+        while (wordStart < content.length && content[wordStart].isSpace()) wordStart++
+    }
+
+    return commandInfo?.let {
+        //Keep the part after the command paths
+        CommandWithArgs(it, content.substring(argsStart).trimStart())
+    }
+}
+
+// Same characters as the \s regex class
+private fun Char.isSpace(): Boolean =
+    this == ' ' || this == '\t' || this == '\n' || this == '\u000B' || this == '\u000C' || this == '\r'
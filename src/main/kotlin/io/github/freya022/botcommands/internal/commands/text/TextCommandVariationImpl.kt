@@ -16,15 +16,16 @@ import io.github.freya022.botcommands.internal.commands.text.options.TextCommand
 import io.github.freya022.botcommands.internal.commands.text.options.TextCommandParameterImpl
 import io.github.freya022.botcommands.internal.commands.text.options.TextGeneratedOption
 import io.github.freya022.botcommands.internal.commands.text.options.builder.TextCommandOptionAggregateBuilderImpl
+import io.github.freya022.botcommands.internal.core.options.OptionFrameLayout
 import io.github.freya022.botcommands.internal.core.options.OptionImpl
 import io.github.freya022.botcommands.internal.core.options.OptionType
+import io.github.freya022.botcommands.internal.core.options.OptionValues
 import io.github.freya022.botcommands.internal.core.reflection.toMemberParamFunction
 import io.github.freya022.botcommands.internal.options.transform
 import io.github.freya022.botcommands.internal.parameters.CustomMethodOption
 import io.github.freya022.botcommands.internal.parameters.ServiceMethodOption
 import io.github.freya022.botcommands.internal.utils.*
 import net.dv8tion.jda.api.events.message.MessageReceivedEvent
-import kotlin.reflect.full.callSuspendBy
 import kotlin.reflect.jvm.jvmErasure
 
 internal class TextCommandVariationImpl internal constructor(
@@ -73,25 +74,27 @@ internal class TextCommandVariationImpl internal constructor(
         }
     }
 
+    override val optionFrameLayout = OptionFrameLayout(parameters)
+
     internal suspend fun createEvent(jdaEvent: MessageReceivedEvent, args: String, cancellableRateLimit: CancellableRateLimit, localizableTextCommand: LocalizableTextCommand): BaseCommandEvent = when {
         useTokenizedEvent -> CommandEventImpl.create(context, jdaEvent, args, cancellableRateLimit, localizableTextCommand)
         else -> BaseCommandEventImpl(context, jdaEvent, args, cancellableRateLimit, localizableTextCommand)
     }
 
-    internal suspend fun tryParseOptionValues(event: BaseCommandEvent, matchResult: MatchResult?): Map<OptionImpl, Any?>? {
+    internal suspend fun tryParseOptionValues(event: BaseCommandEvent, matchResult: MatchResult?): OptionValues? {
         val groupsIterator = matchResult?.groups?.iterator()
         groupsIterator?.next() //Skip the entire match
 
-        return parameters.mapOptions { option ->
+        return mapOptions { option ->
             if (tryInsertOption(event, this, option, groupsIterator) == InsertOptionResult.ABORT)
                 return null
         }
     }
 
-    internal suspend fun execute(event: BaseCommandEvent, optionValues: Map<out OptionImpl, Any?>) {
-        val finalParameters = parameters.mapFinalParameters(event, optionValues)
+    internal suspend fun execute(event: BaseCommandEvent, optionValues: OptionValues) {
+        val finalParameters = mapFinalParameters(event, optionValues)
 
-        function.callSuspendBy(finalParameters)
+        eventFunction.callSuspendBy(finalParameters)
     }
 
     /**
@@ -101,7 +104,7 @@ internal class TextCommandVariationImpl internal constructor(
      */
     private suspend fun tryInsertOption(
         event: BaseCommandEvent,
-        optionMap: MutableMap<OptionImpl, Any?>,
+        optionMap: OptionValues,
         option: OptionImpl,
         groupsIterator: Iterator<MatchGroup?>?
     ): InsertOptionResult {
@@ -2,6 +2,8 @@
 
 package io.github.freya022.botcommands.internal.commands.text
 
+import com.github.benmanes.caffeine.cache.Cache
+import com.github.benmanes.caffeine.cache.Caffeine
 import io.github.freya022.botcommands.api.commands.text.HelpBuilderConsumer
 import io.github.freya022.botcommands.api.commands.text.TextCommandsContext
 import io.github.freya022.botcommands.api.commands.text.TextPrefixSupplier
@@ -9,6 +11,7 @@ import io.github.freya022.botcommands.api.commands.text.annotations.RequiresText
 import io.github.freya022.botcommands.api.core.DefaultEmbedFooterIconSupplier
 import io.github.freya022.botcommands.api.core.DefaultEmbedSupplier
 import io.github.freya022.botcommands.api.core.SettingsProvider
+import io.github.freya022.botcommands.api.core.annotations.BEventListener
 import io.github.freya022.botcommands.api.core.config.BTextConfig
 import io.github.freya022.botcommands.api.core.service.ServiceContainer
 import io.github.freya022.botcommands.api.core.service.annotations.BService
@@ -17,7 +20,17 @@ import io.github.freya022.botcommands.api.core.service.getServiceOrNull
 import io.github.freya022.botcommands.api.core.utils.unmodifiableView
 import io.github.freya022.botcommands.internal.utils.putIfAbsentOrThrow
 import net.dv8tion.jda.api.JDA
+import net.dv8tion.jda.api.entities.Guild
 import net.dv8tion.jda.api.entities.channel.middleman.GuildMessageChannel
+import net.dv8tion.jda.api.events.channel.ChannelDeleteEvent
+import net.dv8tion.jda.api.events.channel.update.ChannelUpdateArchivedEvent
+import net.dv8tion.jda.api.events.guild.GuildLeaveEvent
+import java.util.concurrent.ConcurrentHashMap
+import kotlin.time.Duration.Companion.minutes
+import kotlin.time.toJavaDuration
+
+private const val channelPrefixCacheSize = 10_000L
+private val channelPrefixCacheDuration = 10.minutes
 
 @BService
 @RequiresTextCommands
@@ -36,6 +49,12 @@ internal class TextCommandsContextImpl internal constructor(
     override val rootCommands: Collection<TopLevelTextCommandInfoImpl>
         get() = textCommandMap.values.unmodifiableView()
 
+    /**
+     * Top-level commands by name and alias.
+     */
+    internal val rootCommandsByName: Map<String, TextCommandInfoImpl>
+        get() = textCommandMap
+
     private val mentionAsPrefix: String by lazy {
         // space is part of the prefix,
         // technically fixes built-in help content,
@@ -43,6 +62,18 @@ internal class TextCommandsContextImpl internal constructor(
         serviceContainer.getService<JDA>().selfUser.asMention + " "
     }
 
+    private val defaultPrefixMatcher: PrefixMatcher by lazy { PrefixMatcher(getDefaultPrefixes()) }
+    // Prefixes from the settings provider, by guild ID
+    private val guildPrefixMatchers: MutableMap<Long, PrefixMatcher> = ConcurrentHashMap()
+    // Prefixes from the prefix supplier, by channel ID,
+    // bounded as archived threads are never deleted, and expiring so changes are eventually picked up
+    private val channelPrefixMatchers: Cache<Long, ChannelPrefixMatcher> = Caffeine.newBuilder()
+        .maximumSize(channelPrefixCacheSize)
+        .expireAfterWrite(channelPrefixCacheDuration.toJavaDuration())
+        .build()
+
+    private class ChannelPrefixMatcher(val guildId: Long, val matcher: PrefixMatcher)
+
     override fun getDefaultPrefixes(): List<String> = when {
         textConfig.usePingAsPrefix -> textConfig.prefixes + mentionAsPrefix
         else -> textConfig.prefixes
@@ -65,6 +96,57 @@ internal class TextCommandsContextImpl internal constructor(
         }
     }
 
+    /**
+     * Returns the matcher of the [effective prefixes][getEffectivePrefixes] in this channel.
+     *
+     * Prefixes provided by the [TextPrefixSupplier] are cached per channel, for up to [channelPrefixCacheDuration],
+     * and prefixes provided by the [SettingsProvider] are cached per guild, until [invalidated][invalidatePrefixes].
+     */
+    internal fun getPrefixMatcher(channel: GuildMessageChannel): PrefixMatcher {
+        val textPrefixSupplier = textPrefixSupplier
+        if (textPrefixSupplier != null) {
+            return channelPrefixMatchers.get(channel.idLong) {
+                ChannelPrefixMatcher(channel.guild.idLong, PrefixMatcher(textPrefixSupplier.getPrefixes(channel)))
+            }.matcher
+        }
+
+        if (settingsProvider == null) return defaultPrefixMatcher
+
+        return guildPrefixMatchers.computeIfAbsent(channel.guild.idLong) {
+            PrefixMatcher(getEffectivePrefixes(channel))
+        }
+    }
+
+    override fun invalidatePrefixes(channel: GuildMessageChannel) {
+        channelPrefixMatchers.invalidate(channel.idLong)
+    }
+
+    override fun invalidatePrefixes(guild: Guild) {
+        guildPrefixMatchers.remove(guild.idLong)
+        channelPrefixMatchers.asMap().values.removeIf { it.guildId == guild.idLong }
+    }
+
+    override fun invalidatePrefixes() {
+        guildPrefixMatchers.clear()
+        channelPrefixMatchers.invalidateAll()
+    }
+
+    @BEventListener(ignoreIntents = true)
+    internal fun onGuildLeave(event: GuildLeaveEvent) {
+        invalidatePrefixes(event.guild)
+    }
+
+    @BEventListener(ignoreIntents = true)
+    internal fun onChannelDelete(event: ChannelDeleteEvent) {
+        if (!event.isFromGuild) return
+        channelPrefixMatchers.invalidate(event.channel.idLong)
+    }
+
+    @BEventListener(ignoreIntents = true)
+    internal fun onThreadArchive(event: ChannelUpdateArchivedEvent) {
+        if (event.newValue == true) channelPrefixMatchers.invalidate(event.channel.idLong)
+    }
+
     override fun getPreferredPrefix(channel: GuildMessageChannel): String? {
         if (textPrefixSupplier != null) {
             return textPrefixSupplier!!.getPreferredPrefix(channel)
@@ -31,7 +31,6 @@ import net.dv8tion.jda.api.requests.ErrorResponse
 import net.dv8tion.jda.api.requests.GatewayIntent
 
 private val logger = KotlinLogging.logger { }
-private val spacePattern = Regex("\\s+")
 
 @BService
 @RequiresTextCommands
@@ -48,8 +47,6 @@ internal class TextCommandsListener internal constructor(
     private val suggestionSupplier: TextSuggestionSupplier,
     private val helpCommand: IHelpCommand?
 ) {
-    private data class CommandWithArgs(val command: TextCommandInfoImpl, val args: String)
-
     private val scope = context.coroutineScopesConfig.textCommandsScope
     private val exceptionHandler = ExceptionHandler(context, logger)
 
@@ -78,7 +75,7 @@ internal class TextCommandsListener internal constructor(
 
         scope.launchCatching({ handleException(event, it, msg) }) launch@{
             val isNotOwner = event.author !in context.botOwners
-            val (commandInfo: TextCommandInfoImpl, args: String) = findCommandWithArgs(content, isNotOwner) ?: let {
+            val (commandInfo: TextCommandInfoImpl, args: String) = findCommandWithArgs(textCommandsContext.rootCommandsByName, content, isNotOwner) ?: let {
                 // At this point no top level command was found,
                 // if a subcommand wasn't matched, it would simply appear in the args
                 onCommandNotFound(event, content.substringBefore(' '))
@@ -144,35 +141,9 @@ internal class TextCommandsListener internal constructor(
         }
     }
 
-    private fun findCommandWithArgs(content: String, isNotOwner: Boolean): CommandWithArgs? {
-        var commandInfo: TextCommandInfoImpl? = null
-        val words: List<String> = spacePattern.split(content)
-        for (index in words.indices) {
-            when (val info = textCommandsContext.findTextCommand(words.subList(0, index + 1))) {
-                null -> break
-                else -> {
-                    if (info.hidden && isNotOwner) {
-                        //This will help us have the same behavior as if the command didn't exist
-                        continue
-                    } else {
-                        commandInfo = info
-                    }
-                }
-            }
-        }
-
-        return commandInfo?.let {
-            //Keep the part after the command paths
-            val args = (0..<commandInfo.path.nameCount).fold(content) { acc, i ->
-                acc.substringAfter(words[i])
-            }.trimStart()
-            CommandWithArgs(it, args)
-        }
-    }
-
     private fun getMsgNoPrefix(msg: String, channel: GuildMessageChannel): String? {
-        return textCommandsContext.getEffectivePrefixes(channel)
-            .find { prefix -> msg.startsWith(prefix) }
+        return textCommandsContext.getPrefixMatcher(channel)
+            .findPrefix(msg)
             ?.let { prefix -> msg.substring(prefix.length).trimStart() }
     }
 
@@ -182,7 +153,7 @@ internal class TextCommandsListener internal constructor(
 
         if (usability.isNotUsable) {
             val errorMessage: String = when (usability.bestReason) {
-                UnusableReason.HIDDEN -> throwInternal("Hidden commands should have been ignored by ${TextCommandsListener::findCommandWithArgs.shortSignature}")
+                UnusableReason.HIDDEN -> throwInternal("Hidden commands should have been ignored by ${::findCommandWithArgs.shortSignature}")
                 UnusableReason.OWNER_ONLY -> defaultMessagesFactory.get(event).ownerOnlyErrorMsg
                 UnusableReason.USER_PERMISSIONS -> {
                     val missingPermissions = getMissingPermissions(commandInfo.userPermissions, member, event.guildChannel)
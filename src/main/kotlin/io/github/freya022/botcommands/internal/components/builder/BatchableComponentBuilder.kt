@@ -0,0 +1,20 @@
+package io.github.freya022.botcommands.internal.components.builder
+
+import io.github.freya022.botcommands.api.components.builder.BaseComponentBuilder
+import io.github.freya022.botcommands.internal.components.builder.mixin.BaseComponentBuilderMixin
+
+/**
+ * A component builder which can be created alongside other components, in a single transaction,
+ * see [ComponentController.buildComponents][io.github.freya022.botcommands.internal.components.controller.ComponentController.buildComponents].
+ *
+ * @param R Type of the built component
+ */
+internal interface BatchableComponentBuilder<T : BaseComponentBuilder<T>, out R> : BaseComponentBuilderMixin<T> {
+    /**
+     * Whether this builder was successfully built,
+     * this is only set after the component has been created.
+     */
+    var isBuilt: Boolean
+
+    fun createComponent(internalId: Int, componentId: String): R
+}
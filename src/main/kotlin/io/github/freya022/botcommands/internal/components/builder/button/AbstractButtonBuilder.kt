@@ -5,6 +5,7 @@ import io.github.freya022.botcommands.api.components.builder.button.ButtonBuilde
 import io.github.freya022.botcommands.internal.components.ButtonImpl
 import io.github.freya022.botcommands.internal.components.ComponentType
 import io.github.freya022.botcommands.internal.components.builder.AbstractComponentBuilder
+import io.github.freya022.botcommands.internal.components.builder.BatchableComponentBuilder
 import io.github.freya022.botcommands.internal.components.builder.InstanceRetriever
 import io.github.freya022.botcommands.internal.components.controller.ComponentController
 import kotlinx.coroutines.runBlocking
@@ -20,25 +21,22 @@ internal sealed class AbstractButtonBuilder<T : ButtonBuilder<T>>(
     private val emoji: Emoji?,
     instanceRetriever: InstanceRetriever<T>
 ) : AbstractComponentBuilder<T>(instanceRetriever),
+    BatchableComponentBuilder<T, Button>,
     ButtonBuilder<T> {
 
     final override val componentType: ComponentType = ComponentType.BUTTON
 
-    private var built = false
+    final override var isBuilt = false
 
     override fun build(): Button = runBlocking { buildSuspend() }
 
     @PublishedApi
-    internal suspend fun buildSuspend(): Button {
-        check(!built) { "Cannot build components more than once" }
-        built = true
+    internal suspend fun buildSuspend(): Button = componentController.buildComponents(listOf(this)).single()
 
-        return componentController.withNewComponent(this) { internalId, componentId ->
-            ButtonImpl(
-                componentController,
-                internalId,
-                JDAButton.of(style, componentId, label, emoji)
-            )
-        }
-    }
+    override fun createComponent(internalId: Int, componentId: String): Button =
+        ButtonImpl(
+            componentController,
+            internalId,
+            JDAButton.of(style, componentId, label, emoji)
+        )
 }
\ No newline at end of file
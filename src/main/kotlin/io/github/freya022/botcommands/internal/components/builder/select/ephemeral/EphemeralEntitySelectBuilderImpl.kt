@@ -6,6 +6,7 @@ import io.github.freya022.botcommands.api.components.event.EntitySelectEvent
 import io.github.freya022.botcommands.internal.components.ComponentType
 import io.github.freya022.botcommands.internal.components.EntitySelectMenuImpl
 import io.github.freya022.botcommands.internal.components.LifetimeType
+import io.github.freya022.botcommands.internal.components.builder.BatchableComponentBuilder
 import io.github.freya022.botcommands.internal.components.builder.InstanceRetriever
 import io.github.freya022.botcommands.internal.components.builder.mixin.*
 import io.github.freya022.botcommands.internal.components.builder.mixin.impl.ConstrainableComponentImpl
@@ -23,7 +24,7 @@ internal class EphemeralEntitySelectBuilderImpl internal constructor(
     targets: Collection<JDAEntitySelectMenu.SelectTarget>,
     instanceRetriever: InstanceRetriever<EphemeralEntitySelectBuilder>
 ) : EphemeralEntitySelectBuilder(),
-    BaseComponentBuilderMixin<EphemeralEntitySelectBuilder>,
+    BatchableComponentBuilder<EphemeralEntitySelectBuilder, EntitySelectMenu>,
     IConstrainableComponentMixin<EphemeralEntitySelectBuilder> by ConstrainableComponentImpl(instanceRetriever),
     IUniqueComponentMixin<EphemeralEntitySelectBuilder> by UniqueComponentImpl(instanceRetriever),
     IEphemeralActionableComponentMixin<EphemeralEntitySelectBuilder, EntitySelectEvent> by EphemeralActionableComponentImpl(componentController.context, instanceRetriever),
@@ -33,7 +34,7 @@ internal class EphemeralEntitySelectBuilderImpl internal constructor(
     override val lifetimeType: LifetimeType get() = LifetimeType.EPHEMERAL
     override val instance: EphemeralEntitySelectBuilderImpl get() = this
 
-    private var built = false
+    override var isBuilt = false
 
     init {
         instanceRetriever.instance = this
@@ -54,12 +55,8 @@ internal class EphemeralEntitySelectBuilderImpl internal constructor(
     override fun build(): EntitySelectMenu = runBlocking { buildSuspend() }
 
     @PublishedApi
-    internal suspend fun buildSuspend(): EntitySelectMenu {
-        check(!built) { "Cannot build components more than once" }
-        built = true
+    internal suspend fun buildSuspend(): EntitySelectMenu = componentController.buildComponents(listOf(this)).single()
 
-        componentController.withNewComponent(this) { internalId, componentId ->
-            return EntitySelectMenuImpl(componentController, internalId, jdaBuild(componentId))
-        }
-    }
+    override fun createComponent(internalId: Int, componentId: String): EntitySelectMenu =
+        EntitySelectMenuImpl(componentController, internalId, jdaBuild(componentId))
 }
\ No newline at end of file
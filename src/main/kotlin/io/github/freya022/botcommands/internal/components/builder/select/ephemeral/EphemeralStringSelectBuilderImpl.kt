@@ -6,6 +6,7 @@ import io.github.freya022.botcommands.api.components.event.StringSelectEvent
 import io.github.freya022.botcommands.internal.components.ComponentType
 import io.github.freya022.botcommands.internal.components.LifetimeType
 import io.github.freya022.botcommands.internal.components.StringSelectMenuImpl
+import io.github.freya022.botcommands.internal.components.builder.BatchableComponentBuilder
 import io.github.freya022.botcommands.internal.components.builder.InstanceRetriever
 import io.github.freya022.botcommands.internal.components.builder.mixin.*
 import io.github.freya022.botcommands.internal.components.builder.mixin.impl.ConstrainableComponentImpl
@@ -22,7 +23,7 @@ internal class EphemeralStringSelectBuilderImpl internal constructor(
     private val componentController: ComponentController,
     instanceRetriever: InstanceRetriever<EphemeralStringSelectBuilder>
 ) : EphemeralStringSelectBuilder(),
-    BaseComponentBuilderMixin<EphemeralStringSelectBuilder>,
+    BatchableComponentBuilder<EphemeralStringSelectBuilder, StringSelectMenu>,
     IConstrainableComponentMixin<EphemeralStringSelectBuilder> by ConstrainableComponentImpl(instanceRetriever),
     IUniqueComponentMixin<EphemeralStringSelectBuilder> by UniqueComponentImpl(instanceRetriever),
     IEphemeralActionableComponentMixin<EphemeralStringSelectBuilder, StringSelectEvent> by EphemeralActionableComponentImpl(componentController.context, instanceRetriever),
@@ -32,7 +33,7 @@ internal class EphemeralStringSelectBuilderImpl internal constructor(
     override val lifetimeType: LifetimeType get() = LifetimeType.EPHEMERAL
     override val instance: EphemeralStringSelectBuilderImpl get() = this
 
-    private var built = false
+    override var isBuilt = false
 
     init {
         instanceRetriever.instance = this
@@ -52,12 +53,8 @@ internal class EphemeralStringSelectBuilderImpl internal constructor(
     override fun build(): StringSelectMenu = runBlocking { buildSuspend() }
 
     @PublishedApi
-    internal suspend fun buildSuspend(): StringSelectMenu {
-        check(!built) { "Cannot build components more than once" }
-        built = true
+    internal suspend fun buildSuspend(): StringSelectMenu = componentController.buildComponents(listOf(this)).single()
 
-        componentController.withNewComponent(this) { internalId, componentId ->
-            return StringSelectMenuImpl(componentController, internalId, jdaBuild(componentId))
-        }
-    }
+    override fun createComponent(internalId: Int, componentId: String): StringSelectMenu =
+        StringSelectMenuImpl(componentController, internalId, jdaBuild(componentId))
 }
\ No newline at end of file
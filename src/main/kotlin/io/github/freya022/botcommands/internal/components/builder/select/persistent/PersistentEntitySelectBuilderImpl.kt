@@ -5,6 +5,7 @@ import io.github.freya022.botcommands.api.components.builder.select.persistent.P
 import io.github.freya022.botcommands.internal.components.ComponentType
 import io.github.freya022.botcommands.internal.components.EntitySelectMenuImpl
 import io.github.freya022.botcommands.internal.components.LifetimeType
+import io.github.freya022.botcommands.internal.components.builder.BatchableComponentBuilder
 import io.github.freya022.botcommands.internal.components.builder.InstanceRetriever
 import io.github.freya022.botcommands.internal.components.builder.mixin.*
 import io.github.freya022.botcommands.internal.components.builder.mixin.impl.ConstrainableComponentImpl
@@ -22,7 +23,7 @@ internal class PersistentEntitySelectBuilderImpl internal constructor(
     targets: Collection<JDAEntitySelectMenu.SelectTarget>,
     instanceRetriever: InstanceRetriever<PersistentEntitySelectBuilder>
 ) : PersistentEntitySelectBuilder(),
-    BaseComponentBuilderMixin<PersistentEntitySelectBuilder>,
+    BatchableComponentBuilder<PersistentEntitySelectBuilder, EntitySelectMenu>,
     IConstrainableComponentMixin<PersistentEntitySelectBuilder> by ConstrainableComponentImpl(instanceRetriever),
     IUniqueComponentMixin<PersistentEntitySelectBuilder> by UniqueComponentImpl(instanceRetriever),
     IPersistentActionableComponentMixin<PersistentEntitySelectBuilder> by PersistentActionableComponentImpl(componentController.context, instanceRetriever),
@@ -32,7 +33,7 @@ internal class PersistentEntitySelectBuilderImpl internal constructor(
     override val lifetimeType: LifetimeType get() = LifetimeType.PERSISTENT
     override val instance: PersistentEntitySelectBuilderImpl get() = this
 
-    private var built = false
+    override var isBuilt = false
 
     init {
         instanceRetriever.instance = this
@@ -53,12 +54,8 @@ internal class PersistentEntitySelectBuilderImpl internal constructor(
     override fun build(): EntitySelectMenu = runBlocking { buildSuspend() }
 
     @PublishedApi
-    internal suspend fun buildSuspend(): EntitySelectMenu {
-        check(!built) { "Cannot build components more than once" }
-        built = true
+    internal suspend fun buildSuspend(): EntitySelectMenu = componentController.buildComponents(listOf(this)).single()
 
-        componentController.withNewComponent(this) { internalId, componentId ->
-            return EntitySelectMenuImpl(componentController, internalId, jdaBuild(componentId))
-        }
-    }
+    override fun createComponent(internalId: Int, componentId: String): EntitySelectMenu =
+        EntitySelectMenuImpl(componentController, internalId, jdaBuild(componentId))
 }
\ No newline at end of file
@@ -5,6 +5,7 @@ import io.github.freya022.botcommands.api.components.builder.select.persistent.P
 import io.github.freya022.botcommands.internal.components.ComponentType
 import io.github.freya022.botcommands.internal.components.LifetimeType
 import io.github.freya022.botcommands.internal.components.StringSelectMenuImpl
+import io.github.freya022.botcommands.internal.components.builder.BatchableComponentBuilder
 import io.github.freya022.botcommands.internal.components.builder.InstanceRetriever
 import io.github.freya022.botcommands.internal.components.builder.mixin.*
 import io.github.freya022.botcommands.internal.components.builder.mixin.impl.ConstrainableComponentImpl
@@ -21,7 +22,7 @@ internal class PersistentStringSelectBuilderImpl internal constructor(
     private val componentController: ComponentController,
     instanceRetriever: InstanceRetriever<PersistentStringSelectBuilder>
 ) : PersistentStringSelectBuilder(),
-    BaseComponentBuilderMixin<PersistentStringSelectBuilder>,
+    BatchableComponentBuilder<PersistentStringSelectBuilder, StringSelectMenu>,
     IConstrainableComponentMixin<PersistentStringSelectBuilder> by ConstrainableComponentImpl(instanceRetriever),
     IUniqueComponentMixin<PersistentStringSelectBuilder> by UniqueComponentImpl(instanceRetriever),
     IPersistentActionableComponentMixin<PersistentStringSelectBuilder> by PersistentActionableComponentImpl(componentController.context, instanceRetriever),
@@ -31,7 +32,7 @@ internal class PersistentStringSelectBuilderImpl internal constructor(
     override val lifetimeType: LifetimeType get() = LifetimeType.PERSISTENT
     override val instance: PersistentStringSelectBuilderImpl get() = this
 
-    private var built = false
+    override var isBuilt = false
 
     init {
         instanceRetriever.instance = this
@@ -51,12 +52,8 @@ internal class PersistentStringSelectBuilderImpl internal constructor(
     override fun build(): StringSelectMenu = runBlocking { buildSuspend() }
 
     @PublishedApi
-    internal suspend fun buildSuspend(): StringSelectMenu {
-        check(!built) { "Cannot build components more than once" }
-        built = true
+    internal suspend fun buildSuspend(): StringSelectMenu = componentController.buildComponents(listOf(this)).single()
 
-        componentController.withNewComponent(this) { internalId, componentId ->
-            return StringSelectMenuImpl(componentController, internalId, jdaBuild(componentId))
-        }
-    }
+    override fun createComponent(internalId: Int, componentId: String): StringSelectMenu =
+        StringSelectMenuImpl(componentController, internalId, jdaBuild(componentId))
 }
\ No newline at end of file
@@ -11,32 +11,56 @@ import io.github.freya022.botcommands.api.core.service.annotations.BService
 import io.github.freya022.botcommands.api.core.service.lazy
 import io.github.freya022.botcommands.api.core.utils.simpleNestedName
 import io.github.freya022.botcommands.internal.commands.ratelimit.RateLimitContainer
+import io.github.freya022.botcommands.internal.components.LifetimeType
+import io.github.freya022.botcommands.internal.components.builder.BatchableComponentBuilder
 import io.github.freya022.botcommands.internal.components.builder.group.AbstractComponentGroupBuilder
 import io.github.freya022.botcommands.internal.components.builder.mixin.BaseComponentBuilderMixin
 import io.github.freya022.botcommands.internal.components.data.ActionComponentData
 import io.github.freya022.botcommands.internal.components.data.ComponentData
 import io.github.freya022.botcommands.internal.components.handler.EphemeralComponentHandlers
 import io.github.freya022.botcommands.internal.components.repositories.ComponentRepository
+import io.github.freya022.botcommands.internal.components.repositories.ComponentStorage
+import io.github.freya022.botcommands.internal.components.repositories.EphemeralComponentStorage
 import io.github.freya022.botcommands.internal.components.timeout.EphemeralTimeoutHandlers
 import io.github.freya022.botcommands.internal.utils.classRef
+import io.github.freya022.botcommands.internal.utils.launchCatching
 import io.github.freya022.botcommands.internal.utils.reference
 import io.github.freya022.botcommands.internal.utils.takeIfFinite
 import io.github.freya022.botcommands.internal.utils.throwInternal
 import io.github.oshai.kotlinlogging.KotlinLogging
-import kotlinx.coroutines.runBlocking
+import kotlinx.coroutines.*
 import kotlinx.datetime.Clock
+import kotlinx.datetime.Instant
+import java.util.*
+import kotlin.random.Random
+import kotlin.time.Duration.Companion.minutes
+import kotlin.time.Duration.Companion.seconds
 
 private const val PREFIX = "BotCommands-Components-"
 private const val PREFIX_LENGTH = PREFIX.length
+private const val IN_MEMORY_SALT_SEPARATOR = ':'
+
+// Appended to the IDs of in-memory components,
+// so components of a previous run cannot resolve to components of this run, which reuse the same IDs
+private val inMemorySalt: String = Random.nextLong().toULong().toString(36)
 
 private val logger = KotlinLogging.logger { }
 
+// Only timeouts expiring in this window are held in memory
+private val timeoutScheduleWindow = 30.minutes
+// Must be lower than the window so no timeout is picked up late
+private val timeoutSweepInterval = timeoutScheduleWindow / 2
+private const val timeoutPageSize = 1000
+private val startupInitialRetryDelay = 1.seconds
+private val startupMaxRetryDelay = 1.minutes
+
 @BService
 @RequiresComponents
 internal class ComponentController(
     val context: BContext,
     internal val continuationManager: ComponentContinuationManager,
     private val componentRepository: ComponentRepository,
+    private val ephemeralComponentStorage: EphemeralComponentStorage,
     private val ephemeralComponentHandlers: EphemeralComponentHandlers,
     private val ephemeralTimeoutHandlers: EphemeralTimeoutHandlers,
     private val timeoutManager: ComponentTimeoutManager
@@ -44,33 +68,143 @@ internal class ComponentController(
     // This service might be used in classes that use components and also declare rate limiters
     private val rateLimitContainer: RateLimitContainer by context.serviceContainer.lazy()
     private val rateLimitReferences: MutableSet<ComponentRateLimitReference> = hashSetOf()
+    private val useInMemoryEphemeralStorage = context.componentsConfig.useInMemoryEphemeralStorage
+
+    // ID of the last ephemeral component created by a previous run, all of these are removed asynchronously
+    private val lastStaleEphemeralId = CompletableDeferred<Int>()
 
     init {
-        runBlocking {
+        val timeoutScope = context.coroutineScopesConfig.componentTimeoutScope
+        timeoutScope.launchCatching({ logger.error(it) { "An exception occurred while cleaning up components" } }) {
+            lastStaleEphemeralId.complete(retrieveLastStaleEphemeralId())
             removeEphemeralComponents()
-            scheduleExistingTimeouts()
+            scheduleNearTimeouts()
+        }.invokeOnCompletion { cause ->
+            // Unblock component creation if the scope got cancelled, does nothing if it was already completed
+            if (cause != null) lastStaleEphemeralId.completeExceptionally(cause)
+        }
+
+        timeoutScope.launch {
+            while (true) {
+                delay(timeoutSweepInterval)
+                if (!lastStaleEphemeralId.isCompleted) continue
+
+                try {
+                    scheduleNearTimeouts()
+                } catch (e: CancellationException) {
+                    throw e
+                } catch (e: Exception) {
+                    logger.error(e) { "An exception occurred while scheduling component timeouts" }
+                }
+            }
+        }
+    }
+
+    /**
+     * Retrieves the ID of the last ephemeral component from a previous run,
+     * retrying with an exponential backoff, as component creation waits on it.
+     */
+    private suspend fun retrieveLastStaleEphemeralId(): Int {
+        var retryDelay = startupInitialRetryDelay
+        while (true) {
+            try {
+                return componentRepository.getLastEphemeralComponentId()
+            } catch (e: CancellationException) {
+                throw e
+            } catch (e: Exception) {
+                logger.error(e) { "Could not retrieve the last ephemeral component ID, retrying in $retryDelay" }
+            }
+
+            delay(retryDelay)
+            retryDelay = (retryDelay * 2).coerceAtMost(startupMaxRetryDelay)
         }
     }
 
     private suspend fun removeEphemeralComponents() {
-        val removedComponents = componentRepository.removeEphemeralComponents()
+        val removedComponents = componentRepository.removeEphemeralComponents(lastStaleEphemeralId.await())
         logger.debug { "Removed $removedComponents ephemeral components" }
     }
 
-    private suspend fun scheduleExistingTimeouts() {
-        componentRepository
-            .getPersistentComponentTimeouts()
-            .forEach {
-                timeoutManager.scheduleTimeout(it.componentId, it.instant)
+    /**
+     * Schedules the timeouts of components expiring in less than [timeoutScheduleWindow],
+     * components expiring later are picked up by the next sweeps.
+     */
+    private suspend fun scheduleNearTimeouts() {
+        val lastStaleId = lastStaleEphemeralId.await()
+        val expiresBefore = Clock.System.now() + timeoutScheduleWindow
+
+        var scheduledTimeouts = 0
+        var afterId = 0
+        while (true) {
+            val timeouts = componentRepository.getComponentTimeoutsPage(expiresBefore, lastStaleId, afterId, timeoutPageSize)
+            timeouts.forEach {
+                if (!timeoutManager.hasTimeout(it.componentId)) {
+                    timeoutManager.scheduleTimeout(it.componentId, it.instant)
+                    scheduledTimeouts++
+                }
             }
+
+            if (timeouts.size < timeoutPageSize) break
+            afterId = timeouts.last().componentId
+        }
+
+        logger.trace { "Scheduled $scheduledTimeouts component timeouts" }
+    }
+
+    /**
+     * Schedules the timeout if the component is stored in memory, or if it expires soon,
+     * database components expiring later are picked up by [scheduleNearTimeouts].
+     */
+    private fun scheduleTimeoutIfNear(componentId: Int, expirationTimestamp: Instant) {
+        if (getStorage(componentId) === componentRepository && expirationTimestamp - Clock.System.now() >= timeoutScheduleWindow)
+            return
+
+        timeoutManager.scheduleTimeout(componentId, expirationTimestamp)
     }
 
-    internal suspend inline fun <R> withNewComponent(builder: BaseComponentBuilderMixin<*>, block: (internalId: Int, componentId: String) -> R): R {
-        val internalId = createComponent(builder).internalId
-        return block(internalId, getComponentId(internalId))
+    /**
+     * Creates all the components in a single transaction,
+     * then creates the component of each builder with its new IDs.
+     *
+     * Builders are only marked as built once all components were created,
+     * so they can be built again if the creation failed.
+     */
+    internal suspend fun <R> buildComponents(builders: List<BatchableComponentBuilder<*, R>>): List<R> {
+        check(builders.none { it.isBuilt }) { "Cannot build components more than once" }
+        val distinctBuilders = Collections.newSetFromMap(IdentityHashMap<BatchableComponentBuilder<*, R>, Boolean>())
+        check(builders.all(distinctBuilders::add)) { "Cannot build components more than once" }
+
+        val components = createComponents(builders)
+        return builders.mapIndexed { i, builder ->
+            val internalId = components[i].internalId
+            builder.createComponent(internalId, getComponentId(internalId))
+        }.also { builders.forEach { it.isBuilt = true } }
     }
 
-    private suspend fun createComponent(builder: BaseComponentBuilderMixin<*>): ComponentData {
+    private suspend fun createComponents(builders: List<BaseComponentBuilderMixin<*>>): List<ComponentData> {
+        builders.forEach(::checkComponent)
+        // Stale ephemeral components are identified by their ID being lower than newly created ones
+        lastStaleEphemeralId.await()
+
+        val components = arrayOfNulls<ComponentData>(builders.size)
+        builders.indices
+            .groupBy { getStorage(builders[it].lifetimeType) }
+            .forEach { (storage, indices) ->
+                storage.createComponents(indices.map { builders[it] }).forEachIndexed { i, component ->
+                    components[indices[i]] = component
+                }
+            }
+
+        return components
+            .map { it ?: throwInternal("A component was not created") }
+            .onEach { component ->
+                component.expiresAt?.let { expirationTimestamp ->
+                    scheduleTimeoutIfNear(component.internalId, expirationTimestamp)
+                }
+            }
+    }
+
+    private fun checkComponent(builder: BaseComponentBuilderMixin<*>) {
         builder.rateLimitReference?.let { rateLimitReference ->
             require(rateLimitReference.group in rateLimitContainer) {
                 "Rate limit group '${rateLimitReference.group}' was not registered using ${classRef<RateLimitProvider>()}"
@@ -93,18 +227,23 @@ internal class ComponentController(
         if (builder.resetTimeoutOnUse && builder.timeoutDuration?.takeIfFinite() == null) {
             logger.warn { "Using 'resetTimeoutOnUse' has no effect when no timeout is set" }
         }
+    }
 
-        val component = componentRepository.createComponent(builder)
+    internal suspend fun getComponent(componentId: Int): ComponentData? =
+        getStorage(componentId).getComponent(componentId)?.takeUnless(::isStaleEphemeralComponent)
 
-        component.expiresAt?.let { expirationTimestamp ->
-            timeoutManager.scheduleTimeout(component.internalId, expirationTimestamp)
-        }
+    // Ephemeral components from a previous run are unusable, as their handlers are lost
+    private fun isStaleEphemeralComponent(component: ComponentData): Boolean {
+        if (component.lifetimeType != LifetimeType.EPHEMERAL || getStorage(component.internalId) !== componentRepository)
+            return false
 
-        return component
+        @OptIn(ExperimentalCoroutinesApi::class)
+        val lastStaleId = if (lastStaleEphemeralId.isCompleted) lastStaleEphemeralId.getCompleted() else return true
+        return component.internalId <= lastStaleId
     }
 
     internal suspend fun getActiveComponent(componentId: Int): ComponentData? {
-        return componentRepository.getComponent(componentId)
+        return getComponent(componentId)
             ?.takeUnless {
                 val expiresAt = it.expiresAt
                 expiresAt != null && expiresAt <= Clock.System.now()
@@ -120,11 +259,11 @@ internal class ComponentController(
         } else {
             if (component.resetTimeoutOnUseDuration == null) return
 
-            // Cancel, reset in DB, schedule
+            // Cancel, reset in storage, schedule
             timeoutManager.cancelTimeout(component.internalId)
-            val newExpirationTimestamp = componentRepository.resetExpiration(component.internalId)
+            val newExpirationTimestamp = getStorage(component.internalId).resetExpiration(component.internalId)
                 ?: throwInternal("New expiration timestamp is null despite ${component::resetTimeoutOnUseDuration.reference} being non-null")
-            timeoutManager.scheduleTimeout(component.internalId, newExpirationTimestamp)
+            scheduleTimeoutIfNear(component.internalId, newExpirationTimestamp)
         }
     }
 
@@ -132,23 +271,80 @@ internal class ComponentController(
         deleteComponentsById(listOf(component.internalId), throwTimeouts)
 
     suspend fun createGroup(builder: AbstractComponentGroupBuilder<*>): ComponentGroup {
-        val group = componentRepository.insertGroup(builder)
+        val group = getGroupStorage(builder).insertGroup(builder)
 
         group.expiresAt?.let { expirationTimestamp ->
-            timeoutManager.scheduleTimeout(group.internalId, expirationTimestamp)
+            scheduleTimeoutIfNear(group.internalId, expirationTimestamp)
         }
 
         return ComponentGroup(this, group.internalId)
     }
 
     suspend fun deleteComponentsById(ids: Collection<Int>, throwTimeouts: Boolean) {
-        componentRepository.deleteComponentsById(ids).forEach { (componentId, ephemeralComponentHandlerId, ephemeralTimeoutHandlerId) ->
+        val deletedComponents = ids
+            .groupBy(::getStorage)
+            .flatMap { (storage, storageIds) -> storage.deleteComponentsById(storageIds) }
+        onComponentsDeleted(deletedComponents, throwTimeouts)
+    }
+
+    /**
+     * Deletes the components which expired, in a single operation per storage, and returns them.
+     *
+     * Components which are no longer expired get their timeout rescheduled, if it was not already.
+     */
+    internal suspend fun expireComponents(ids: Collection<Int>): List<ComponentData> {
+        val now = Clock.System.now()
+        val expiredComponents = ids
+            .groupBy(::getStorage)
+            .flatMap { (storage, storageIds) ->
+                val (components, deletedComponents) = storage.deleteExpiredComponents(storageIds, now)
+                onComponentsDeleted(deletedComponents, throwTimeouts = true)
+                components
+            }
+
+        if (expiredComponents.size != ids.size) {
+            val expiredIds = expiredComponents.mapTo(hashSetOf()) { it.internalId }
+            ids.forEach { id ->
+                if (id in expiredIds || !timeoutManager.removeExpiredTimeout(id)) return@forEach
+
+                getComponent(id)?.expiresAt?.let { expirationTimestamp ->
+                    scheduleTimeoutIfNear(id, expirationTimestamp)
+                }
+            }
+        }
+
+        return expiredComponents
+    }
+
+    private fun onComponentsDeleted(deletedComponents: List<ComponentStorage.DeletedComponent>, throwTimeouts: Boolean) {
+        deletedComponents.forEach { (componentId, ephemeralComponentHandlerId, ephemeralTimeoutHandlerId) ->
             ephemeralComponentHandlerId?.let { ephemeralComponentHandlers.remove(it) }
             ephemeralTimeoutHandlerId?.let { ephemeralTimeoutHandlers.remove(it) }
             timeoutManager.removeTimeouts(componentId, throwTimeouts)
         }
     }
 
+    private fun getStorage(lifetimeType: LifetimeType): ComponentStorage = when {
+        useInMemoryEphemeralStorage && lifetimeType == LifetimeType.EPHEMERAL -> ephemeralComponentStorage
+        else -> componentRepository
+    }
+
+    // In-memory components have negative IDs
+    private fun getStorage(componentId: Int): ComponentStorage = when {
+        componentId < 0 -> ephemeralComponentStorage
+        else -> componentRepository
+    }
+
+    private fun getGroupStorage(builder: AbstractComponentGroupBuilder<*>): ComponentStorage {
+        val storages = builder.componentIds.mapTo(hashSetOf(), ::getStorage)
+        if (ephemeralComponentStorage !in storages) return componentRepository
+
+        require(storages.size == 1 && builder.lifetimeType == LifetimeType.EPHEMERAL) {
+            "Ephemeral components stored in memory can only be put in ephemeral groups, alongside other ephemeral components"
+        }
+        return ephemeralComponentStorage
+    }
+
     internal fun createRateLimitReference(group: String, discriminator: String): ComponentRateLimitReference {
         val ref = ComponentRateLimitReference(group, discriminator)
         check(rateLimitReferences.add(ref)) {
@@ -166,8 +362,24 @@ internal class ComponentController(
     internal companion object {
         internal fun isCompatibleComponent(id: String): Boolean = id.startsWith(PREFIX)
 
-        internal fun parseComponentId(id: String): Int = Integer.parseInt(id, PREFIX_LENGTH, id.length, 10)
+        /**
+         * Returns the internal ID of the component,
+         * or `null` if this is an in-memory component of a previous run.
+         */
+        internal fun parseComponentIdOrNull(id: String): Int? {
+            val saltIndex = id.indexOf(IN_MEMORY_SALT_SEPARATOR, startIndex = PREFIX_LENGTH)
+            if (saltIndex == -1)
+                return Integer.parseInt(id, PREFIX_LENGTH, id.length, 10)
 
-        internal fun getComponentId(internalId: Int): String = PREFIX + internalId
+            if (id.length - saltIndex - 1 != inMemorySalt.length || !id.endsWith(inMemorySalt))
+                return null
+            return Integer.parseInt(id, PREFIX_LENGTH, saltIndex, 10)
+        }
+
+        internal fun getComponentId(internalId: Int): String = when {
+            // In-memory components have negative IDs
+            internalId < 0 -> "$PREFIX$internalId$IN_MEMORY_SALT_SEPARATOR$inMemorySalt"
+            else -> PREFIX + internalId
+        }
     }
 }
\ No newline at end of file
@@ -6,53 +6,116 @@ import io.github.freya022.botcommands.api.core.service.ServiceContainer
 import io.github.freya022.botcommands.api.core.service.annotations.BService
 import io.github.freya022.botcommands.api.core.service.lazy
 import io.github.freya022.botcommands.internal.components.handler.ComponentTimeoutExecutor
-import io.github.freya022.botcommands.internal.components.repositories.ComponentRepository
 import io.github.freya022.botcommands.internal.core.ExceptionHandler
+import io.github.freya022.botcommands.internal.core.timeout.TimeoutScheduler
+import io.github.freya022.botcommands.internal.core.timeout.TimeoutWheel.WheelTimeout
 import io.github.freya022.botcommands.internal.utils.TimeoutExceptionAccessor
-import io.github.freya022.botcommands.internal.utils.launchCatchingDelayed
+import io.github.freya022.botcommands.internal.utils.launchCatching
 import io.github.oshai.kotlinlogging.KotlinLogging
 import kotlinx.coroutines.CancellationException
-import kotlinx.coroutines.Job
+import kotlinx.coroutines.channels.Channel
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.launch
 import kotlinx.datetime.Clock
 import kotlinx.datetime.Instant
-import kotlin.collections.set
+import java.util.concurrent.ConcurrentHashMap
+import kotlin.time.Duration.Companion.milliseconds
+import kotlin.time.Duration.Companion.minutes
 
 private val logger = KotlinLogging.logger { }
 
+private val expiryBatchWindow = 50.milliseconds
+private const val maxExpiryBatchSize = 500
+private val expiryRetryDelay = 1.minutes
+
 @BService
 @RequiresComponents
 internal class ComponentTimeoutManager(
     private val context: BContext,
     serviceContainer: ServiceContainer,
     private val continuationManager: ComponentContinuationManager,
-    private val componentRepository: ComponentRepository,
     private val componentTimeoutExecutor: ComponentTimeoutExecutor,
+    private val timeoutScheduler: TimeoutScheduler,
 ) {
     private val exceptionHandler = ExceptionHandler(context, logger)
     private val componentController: ComponentController by serviceContainer.lazy()
-    private val timeoutMap = hashMapOf<Int, Job>()
+    private val timeoutMap: MutableMap<Int, WheelTimeout> = ConcurrentHashMap()
+
+    // Component IDs which timed out, waiting to be expired in batches
+    private val expiredIds = Channel<Int>(Channel.UNLIMITED)
+
+    init {
+        context.coroutineScopesConfig.componentTimeoutScope.launch {
+            while (true) {
+                val ids = receiveExpiredIds()
+                try {
+                    expireComponents(ids)
+                } catch (e: CancellationException) {
+                    throw e
+                } catch (e: Exception) {
+                    exceptionHandler.handleException(null, e, "component expiration", mapOf("Component IDs" to ids))
+                    retryExpiration(ids)
+                }
+            }
+        }
+    }
 
     internal fun scheduleTimeout(id: Int, expirationTimestamp: Instant) {
         val delay = expirationTimestamp - Clock.System.now()
-        timeoutMap[id] = context.coroutineScopesConfig.componentTimeoutScope.launchCatchingDelayed(
-            delay,
-            { handleTimeoutException(id, it) },
-            { onTimeout(id) }
-        )
+        timeoutMap.put(id, timeoutScheduler.schedule(delay) { expiredIds.trySend(id) })?.cancel()
+    }
+
+    internal fun hasTimeout(id: Int): Boolean = id in timeoutMap
+
+    /**
+     * Removes the timeout of the component if it has expired.
+     *
+     * @return `true` if an expired timeout was removed
+     */
+    internal fun removeExpiredTimeout(id: Int): Boolean {
+        val timeout = timeoutMap[id] ?: return false
+        return timeout.isExpired && timeoutMap.remove(id, timeout)
     }
 
-    private suspend fun onTimeout(id: Int) {
-        //Remove the ID from the timeout map even if the component doesn't exist (might have been cleaned earlier)
-        timeoutMap.remove(id)
+    /**
+     * Waits for a component to time out, then collects the other ones timing out in the next [expiryBatchWindow].
+     */
+    private suspend fun receiveExpiredIds(): Set<Int> {
+        val ids = hashSetOf(expiredIds.receive())
+        delay(expiryBatchWindow)
+        while (ids.size < maxExpiryBatchSize) {
+            ids += expiredIds.tryReceive().getOrNull() ?: break
+        }
+        return ids
+    }
 
-        val component = componentRepository.getComponent(id)
-            ?: return logger.warn { "Component $id was still timeout scheduled after being deleted" }
+    /**
+     * Schedules the expiration again for the components which still have their expired timeout,
+     * as they would otherwise never be picked up again.
+     */
+    private fun retryExpiration(ids: Set<Int>) {
+        ids.forEach { id ->
+            val timeout = timeoutMap[id] ?: return@forEach
+            // Was rescheduled in the meantime
+            if (!timeout.isExpired) return@forEach
 
-        //Will also cancel timeouts of related components
-        componentController.deleteComponent(component, throwTimeouts = true)
+            val retryTimeout = timeoutScheduler.schedule(expiryRetryDelay) { expiredIds.trySend(id) }
+            if (!timeoutMap.replace(id, timeout, retryTimeout))
+                retryTimeout.cancel()
+        }
+    }
+
+    private suspend fun expireComponents(ids: Set<Int>) {
+        // Also cancels timeouts of related components
+        val expiredComponents = componentController.expireComponents(ids)
 
         // Run user code
-        componentTimeoutExecutor.handleTimeout(component)
+        val timeoutScope = context.coroutineScopesConfig.componentTimeoutScope
+        expiredComponents.forEach { component ->
+            timeoutScope.launchCatching({ handleTimeoutException(component.internalId, it) }) {
+                componentTimeoutExecutor.handleTimeout(component)
+            }
+        }
     }
 
     internal fun removeTimeouts(componentId: Int, throwTimeouts: Boolean) {
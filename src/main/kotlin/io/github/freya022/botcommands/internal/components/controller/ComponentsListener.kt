@@ -68,9 +68,9 @@ internal class ComponentsListener(
                 if (!ComponentController.isCompatibleComponent(id))
                     return@launch logger.error { "Received an interaction for an external component format: '${event.componentId}', " +
                             "please only use ${classRef<Components>()} to make components or disable ${BComponentsConfigBuilder::enable.reference}" }
-                ComponentController.parseComponentId(id)
+                ComponentController.parseComponentIdOrNull(id)
             }
-            val component = componentController.getActiveComponent(componentId)
+            val component = componentId?.let { componentController.getActiveComponent(it) }
                 ?: return@launch event.reply_(defaultMessagesFactory.get(event).componentExpiredErrorMsg, ephemeral = true).queue()
 
             if (component !is ActionComponentData)
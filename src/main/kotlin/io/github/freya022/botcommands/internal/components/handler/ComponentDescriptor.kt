@@ -11,6 +11,7 @@ import io.github.freya022.botcommands.internal.ExecutableMixin
 import io.github.freya022.botcommands.internal.components.handler.options.ComponentHandlerParameterImpl
 import io.github.freya022.botcommands.internal.components.handler.options.builder.ComponentHandlerOptionBuilderImpl
 import io.github.freya022.botcommands.internal.core.BContextImpl
+import io.github.freya022.botcommands.internal.core.options.OptionFrameLayout
 import io.github.freya022.botcommands.internal.core.options.OptionType
 import io.github.freya022.botcommands.internal.core.options.builder.CustomOptionBuilderImpl
 import io.github.freya022.botcommands.internal.core.reflection.toMemberParamFunction
@@ -59,6 +60,8 @@ internal class ComponentDescriptor internal constructor(
         )
     }
 
+    override val optionFrameLayout = OptionFrameLayout(parameters)
+
     internal val optionSize = parameters.sumOf { p -> p.allOptions.count { o -> o.optionType == OptionType.OPTION } }
 
     @Suppress("DeprecatedCallableAddReplaceWith")
@@ -16,6 +16,7 @@ import io.github.freya022.botcommands.internal.components.data.PersistentCompone
 import io.github.freya022.botcommands.internal.components.handler.options.ComponentHandlerOption
 import io.github.freya022.botcommands.internal.core.options.OptionImpl
 import io.github.freya022.botcommands.internal.core.options.OptionType
+import io.github.freya022.botcommands.internal.core.options.OptionValues
 import io.github.freya022.botcommands.internal.parameters.CustomMethodOption
 import io.github.freya022.botcommands.internal.parameters.ServiceMethodOption
 import io.github.freya022.botcommands.internal.utils.*
@@ -24,7 +25,6 @@ import net.dv8tion.jda.api.events.interaction.component.EntitySelectInteractionE
 import net.dv8tion.jda.api.events.interaction.component.GenericComponentInteractionCreateEvent
 import net.dv8tion.jda.api.events.interaction.component.StringSelectInteractionEvent
 import net.dv8tion.jda.api.interactions.components.selections.SelectMenuInteraction
-import kotlin.reflect.full.callSuspendBy
 import kotlin.reflect.jvm.jvmErasure
 
 private val logger = KotlinLogging.logger { }
@@ -83,12 +83,12 @@ internal class ComponentHandlerExecutor internal constructor(
         checkEventType(event, descriptor)
 
         with(descriptor) {
-            val optionValues = parameters.mapOptions { option ->
+            val optionValues = mapOptions { option ->
                 if (tryInsertOption(event, option, this, userDataIterator) == InsertOptionResult.ABORT)
                     return false
             }
 
-            function.callSuspendBy(parameters.mapFinalParameters(event, optionValues))
+            eventFunction.callSuspendBy(mapFinalParameters(event, optionValues))
         }
         return true
     }
@@ -111,7 +111,7 @@ internal class ComponentHandlerExecutor internal constructor(
     private suspend fun tryInsertOption(
         event: GenericComponentInteractionCreateEvent,
         option: OptionImpl,
-        optionMap: MutableMap<OptionImpl, Any?>,
+        optionMap: OptionValues,
         userDataIterator: Iterator<String?>
     ): InsertOptionResult {
         val value = when (option.optionType) {
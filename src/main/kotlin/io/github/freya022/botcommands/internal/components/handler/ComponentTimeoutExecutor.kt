@@ -17,10 +17,10 @@ import io.github.freya022.botcommands.internal.components.timeout.TimeoutDescrip
 import io.github.freya022.botcommands.internal.components.timeout.options.TimeoutHandlerOption
 import io.github.freya022.botcommands.internal.core.options.OptionImpl
 import io.github.freya022.botcommands.internal.core.options.OptionType
+import io.github.freya022.botcommands.internal.core.options.OptionValues
 import io.github.freya022.botcommands.internal.parameters.ServiceMethodOption
 import io.github.freya022.botcommands.internal.utils.*
 import io.github.oshai.kotlinlogging.KotlinLogging
-import kotlin.reflect.full.callSuspendBy
 
 private val logger = KotlinLogging.logger { }
 
@@ -73,19 +73,19 @@ internal class ComponentTimeoutExecutor internal constructor(
         userDataIterator: Iterator<String?>
     ): Boolean {
         with(descriptor) {
-            val optionValues = parameters.mapOptions { option ->
+            val optionValues = mapOptions { option ->
                 if (tryInsertOption(option, this, userDataIterator) == InsertOptionResult.ABORT)
                     return false
             }
 
-            function.callSuspendBy(parameters.mapFinalParameters(firstArgument, optionValues))
+            eventFunction.callSuspendBy(mapFinalParameters(firstArgument, optionValues))
         }
         return true
     }
 
     private suspend fun tryInsertOption(
         option: OptionImpl,
-        optionMap: MutableMap<OptionImpl, Any?>,
+        optionMap: OptionValues,
         userDataIterator: Iterator<String?>
     ): InsertOptionResult {
         val value = when (option.optionType) {
@@ -0,0 +1,53 @@
+package io.github.freya022.botcommands.internal.components.repositories
+
+import com.github.benmanes.caffeine.cache.Cache
+import com.github.benmanes.caffeine.cache.Caffeine
+import io.github.freya022.botcommands.api.components.annotations.RequiresComponents
+import io.github.freya022.botcommands.api.core.config.BComponentsConfig
+import io.github.freya022.botcommands.api.core.service.annotations.BService
+import io.github.freya022.botcommands.internal.components.data.ComponentData
+import io.github.freya022.botcommands.internal.components.data.ComponentGroupData
+
+/**
+ * Read-through cache of [ComponentData] in front of [ComponentRepository].
+ *
+ * Disabled when [BComponentsConfig.cacheSize] is `0`.
+ */
+@BService
+@RequiresComponents
+internal class ComponentCache(componentsConfig: BComponentsConfig) {
+    private val cache: Cache<Int, ComponentData>? = componentsConfig.cacheSize
+        .takeIf { it > 0 }
+        ?.let { cacheSize ->
+            Caffeine.newBuilder()
+                .maximumSize(cacheSize.toLong())
+                .build()
+        }
+
+    operator fun get(id: Int): ComponentData? = cache?.getIfPresent(id)
+
+    fun put(component: ComponentData) {
+        cache?.put(component.internalId, component)
+    }
+
+    /**
+     * Invalidates the component with the provided ID,
+     * if the component was a cached group, its components are also invalidated,
+     * as they hold a copy of the group data.
+     */
+    fun invalidate(id: Int) {
+        val cache = cache ?: return
+        val component = cache.asMap().remove(id)
+        if (component is ComponentGroupData)
+            cache.invalidateAll(component.componentIds)
+    }
+
+    fun invalidateAll(ids: Collection<Int>) {
+        if (cache == null) return
+        ids.forEach(::invalidate)
+    }
+
+    fun invalidateIf(predicate: (ComponentData) -> Boolean) {
+        cache?.asMap()?.values?.removeIf(predicate)
+    }
+}
@@ -1,6 +1,7 @@
 package io.github.freya022.botcommands.internal.components.repositories
 
 import io.github.freya022.botcommands.api.components.annotations.RequiresComponents
+import io.github.freya022.botcommands.api.core.db.DBResult
 import io.github.freya022.botcommands.api.core.db.Transaction
 import io.github.freya022.botcommands.api.core.service.annotations.BService
 import io.github.freya022.botcommands.internal.components.handler.EphemeralComponentHandlers
@@ -13,45 +14,41 @@ import io.github.freya022.botcommands.internal.utils.throwInternal
 internal class ComponentHandlerRepository(
     private val ephemeralComponentHandlers: EphemeralComponentHandlers
 ) {
-    context(Transaction)
-    internal suspend fun getPersistentHandler(id: Int): PersistentHandler? {
-        return preparedStatement(
-            "SELECT handler_name, user_data FROM bc_persistent_handler WHERE component_id = ?"
-        ) {
-            val dbResult = executeQuery(id).readOrNull() ?: return@preparedStatement null
-
-            PersistentHandler.fromData(
-                dbResult["handler_name"],
-                dbResult["user_data"]
-            )
-        }
+    internal fun readPersistentHandler(dbResult: DBResult, handlerNameColumn: String, userDataColumn: String): PersistentHandler? {
+        val handlerName = dbResult.getOrNull<String>(handlerNameColumn) ?: return null
+        return PersistentHandler.fromData(
+            handlerName,
+            dbResult[userDataColumn]
+        )
     }
 
     context(Transaction)
-    internal suspend fun insertPersistentHandler(componentId: Int, handler: PersistentHandler) {
+    internal suspend fun insertPersistentHandlers(handlers: Map<Int, PersistentHandler>) {
+        if (handlers.isEmpty()) return
         preparedStatement("INSERT INTO bc_persistent_handler (component_id, handler_name, user_data) VALUES (?, ?, ?)") {
-            executeUpdate(componentId, handler.handlerName, handler.userData.toTypedArray())
+            handlers.forEach { (componentId, handler) ->
+                setParameters(arrayOf(componentId, handler.handlerName, handler.userData.toTypedArray()))
+                addBatch()
+            }
+            executeBatch_()
         }
     }
 
-    context(Transaction)
-    internal suspend fun getEphemeralHandler(id: Int): EphemeralHandler<*>? {
-        return preparedStatement(
-            "SELECT handler_id FROM bc_ephemeral_handler WHERE component_id = ?"
-        ) {
-            val dbResult = executeQuery(id).readOrNull() ?: return@preparedStatement null
-
-            dbResult.getInt("handler_id").let { handlerId ->
-                ephemeralComponentHandlers[handlerId]
-                    ?: throwInternal("Unable to find ephemeral handler with id $handlerId")
-            }
-        }
+    internal fun readEphemeralHandler(dbResult: DBResult, handlerIdColumn: String): EphemeralHandler<*>? {
+        val handlerId = dbResult.getOrNull<Int>(handlerIdColumn) ?: return null
+        return ephemeralComponentHandlers[handlerId]
+            ?: throwInternal("Unable to find ephemeral handler with id $handlerId")
     }
 
     context(Transaction)
-    internal suspend fun insertEphemeralHandler(componentId: Int, handler: EphemeralHandler<*>) {
+    internal suspend fun insertEphemeralHandlers(handlers: Map<Int, EphemeralHandler<*>>) {
+        if (handlers.isEmpty()) return
         preparedStatement("INSERT INTO bc_ephemeral_handler (component_id, handler_id) VALUES (?, ?)") {
-            executeUpdate(componentId, ephemeralComponentHandlers.put(handler))
+            handlers.forEach { (componentId, handler) ->
+                setParameters(arrayOf(componentId, ephemeralComponentHandlers.put(handler)))
+                addBatch()
+            }
+            executeBatch_()
         }
     }
 }
\ No newline at end of file
@@ -21,6 +21,8 @@ import io.github.freya022.botcommands.internal.components.data.timeout.Ephemeral
 import io.github.freya022.botcommands.internal.components.data.timeout.PersistentTimeout
 import io.github.freya022.botcommands.internal.components.handler.EphemeralHandler
 import io.github.freya022.botcommands.internal.components.handler.PersistentHandler
+import io.github.freya022.botcommands.internal.components.repositories.ComponentStorage.DeletedComponent
+import io.github.freya022.botcommands.internal.components.repositories.ComponentStorage.ExpiredComponents
 import io.github.freya022.botcommands.internal.core.db.InternalDatabase
 import io.github.freya022.botcommands.internal.core.exceptions.internalErrorMessage
 import io.github.freya022.botcommands.internal.utils.throwArgument
@@ -36,32 +38,85 @@ import kotlin.time.Duration.Companion.milliseconds
 
 private val logger = KotlinLogging.logger { }
 
+// Selects all the data required to construct a component, filter with a where clause
+private const val componentSelectQuery = """
+    select component.component_id,
+           lifetime_type,
+           component_type,
+           expires_at,
+           reset_timeout_on_use_duration_ms,
+           one_use,
+           users,
+           roles,
+           permissions,
+           rate_limit_group,
+           rate_limit_discriminator,
+           filters,
+           persistentHandler.handler_name as persistent_handler_name,
+           persistentHandler.user_data    as persistent_handler_data,
+           ephemeralHandler.handler_id    as ephemeral_handler_id,
+           persistentTimeout.handler_name as persistent_timeout_name,
+           persistentTimeout.user_data    as persistent_timeout_data,
+           ephemeralTimeout.handler_id    as ephemeral_timeout_id,
+           (select coalesce(array_agg(componentGroup.component_id), cast(array[] as integer array)) -- null if there are no rows
+            from bc_component_component_group componentGroup
+            where componentGroup.group_id = component.component_id) as group_component_ids
+    from bc_component component
+             left join bc_component_constraints constraints on constraints.component_id = component.component_id
+             left join bc_persistent_handler persistentHandler on persistentHandler.component_id = component.component_id
+             left join bc_ephemeral_handler ephemeralHandler on ephemeralHandler.component_id = component.component_id
+             left join bc_persistent_timeout persistentTimeout on persistentTimeout.component_id = component.component_id
+             left join bc_ephemeral_timeout ephemeralTimeout on ephemeralTimeout.component_id = component.component_id
+"""
+
 @BService
 @RequiresComponents
 internal class ComponentRepository(
     private val database: InternalDatabase,
     private val componentTimeoutRepository: ComponentTimeoutRepository,
     private val componentHandlerRepository: ComponentHandlerRepository,
-    private val componentFilters: ComponentFilters
-) {
-    internal class DeletedComponent(val componentId: Int, val ephemeralComponentHandlerId: Int?, val ephemeralTimeoutHandlerId: Int?) {
-        operator fun component1() = componentId
-        operator fun component2() = ephemeralComponentHandlerId
-        operator fun component3() = ephemeralTimeoutHandlerId
-    }
+    private val componentFilters: ComponentFilters,
+    private val componentCache: ComponentCache
+) : ComponentStorage {
 
-    internal class PersistentComponentTimeout(
+    internal class ComponentTimeout(
         val componentId: Int,
         val instant: Instant
     )
 
-    suspend fun getPersistentComponentTimeouts(): List<PersistentComponentTimeout> {
+    /**
+     * Returns the timeouts expiring before [expiresBefore], with IDs greater than [afterId], ordered by ID.
+     *
+     * Ephemeral components with an ID lower than or equal to [lastStaleEphemeralId] are excluded,
+     * as they are being removed.
+     */
+    suspend fun getComponentTimeoutsPage(
+        expiresBefore: Instant,
+        lastStaleEphemeralId: Int,
+        afterId: Int,
+        limit: Int
+    ): List<ComponentTimeout> {
         return database.preparedStatement(
-            "select component_id, expires_at from bc_component where lifetime_type = ? and expires_at is not null",
+            """
+                select component_id, expires_at
+                from bc_component
+                where expires_at is not null
+                  and expires_at < ?
+                  and (lifetime_type = ? or component_id > ?)
+                  and component_id > ?
+                order by component_id
+                limit ?
+            """.trimIndent(),
             readOnly = true
         ) {
-            executeQuery(LifetimeType.PERSISTENT.key).map {
-                PersistentComponentTimeout(
+            executeQuery(
+                expiresBefore.toSqlTimestamp(),
+                LifetimeType.PERSISTENT.key,
+                lastStaleEphemeralId,
+                afterId,
+                limit
+            ).map {
+                ComponentTimeout(
                     it.getInt("component_id"),
                     it.getKotlinInstant("expires_at")
                 )
@@ -69,180 +124,208 @@ internal class ComponentRepository(
         }
     }
 
-    suspend fun removeEphemeralComponents(): Int = database.transactional {
-        preparedStatement("truncate table bc_ephemeral_timeout") {
-            executeUpdate()
-        }
-
-        preparedStatement("truncate table bc_ephemeral_handler") {
-            executeUpdate()
+    /**
+     * Returns the ID of the last ephemeral component,
+     * all ephemeral components up to this ID are from a previous run.
+     */
+    suspend fun getLastEphemeralComponentId(): Int {
+        return database.preparedStatement(
+            "select coalesce(max(component_id), 0) as last_id from bc_component where lifetime_type = ?",
+            readOnly = true
+        ) {
+            executeQuery(LifetimeType.EPHEMERAL.key).read().getInt("last_id")
         }
+    }
 
-        val ids: List<Int> = preparedStatement("select component_id from bc_component where lifetime_type = ?") {
-            executeQuery(LifetimeType.EPHEMERAL.key).map { it.getInt("component_id") }
+    /**
+     * Removes the ephemeral components up to [lastStaleEphemeralId],
+     * their handlers, timeouts and group associations are removed by cascade.
+     */
+    suspend fun removeEphemeralComponents(lastStaleEphemeralId: Int): Int {
+        val removedCount = database.preparedStatement("delete from bc_component where lifetime_type = ? and component_id <= ?") {
+            executeUpdate(LifetimeType.EPHEMERAL.key, lastStaleEphemeralId)
         }
-
-        if (ids.isNotEmpty())
-            deleteComponentsById(ids)
-        ids.size
+        componentCache.invalidateIf { it.lifetimeType == LifetimeType.EPHEMERAL && it.internalId <= lastStaleEphemeralId }
+        return removedCount
     }
 
-    suspend fun createComponent(builder: BaseComponentBuilderMixin<*>): ComponentData {
+    /**
+     * Creates all components in a single transaction, with each table being inserted to using a single batch.
+     *
+     * The returned list is in the same order as [builders].
+     */
+    override suspend fun createComponents(builders: List<BaseComponentBuilderMixin<*>>): List<ComponentData> {
+        if (builders.isEmpty()) return emptyList()
+
         return database.transactional {
-            // Create base component
-            val componentId: Int = insertBaseComponent(builder, builder.singleUse, builder.rateLimitReference, getFilterNames(builder.filters))
+            // Create base components
+            val componentIds: List<Int> = insertBaseComponents(builders)
 
             // Add constraints
             preparedStatement("insert into bc_component_constraints (component_id, users, roles, permissions) VALUES (?, ?, ?, ?)") {
-                executeUpdate(
-                    componentId,
-                    builder.constraints.allowedUsers.toArray(),
-                    builder.constraints.allowedRoles.toArray(),
-                    Permission.getRaw(builder.constraints.allowingPermissions)
-                )
+                builders.forEachIndexed { i, builder ->
+                    setParameters(arrayOf(
+                        componentIds[i],
+                        builder.constraints.allowedUsers.toArray(),
+                        builder.constraints.allowedRoles.toArray(),
+                        Permission.getRaw(builder.constraints.allowingPermissions)
+                    ))
+                    addBatch()
+                }
+                executeBatch_()
             }
 
-            // Add handler
-            val handler = builder.handler
-            if (handler is EphemeralHandler<*>) {
-                componentHandlerRepository.insertEphemeralHandler(componentId, handler)
-            } else if (handler is PersistentHandler) {
-                componentHandlerRepository.insertPersistentHandler(componentId, handler)
+            // Add handlers
+            val ephemeralHandlers = hashMapOf<Int, EphemeralHandler<*>>()
+            val persistentHandlers = hashMapOf<Int, PersistentHandler>()
+            builders.forEachIndexed { i, builder ->
+                when (val handler = builder.handler) {
+                    is EphemeralHandler<*> -> ephemeralHandlers[componentIds[i]] = handler
+                    is PersistentHandler -> persistentHandlers[componentIds[i]] = handler
+                    null -> {}
+                }
             }
+            componentHandlerRepository.insertEphemeralHandlers(ephemeralHandlers)
+            componentHandlerRepository.insertPersistentHandlers(persistentHandlers)
 
-            // Add timeout
-            insertTimeoutData(builder, componentId)
+            // Add timeouts
+            insertTimeoutData(builders, componentIds)
 
-            getComponent(componentId) ?: throwInternal("Could not find back component with id '$componentId'")
-        }
+            val components = fetchNewComponents(componentIds)
+            componentIds.map { componentId ->
+                components[componentId] ?: throwInternal("Could not find back component with id '$componentId'")
+            }
+        }.onEach(componentCache::put)
     }
 
     private fun getFilterNames(list: List<ComponentInteractionFilter<*>>): Array<out String> {
         return Array(list.size) { list[it].javaClass.name }
     }
 
-    suspend fun getComponent(id: Int): ComponentData? = database.transactional(readOnly = true) {
-        preparedStatement(
-            """
-            select lifetime_type, component_type, expires_at, reset_timeout_on_use_duration_ms, one_use, users, roles, permissions, group_id, rate_limit_group, rate_limit_discriminator, filters
-            from bc_component component
-                     left join bc_component_constraints constraints using (component_id)
-                     left join bc_component_component_group componentGroup on componentGroup.component_id = component.component_id
-            where component.component_id = ?""".trimIndent()
-        ) {
-            val dbResult = executeQuery(id).readOrNull() ?: return@preparedStatement null
-
-            val lifetimeType = LifetimeType.fromId(dbResult["lifetime_type"])
-            val componentType = ComponentType.fromId(dbResult["component_type"])
-            val expiresAt = dbResult.getKotlinInstantOrNull("expires_at")
-            val resetTimeoutOnUseDuration: Duration? = dbResult.getOrNull<Int>("reset_timeout_on_use_duration_ms")?.milliseconds
+    override suspend fun getComponent(id: Int): ComponentData? {
+        componentCache[id]?.let { return it }
+        return fetchComponent(id)?.also(componentCache::put)
+    }
 
-            if (componentType == ComponentType.GROUP) {
-                return@preparedStatement getGroup(id, lifetimeType, expiresAt, resetTimeoutOnUseDuration)
-            }
+    /**
+     * Retrieves the component, its constraints, handler, timeout and group in a single query.
+     *
+     * If the component is in a group, the group row is returned first.
+     */
+    private suspend fun fetchComponent(id: Int): ComponentData? = database.preparedStatement(
+        componentSelectQuery + """
+            where component.component_id = ? -- This component
+               or component.component_id in (select group_id -- The group of this component, if any
+                                             from bc_component_component_group
+                                             where component_id = ?
+                                               and group_id <> component_id)
+            order by component.component_id = ?""".trimIndent(),
+        readOnly = true
+    ) {
+        var group: ComponentGroupData? = null
+        for (dbResult in executeQuery(id, id, id)) {
+            val componentId: Int = dbResult["component_id"]
+            if (componentId == id)
+                return@preparedStatement readComponent(dbResult, id, group)
+
+            group = readComponent(dbResult, componentId, group = null) as? ComponentGroupData
+            if (group == null)
+                logger.warn { internalErrorMessage("Data with id $componentId was expected to be a group") }
+        }
 
-            val oneUse: Boolean = dbResult["one_use"]
-            val filters = componentFilters.getFilters(dbResult["filters"])
-            val rateLimitReference: ComponentRateLimitReference? = dbResult.getString("rate_limit_group")?.let {
-                ComponentRateLimitReference(it, dbResult.getString("rate_limit_discriminator"))
-            }
+        null
+    }
 
-            val constraints = InteractionConstraints.of(
-                dbResult["users"],
-                dbResult["roles"],
-                dbResult["permissions"]
-            )
-
-            val group = dbResult.getOrNull<Int>("group_id")?.let {
-                val group = getComponent(it)
-                if (group == null)
-                    logger.warn { internalErrorMessage("Could not get group with id $it") }
-                else if (group !is ComponentGroupData)
-                    logger.warn { internalErrorMessage("Data with id $it was expected to be a group") }
-                group as? ComponentGroupData?
-            }
+    /**
+     * Retrieves components which were just created, and as such, are not in any group.
+     */
+    context(Transaction)
+    private suspend fun fetchNewComponents(ids: List<Int>): Map<Int, ComponentData> = preparedStatement(
+        "$componentSelectQuery where component.component_id = any (?)"
+    ) {
+        executeQuery(ids.toTypedArray()).associate { dbResult ->
+            val componentId: Int = dbResult["component_id"]
+            componentId to readComponent(dbResult, componentId, group = null)
+        }
+    }
 
-            when (lifetimeType) {
-                LifetimeType.PERSISTENT -> {
-                    val handler = componentHandlerRepository.getPersistentHandler(id)
-                    // Avoid request if no timeout is set
-                    val timeout = expiresAt?.let {
-                        componentTimeoutRepository.getPersistentTimeout(id)
-                    }
-
-                    PersistentComponentData(
-                        id, componentType,
-                        expiresAt, resetTimeoutOnUseDuration,
-                        filters,
-                        oneUse,
-                        rateLimitReference,
-                        handler, timeout,
-                        constraints,
-                        group
-                    )
-                }
+    private fun readComponent(dbResult: DBResult, id: Int, group: ComponentGroupData?): ComponentData {
+        val lifetimeType = LifetimeType.fromId(dbResult["lifetime_type"])
+        val componentType = ComponentType.fromId(dbResult["component_type"])
+        val expiresAt = dbResult.getKotlinInstantOrNull("expires_at")
+        val resetTimeoutOnUseDuration: Duration? = dbResult.getOrNull<Int>("reset_timeout_on_use_duration_ms")?.milliseconds
 
-                LifetimeType.EPHEMERAL -> {
-                    val handler = componentHandlerRepository.getEphemeralHandler(id)
-                    // Avoid request if no timeout is set
-                    val timeout = expiresAt?.let {
-                        componentTimeoutRepository.getEphemeralTimeout(id)
-                    }
-
-                    EphemeralComponentData(
-                        id, componentType,
-                        expiresAt, resetTimeoutOnUseDuration,
-                        filters,
-                        oneUse,
-                        rateLimitReference,
-                        handler, timeout,
-                        constraints,
-                        group
-                    )
-                }
+        if (componentType == ComponentType.GROUP) {
+            val timeout = when (lifetimeType) {
+                LifetimeType.PERSISTENT -> componentTimeoutRepository.readPersistentTimeout(dbResult, "persistent_timeout_name", "persistent_timeout_data")
+                LifetimeType.EPHEMERAL -> componentTimeoutRepository.readEphemeralTimeout(dbResult, "ephemeral_timeout_id")
             }
-        }
-    }
+            val componentIds: List<Int> = dbResult["group_component_ids"]
 
-    context(Transaction)
-    private suspend fun getGroup(
-        id: Int,
-        lifetimeType: LifetimeType,
-        expiresAt: Instant?,
-        resetTimeoutOnUseDuration: Duration?,
-    ): ComponentGroupData {
-        val timeout = when (lifetimeType) {
-            LifetimeType.PERSISTENT -> componentTimeoutRepository.getPersistentTimeout(id)
-            LifetimeType.EPHEMERAL -> componentTimeoutRepository.getEphemeralTimeout(id)
+            return ComponentGroupData(id, lifetimeType, expiresAt, resetTimeoutOnUseDuration, timeout, componentIds)
         }
 
-        val componentIds: List<Int> = preparedStatement(
-            """
-                select component_id
-                from bc_component_component_group
-                where group_id = ?
-            """.trimIndent()
-        ) {
-            executeQuery(id).map { it["component_id"] }
+        val oneUse: Boolean = dbResult["one_use"]
+        val filters = componentFilters.getFilters(dbResult["filters"])
+        val rateLimitReference: ComponentRateLimitReference? = dbResult.getString("rate_limit_group")?.let {
+            ComponentRateLimitReference(it, dbResult.getString("rate_limit_discriminator"))
         }
 
-        return ComponentGroupData(id, lifetimeType, expiresAt, resetTimeoutOnUseDuration, timeout, componentIds)
+        val constraints = InteractionConstraints.of(
+            dbResult["users"],
+            dbResult["roles"],
+            dbResult["permissions"]
+        )
+
+        return when (lifetimeType) {
+            LifetimeType.PERSISTENT -> {
+                val handler = componentHandlerRepository.readPersistentHandler(dbResult, "persistent_handler_name", "persistent_handler_data")
+                val timeout = componentTimeoutRepository.readPersistentTimeout(dbResult, "persistent_timeout_name", "persistent_timeout_data")
+
+                PersistentComponentData(
+                    id, componentType,
+                    expiresAt, resetTimeoutOnUseDuration,
+                    filters,
+                    oneUse,
+                    rateLimitReference,
+                    handler, timeout,
+                    constraints,
+                    group
+                )
+            }
+
+            LifetimeType.EPHEMERAL -> {
+                val handler = componentHandlerRepository.readEphemeralHandler(dbResult, "ephemeral_handler_id")
+                val timeout = componentTimeoutRepository.readEphemeralTimeout(dbResult, "ephemeral_timeout_id")
+
+                EphemeralComponentData(
+                    id, componentType,
+                    expiresAt, resetTimeoutOnUseDuration,
+                    filters,
+                    oneUse,
+                    rateLimitReference,
+                    handler, timeout,
+                    constraints,
+                    group
+                )
+            }
+        }
     }
 
-    suspend fun insertGroup(builder: AbstractComponentGroupBuilder<*>): ComponentGroupData = database.transactional {
-        val groupId: Int = insertBaseComponent(builder, false, null, emptyArray())
+    override suspend fun insertGroup(builder: AbstractComponentGroupBuilder<*>): ComponentGroupData = database.transactional {
+        val groupId: Int = insertBaseComponents(listOf(builder)).single()
 
         // Add timeout
-        insertTimeoutData(builder, groupId)
+        insertTimeoutData(listOf(builder), listOf(groupId))
 
         // Associate group id to its components, and group id to itself
-        suspend fun insertComponentGroupAssociation(componentId: Int) {
-            preparedStatement("insert into bc_component_component_group (group_id, component_id) VALUES (?, ?)") {
-                executeUpdate(groupId, componentId)
+        preparedStatement("insert into bc_component_component_group (group_id, component_id) VALUES (?, ?)") {
+            (builder.componentIds + groupId).forEach { componentId ->
+                setParameters(arrayOf(groupId, componentId))
+                addBatch()
             }
+            executeBatch_()
         }
-        builder.componentIds.forEach { componentId -> insertComponentGroupAssociation(componentId) }
-        insertComponentGroupAssociation(groupId)
 
         // Check if components inside the group have timeouts
         val hasTimeouts: Boolean = preparedStatement(
@@ -259,53 +342,107 @@ internal class ComponentRepository(
             throwArgument("Cannot put components inside groups if they have a timeout set")
         }
 
-        return@transactional getComponent(groupId) as? ComponentGroupData
+        return@transactional fetchComponent(groupId) as? ComponentGroupData
             ?: throwInternal("Could not find back component with id '$groupId'")
+    }.also { group ->
+        // Cached components do not know about their new group
+        componentCache.invalidateAll(builder.componentIds)
+        componentCache.put(group)
     }
 
     context(Transaction)
-    private suspend fun insertBaseComponent(
-        builder: IComponentBuilderMixin<*>,
-        singleUse: Boolean,
-        rateLimitReference: ComponentRateLimitReference?,
-        filterNames: Array<out String>
-    ): Int {
-        val expiresAt: Instant?
-        val resetTimeoutOnUseDurationMs: Long?
-        if (builder is ITimeoutableComponentMixin<*>) {
-            expiresAt = builder.timeoutDuration?.let { Clock.System.now() + it }
-            resetTimeoutOnUseDurationMs = builder.timeoutDuration
-                ?.takeIf { builder.resetTimeoutOnUse }
-                ?.inWholeMilliseconds
-        } else {
-            expiresAt = null
-            resetTimeoutOnUseDurationMs = null
-        }
-
+    private suspend fun insertBaseComponents(builders: List<IComponentBuilderMixin<*>>): List<Int> {
         return preparedStatement(
             "insert into bc_component (component_type, lifetime_type, expires_at, reset_timeout_on_use_duration_ms, one_use, rate_limit_group, rate_limit_discriminator, filters) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
             columnNames = arrayOf("component_id")
         ) {
-            executeReturningUpdate(builder.componentType.key, builder.lifetimeType.key, expiresAt?.toSqlTimestamp(), resetTimeoutOnUseDurationMs, singleUse, rateLimitReference?.group, rateLimitReference?.discriminator, filterNames)
-                .read()
-                .getInt("component_id")
+            builders.forEach { builder ->
+                val expiresAt: Instant?
+                val resetTimeoutOnUseDurationMs: Long?
+                if (builder is ITimeoutableComponentMixin<*>) {
+                    expiresAt = builder.timeoutDuration?.let { Clock.System.now() + it }
+                    resetTimeoutOnUseDurationMs = builder.timeoutDuration
+                        ?.takeIf { builder.resetTimeoutOnUse }
+                        ?.inWholeMilliseconds
+                } else {
+                    expiresAt = null
+                    resetTimeoutOnUseDurationMs = null
+                }
+
+                // Groups are not usable, nor can be rate limited or filtered
+                val singleUse: Boolean
+                val rateLimitReference: ComponentRateLimitReference?
+                val filterNames: Array<out String>
+                if (builder is BaseComponentBuilderMixin<*>) {
+                    singleUse = builder.singleUse
+                    rateLimitReference = builder.rateLimitReference
+                    filterNames = getFilterNames(builder.filters)
+                } else {
+                    singleUse = false
+                    rateLimitReference = null
+                    filterNames = emptyArray()
+                }
+
+                setParameters(arrayOf(builder.componentType.key, builder.lifetimeType.key, expiresAt?.toSqlTimestamp(), resetTimeoutOnUseDurationMs, singleUse, rateLimitReference?.group, rateLimitReference?.discriminator, filterNames))
+                addBatch()
+            }
+            executeBatch_()
+
+            generatedKeys.map { it.getInt("component_id") }
         }
     }
 
     context(Transaction)
-    private suspend fun insertTimeoutData(timeoutableComponentBuilder: ITimeoutableComponentMixin<*>, componentId: Int) {
-        val timeout = timeoutableComponentBuilder.timeout
-        if (timeout is EphemeralTimeout) {
-            componentTimeoutRepository.insertEphemeralTimeout(componentId, timeout)
-        } else if (timeout is PersistentTimeout) {
-            componentTimeoutRepository.insertPersistentTimeout(componentId, timeout)
+    private suspend fun insertTimeoutData(timeoutableComponentBuilders: List<ITimeoutableComponentMixin<*>>, componentIds: List<Int>) {
+        val ephemeralTimeouts = hashMapOf<Int, EphemeralTimeout>()
+        val persistentTimeouts = hashMapOf<Int, PersistentTimeout>()
+        timeoutableComponentBuilders.forEachIndexed { i, builder ->
+            when (val timeout = builder.timeout) {
+                is EphemeralTimeout -> ephemeralTimeouts[componentIds[i]] = timeout
+                is PersistentTimeout -> persistentTimeouts[componentIds[i]] = timeout
+                null -> {}
+            }
+        }
+        componentTimeoutRepository.insertEphemeralTimeouts(ephemeralTimeouts)
+        componentTimeoutRepository.insertPersistentTimeouts(persistentTimeouts)
+    }
+
+    override suspend fun deleteComponentsById(ids: Collection<Int>): List<DeletedComponent> = database.transactional {
+        deleteComponents(ids)
+    }.also { deletedComponents ->
+        componentCache.invalidateAll(deletedComponents.map { it.componentId })
+    }
+
+    /**
+     * Reads and deletes all the expired components in a single transaction.
+     */
+    override suspend fun deleteExpiredComponents(ids: Collection<Int>, now: Instant): ExpiredComponents = database.transactional {
+        val expiredComponents: List<ComponentData> = preparedStatement(
+            "$componentSelectQuery where component.component_id = any (?) and component.expires_at <= ?"
+        ) {
+            // Components with timeouts cannot be in groups
+            executeQuery(ids.toTypedArray(), now.toSqlTimestamp()).map { dbResult ->
+                readComponent(dbResult, dbResult["component_id"], group = null)
+            }
         }
+
+        val deletedComponents = when {
+            expiredComponents.isEmpty() -> emptyList()
+            else -> deleteComponents(expiredComponents.map { it.internalId })
+        }
+
+        ExpiredComponents(expiredComponents, deletedComponents)
+    }.also { (_, deletedComponents) ->
+        componentCache.invalidateAll(deletedComponents.map { it.componentId })
     }
 
-    suspend fun deleteComponentsById(ids: Collection<Int>): List<DeletedComponent> = database.transactional {
+    context(Transaction)
+    private suspend fun deleteComponents(ids: Collection<Int>): List<DeletedComponent> {
         // If the component is a group, then delete the component, and it's contained components
         // If the component is not a group, then delete the component as well as it's group
 
+        // The handler IDs are read before deleting, as "delete ... returning" cannot return them,
+        // their rows being deleted by the cascade
         val deletedComponents: List<DeletedComponent> = preparedStatement(
             """
                 select c.component_id, eh.handler_id as component_handler_id, et.handler_id as timeout_handler_id
@@ -335,10 +472,10 @@ internal class ComponentRepository(
 
         logger.trace { "Deleted components: ${deletedComponentIds.joinToString()}" }
 
-        return@transactional deletedComponents
+        return deletedComponents
     }
 
-    internal suspend fun resetExpiration(componentId: Int): Instant? = database.transactional {
+    override suspend fun resetExpiration(componentId: Int): Instant? = database.transactional {
         preparedStatement(
             """
                 update bc_component
@@ -353,6 +490,8 @@ internal class ComponentRepository(
                 // now() + null = null
                 .getKotlinInstantOrNull("expires_at")
         }
+    }.also {
+        componentCache.invalidate(componentId)
     }
 
     private fun Instant.toSqlTimestamp(): Timestamp = Timestamp.from(this.toJavaInstant())
@@ -0,0 +1,59 @@
+package io.github.freya022.botcommands.internal.components.repositories
+
+import io.github.freya022.botcommands.internal.components.builder.group.AbstractComponentGroupBuilder
+import io.github.freya022.botcommands.internal.components.builder.mixin.BaseComponentBuilderMixin
+import io.github.freya022.botcommands.internal.components.data.ComponentData
+import io.github.freya022.botcommands.internal.components.data.ComponentGroupData
+import kotlinx.datetime.Instant
+
+/**
+ * Stores components and component groups.
+ *
+ * Each storage must allocate IDs which do not overlap with other storages,
+ * see [EphemeralComponentStorage] and [ComponentRepository].
+ */
+internal interface ComponentStorage {
+    class DeletedComponent(val componentId: Int, val ephemeralComponentHandlerId: Int?, val ephemeralTimeoutHandlerId: Int?) {
+        operator fun component1() = componentId
+        operator fun component2() = ephemeralComponentHandlerId
+        operator fun component3() = ephemeralTimeoutHandlerId
+    }
+
+    class ExpiredComponents(val components: List<ComponentData>, val deletedComponents: List<DeletedComponent>) {
+        operator fun component1() = components
+        operator fun component2() = deletedComponents
+    }
+
+    /**
+     * Creates all the components, the returned list is in the same order as [builders].
+     */
+    suspend fun createComponents(builders: List<BaseComponentBuilderMixin<*>>): List<ComponentData>
+
+    suspend fun getComponent(id: Int): ComponentData?
+
+    /**
+     * Creates a group of components which are all stored in this storage.
+     */
+    suspend fun insertGroup(builder: AbstractComponentGroupBuilder<*>): ComponentGroupData
+
+    /**
+     * Deletes the components, with their groups or the components contained by the groups.
+     */
+    suspend fun deleteComponentsById(ids: Collection<Int>): List<DeletedComponent>
+
+    /**
+     * Deletes the components which expired at [now], in the same way as [deleteComponentsById].
+     *
+     * Components which are not expired, such as those which had their timeout reset, are not deleted.
+     *
+     * @return The expired components, and all the deleted components
+     */
+    suspend fun deleteExpiredComponents(ids: Collection<Int>, now: Instant): ExpiredComponents
+
+    /**
+     * Resets the expiration timestamp of the component, using its reset duration.
+     *
+     * @return The new expiration timestamp, `null` if the component has no reset duration
+     */
+    suspend fun resetExpiration(componentId: Int): Instant?
+}
@@ -1,6 +1,7 @@
 package io.github.freya022.botcommands.internal.components.repositories
 
 import io.github.freya022.botcommands.api.components.annotations.RequiresComponents
+import io.github.freya022.botcommands.api.core.db.DBResult
 import io.github.freya022.botcommands.api.core.db.Transaction
 import io.github.freya022.botcommands.api.core.service.annotations.BService
 import io.github.freya022.botcommands.internal.components.data.timeout.EphemeralTimeout
@@ -13,46 +14,43 @@ import io.github.freya022.botcommands.internal.utils.throwInternal
 internal class ComponentTimeoutRepository(
     private val ephemeralTimeoutHandlers: EphemeralTimeoutHandlers
 ) {
-    context(Transaction)
-    internal suspend fun getPersistentTimeout(id: Int): PersistentTimeout? {
-        return preparedStatement(
-            "SELECT handler_name, user_data FROM bc_persistent_timeout WHERE component_id = ?"
-        ) {
-            val dbResult = executeQuery(id).readOrNull() ?: return@preparedStatement null
-
-            PersistentTimeout.fromData(
-                dbResult["handler_name"],
-                dbResult["user_data"]
-            )
-        }
+    internal fun readPersistentTimeout(dbResult: DBResult, handlerNameColumn: String, userDataColumn: String): PersistentTimeout? {
+        val handlerName = dbResult.getOrNull<String>(handlerNameColumn) ?: return null
+        return PersistentTimeout.fromData(
+            handlerName,
+            dbResult[userDataColumn]
+        )
     }
 
     context(Transaction)
-    internal suspend fun insertPersistentTimeout(componentId: Int, timeout: PersistentTimeout) {
+    internal suspend fun insertPersistentTimeouts(timeouts: Map<Int, PersistentTimeout>) {
+        if (timeouts.isEmpty()) return
         preparedStatement("INSERT INTO bc_persistent_timeout (component_id, handler_name, user_data) VALUES (?, ?, ?)") {
-            executeUpdate(componentId, timeout.handlerName, timeout.userData.toTypedArray())
+            timeouts.forEach { (componentId, timeout) ->
+                setParameters(arrayOf(componentId, timeout.handlerName, timeout.userData.toTypedArray()))
+                addBatch()
+            }
+            executeBatch_()
         }
     }
 
-    context(Transaction)
-    internal suspend fun getEphemeralTimeout(id: Int): EphemeralTimeout? {
-        return preparedStatement(
-            "SELECT handler_id FROM bc_ephemeral_timeout WHERE component_id = ?"
-        ) {
-            val dbResult = executeQuery(id).readOrNull() ?: return@preparedStatement null
-
-            val handlerId: Int = dbResult["handler_id"]
-            return EphemeralTimeout(
-                ephemeralTimeoutHandlers[handlerId]
-                    ?: throwInternal("Unable to find ephemeral handler with id $handlerId")
-            )
-        }
+    internal fun readEphemeralTimeout(dbResult: DBResult, handlerIdColumn: String): EphemeralTimeout? {
+        val handlerId = dbResult.getOrNull<Int>(handlerIdColumn) ?: return null
+        return EphemeralTimeout(
+            ephemeralTimeoutHandlers[handlerId]
+                ?: throwInternal("Unable to find ephemeral handler with id $handlerId")
+        )
     }
 
     context(Transaction)
-    internal suspend fun insertEphemeralTimeout(componentId: Int, timeout: EphemeralTimeout) {
+    internal suspend fun insertEphemeralTimeouts(timeouts: Map<Int, EphemeralTimeout>) {
+        if (timeouts.isEmpty()) return
         preparedStatement("INSERT INTO bc_ephemeral_timeout (component_id, handler_id) VALUES (?, ?)") {
-            executeUpdate(componentId, timeout.handler.let(ephemeralTimeoutHandlers::put))
+            timeouts.forEach { (componentId, timeout) ->
+                setParameters(arrayOf(componentId, timeout.handler.let(ephemeralTimeoutHandlers::put)))
+                addBatch()
+            }
+            executeBatch_()
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,173 @@
+package io.github.freya022.botcommands.internal.components.repositories
+
+import io.github.freya022.botcommands.api.components.annotations.RequiresComponents
+import io.github.freya022.botcommands.api.components.data.InteractionConstraints
+import io.github.freya022.botcommands.api.core.config.BComponentsConfig
+import io.github.freya022.botcommands.api.core.service.annotations.BService
+import io.github.freya022.botcommands.internal.components.LifetimeType
+import io.github.freya022.botcommands.internal.components.builder.group.AbstractComponentGroupBuilder
+import io.github.freya022.botcommands.internal.components.builder.mixin.BaseComponentBuilderMixin
+import io.github.freya022.botcommands.internal.components.builder.mixin.ITimeoutableComponentMixin
+import io.github.freya022.botcommands.internal.components.data.ComponentData
+import io.github.freya022.botcommands.internal.components.data.ComponentGroupData
+import io.github.freya022.botcommands.internal.components.data.EphemeralComponentData
+import io.github.freya022.botcommands.internal.components.data.timeout.EphemeralTimeout
+import io.github.freya022.botcommands.internal.components.handler.EphemeralHandler
+import io.github.freya022.botcommands.internal.components.repositories.ComponentStorage.DeletedComponent
+import io.github.freya022.botcommands.internal.components.repositories.ComponentStorage.ExpiredComponents
+import io.github.freya022.botcommands.internal.utils.throwArgument
+import io.github.freya022.botcommands.internal.utils.throwInternal
+import io.github.oshai.kotlinlogging.KotlinLogging
+import kotlinx.datetime.Clock
+import kotlinx.datetime.Instant
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.time.Duration
+
+private val logger = KotlinLogging.logger { }
+
+// Shared by all instances, so IDs are not reused when a context is recreated in the same JVM,
+// components of previous JVMs are told apart by the salt of the component ID, see ComponentController
+private val idCounter = AtomicInteger(0)
+
+/**
+ * In-memory storage of ephemeral components and groups,
+ * enabled with [BComponentsConfig.useInMemoryEphemeralStorage].
+ *
+ * IDs are allocated in the negative range, so they never overlap with the database-backed [ComponentRepository],
+ * their component IDs are salted per process, so components from a previous run do not resolve.
+ *
+ * Handlers and timeouts are held directly by the component data,
+ * without going through [EphemeralComponentHandlers][io.github.freya022.botcommands.internal.components.handler.EphemeralComponentHandlers].
+ */
+@BService
+@RequiresComponents
+internal class EphemeralComponentStorage : ComponentStorage {
+    private val components: MutableMap<Int, ComponentData> = ConcurrentHashMap()
+
+    override suspend fun createComponents(builders: List<BaseComponentBuilderMixin<*>>): List<ComponentData> {
+        return builders.map { builder ->
+            check(builder.lifetimeType == LifetimeType.EPHEMERAL) {
+                "Only ephemeral components can be stored in memory"
+            }
+
+            val id = nextId()
+            val resetTimeoutOnUseDuration = builder.getResetTimeoutOnUseDuration()
+            EphemeralComponentData(
+                id, builder.componentType,
+                builder.timeoutDuration?.let { Clock.System.now() + it }, resetTimeoutOnUseDuration,
+                builder.filters,
+                builder.singleUse,
+                builder.rateLimitReference,
+                builder.handler as EphemeralHandler<*>?, builder.timeout as EphemeralTimeout?,
+                InteractionConstraints.empty().setConstraints(builder.constraints),
+                group = null
+            ).also { components[id] = it }
+        }
+    }
+
+    override suspend fun getComponent(id: Int): ComponentData? = components[id]
+
+    override suspend fun insertGroup(builder: AbstractComponentGroupBuilder<*>): ComponentGroupData {
+        check(builder.lifetimeType == LifetimeType.EPHEMERAL) {
+            "Only ephemeral groups can be stored in memory"
+        }
+
+        val groupComponents = builder.componentIds.map { componentId ->
+            components[componentId] as? EphemeralComponentData
+                ?: throwArgument("Component $componentId does not exist or is not an ephemeral component")
+        }
+
+        if (groupComponents.any { it.expiresAt != null }) {
+            throwArgument("Cannot put components inside groups if they have a timeout set")
+        }
+
+        val groupId = nextId()
+        val group = ComponentGroupData(
+            groupId,
+            LifetimeType.EPHEMERAL,
+            builder.timeoutDuration?.let { Clock.System.now() + it },
+            builder.getResetTimeoutOnUseDuration(),
+            builder.timeout as EphemeralTimeout?,
+            // Groups also contain themselves
+            builder.componentIds + groupId
+        )
+
+        components[groupId] = group
+        groupComponents.forEach { components[it.internalId] = it.copy(group = group) }
+
+        return group
+    }
+
+    override suspend fun deleteComponentsById(ids: Collection<Int>): List<DeletedComponent> {
+        // If the component is a group, then delete the component, and it's contained components
+        // If the component is not a group, then delete the component as well as it's group
+        val deletedIds = hashSetOf<Int>()
+        ids.forEach { id ->
+            when (val component = components.remove(id)) {
+                null -> return@forEach
+                is ComponentGroupData -> deletedIds += component.componentIds
+                is EphemeralComponentData -> {
+                    deletedIds += id
+                    component.group?.let { group -> deletedIds += group.componentIds }
+                }
+                else -> throwInternal("Unexpected component stored in memory: $component")
+            }
+        }
+        components.keys.removeAll(deletedIds)
+
+        logger.trace { "Deleted in-memory components: ${deletedIds.joinToString()}" }
+
+        // Handlers are not stored separately
+        return deletedIds.map { DeletedComponent(it, null, null) }
+    }
+
+    override suspend fun deleteExpiredComponents(ids: Collection<Int>, now: Instant): ExpiredComponents {
+        val expiredComponents = ids.mapNotNull { id ->
+            components[id]?.takeIf { component ->
+                val expiresAt = component.expiresAt
+                expiresAt != null && expiresAt <= now
+            }
+        }
+
+        return ExpiredComponents(expiredComponents, deleteComponentsById(expiredComponents.map { it.internalId }))
+    }
+
+    override suspend fun resetExpiration(componentId: Int): Instant? {
+        val component = components[componentId] ?: return null
+        val resetTimeoutOnUseDuration = component.resetTimeoutOnUseDuration ?: return null
+        val expiresAt = Clock.System.now() + resetTimeoutOnUseDuration
+
+        val newComponent = when (component) {
+            is ComponentGroupData -> component.copy(expiresAt = expiresAt)
+            is EphemeralComponentData -> component.copy(expiresAt = expiresAt)
+            else -> throwInternal("Unexpected component stored in memory: $component")
+        }
+        // Do not resurrect a deleted component
+        components.replace(componentId, newComponent)
+
+        return expiresAt
+    }
+
+    private fun nextId(): Int = idCounter.decrementAndGet()
+
+    private fun ITimeoutableComponentMixin<*>.getResetTimeoutOnUseDuration(): Duration? =
+        timeoutDuration?.takeIf { resetTimeoutOnUse }
+
+    private fun ComponentGroupData.copy(expiresAt: Instant?): ComponentGroupData =
+        ComponentGroupData(internalId, lifetimeType, expiresAt, resetTimeoutOnUseDuration, timeout, componentIds)
+
+    private fun EphemeralComponentData.copy(
+        expiresAt: Instant? = this.expiresAt,
+        group: ComponentGroupData? = this.group
+    ): EphemeralComponentData = EphemeralComponentData(
+        internalId, componentType,
+        expiresAt, resetTimeoutOnUseDuration,
+        filters,
+        singleUse,
+        rateLimitReference,
+        handler, timeout,
+        constraints,
+        group
+    )
+}
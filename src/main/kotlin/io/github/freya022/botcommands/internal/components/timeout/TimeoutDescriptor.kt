@@ -8,6 +8,7 @@ import io.github.freya022.botcommands.internal.ExecutableMixin
 import io.github.freya022.botcommands.internal.components.timeout.options.TimeoutHandlerParameter
 import io.github.freya022.botcommands.internal.components.timeout.options.builder.TimeoutHandlerOptionBuilderImpl
 import io.github.freya022.botcommands.internal.core.BContextImpl
+import io.github.freya022.botcommands.internal.core.options.OptionFrameLayout
 import io.github.freya022.botcommands.internal.core.options.OptionType
 import io.github.freya022.botcommands.internal.core.options.builder.ServiceOptionBuilderImpl
 import io.github.freya022.botcommands.internal.core.reflection.MemberParamFunction
@@ -51,6 +52,8 @@ internal class TimeoutDescriptor<T : Any> internal constructor(
         )
     }
 
+    override val optionFrameLayout = OptionFrameLayout(parameters)
+
     internal val optionSize = parameters.sumOf { p -> p.allOptions.count { o -> o.optionType == OptionType.OPTION } }
 
     @Suppress("DeprecatedCallableAddReplaceWith")
@@ -29,6 +29,7 @@ internal class BotCommandsCoreConfiguration(
     override val ignoredIntents: Set<GatewayIntent> = emptySet(),
     override val ignoredEventIntents: Set<Class<out Event>> = emptySet(),
     override val ignoreRestRateLimiter: Boolean = false,
+    override val useScanIndex: Boolean = false,
 ) : BConfig {
     override val classGraphProcessors: Nothing get() = unusable()
     override val debugConfig: Nothing get() = unusable()
@@ -55,6 +56,7 @@ internal fun BConfigBuilder.applyConfig(configuration: BotCommandsCoreConfigurat
     ignoredIntents += configuration.ignoredIntents
     ignoredEventIntents += configuration.ignoredEventIntents
     ignoreRestRateLimiter = configuration.ignoreRestRateLimiter
+    useScanIndex = configuration.useScanIndex
 }
 
 @ConfigurationProperties(prefix = "botcommands.database", ignoreUnknownFields = false)
@@ -232,11 +234,15 @@ internal fun BModalsConfigBuilder.applyConfig(configuration: BotCommandsModalsCo
 
 @ConfigurationProperties(prefix = "botcommands.components", ignoreUnknownFields = false)
 internal class BotCommandsComponentsConfiguration(
-    override val enable: Boolean = false
+    override val enable: Boolean = false,
+    override val cacheSize: Int = 0,
+    override val useInMemoryEphemeralStorage: Boolean = false
 ) : BComponentsConfig
 
 internal fun BComponentsConfigBuilder.applyConfig(configuration: BotCommandsComponentsConfiguration) = apply {
     enable = configuration.enable
+    cacheSize = configuration.cacheSize
+    useInMemoryEphemeralStorage = configuration.useInMemoryEphemeralStorage
 }
 
 private fun unusable(): Nothing = throwArgument("Cannot be used")
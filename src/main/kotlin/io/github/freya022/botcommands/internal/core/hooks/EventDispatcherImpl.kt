@@ -12,7 +12,6 @@ import io.github.oshai.kotlinlogging.KotlinLogging
 import kotlinx.coroutines.*
 import net.dv8tion.jda.api.events.GenericEvent
 import java.lang.reflect.InvocationTargetException
-import kotlin.reflect.full.callSuspend
 
 private val logger = KotlinLogging.logger { }
 
@@ -93,8 +92,6 @@ internal class EventDispatcherImpl internal constructor(
 
     private suspend fun runEventHandler(eventHandlerFunction: EventHandlerFunction, event: Any) {
         try {
-            val (instance, function) = eventHandlerFunction.classPathFunction
-
             /**
              * See [CoroutineEventManager.handle]
              */
@@ -102,13 +99,13 @@ internal class EventDispatcherImpl internal constructor(
             if (actualTimeout.isPositive() && actualTimeout.isFinite()) {
                 // Timeout only works when the continuations implement a cancellation handler
                 val result = withTimeoutOrNull(actualTimeout.inWholeMilliseconds) {
-                    function.callSuspend(instance, event, *eventHandlerFunction.parameters)
+                    eventHandlerFunction.call(event)
                 }
                 if (result == null) {
                     logger.debug { "Event of type ${event.javaClass.simpleName} timed out." }
                 }
             } else {
-                function.callSuspend(instance, event, *eventHandlerFunction.parameters)
+                eventHandlerFunction.call(event)
             }
         } catch (e: InvocationTargetException) {
             if (event is InitializationEvent) {
@@ -122,6 +119,11 @@ internal class EventDispatcherImpl internal constructor(
         } catch (_: CancellationException) {
             // Ignore
         } catch (e: Throwable) {
+            if (event is InitializationEvent) {
+                //Entry point will catch exception as it is the one dispatching the initialization events
+                throw e
+            }
+
             printException(event, eventHandlerFunction, e)
         }
     }
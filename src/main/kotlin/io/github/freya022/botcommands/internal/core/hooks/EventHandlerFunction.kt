@@ -2,6 +2,11 @@ package io.github.freya022.botcommands.internal.core.hooks
 
 import io.github.freya022.botcommands.api.core.annotations.BEventListener
 import io.github.freya022.botcommands.internal.core.ClassPathFunction
+import io.github.freya022.botcommands.internal.core.reflection.toMethodHandleOrNull
+import java.lang.invoke.MethodHandle
+import java.lang.invoke.MethodHandles
+import kotlin.coroutines.intrinsics.suspendCoroutineUninterceptedOrReturn
+import kotlin.reflect.full.callSuspend
 import kotlin.time.Duration
 
 internal class EventHandlerFunction(
@@ -15,6 +20,33 @@ internal class EventHandlerFunction(
         parametersBlock()
     }
 
+    private val isSuspend: Boolean by lazy { classPathFunction.function.isSuspend }
+
+    // Instance and parameters are bound, only the event and the continuation (if suspending) remain
+    private val eventHandle: MethodHandle? by lazy {
+        val (instance, function) = classPathFunction
+        val handle = function.toMethodHandleOrNull() ?: return@lazy null
+        val boundHandle = MethodHandles.insertArguments(
+            MethodHandles.insertArguments(handle, 2, *parameters),
+            0, instance
+        )
+        boundHandle.asType(boundHandle.type().generic())
+    }
+
+    /**
+     * Calls this event listener with the provided event.
+     */
+    suspend fun call(event: Any) {
+        val handle = eventHandle
+            ?: return classPathFunction.let { (instance, function) -> function.callSuspend(instance, event, *parameters) }
+
+        if (isSuspend) {
+            suspendCoroutineUninterceptedOrReturn<Any?> { continuation -> handle.invoke(event, continuation) }
+        } else {
+            handle.invoke(event)
+        }
+    }
+
     override fun equals(other: Any?): Boolean {
         if (this === other) return true
         if (javaClass != other?.javaClass) return false
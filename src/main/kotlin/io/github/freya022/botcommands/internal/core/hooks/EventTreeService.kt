@@ -1,8 +1,9 @@
 package io.github.freya022.botcommands.internal.core.hooks
 
-import io.github.classgraph.ClassGraph
+import io.github.freya022.botcommands.api.core.config.BConfig
 import io.github.freya022.botcommands.api.core.events.BGenericEvent
 import io.github.freya022.botcommands.api.core.service.annotations.BService
+import io.github.freya022.botcommands.internal.core.service.ScanIndexes
 import io.github.oshai.kotlinlogging.KotlinLogging
 import net.dv8tion.jda.api.events.GenericEvent
 import java.util.*
@@ -12,13 +13,9 @@ import kotlin.reflect.jvm.jvmName
 private val logger = KotlinLogging.logger { }
 
 @BService
-internal class EventTreeService internal constructor() {
-    private val map: Map<KClass<*>, List<KClass<*>>> = ClassGraph()
-        .acceptPackages(GenericEvent::class.java.packageName, BGenericEvent::class.java.packageName)
-        .disableRuntimeInvisibleAnnotations()
-        .disableModuleScanning()
-        .enableClassInfo()
-        .scan().use { scanResult ->
+internal class EventTreeService internal constructor(config: BConfig) {
+    private val map: Map<KClass<*>, List<KClass<*>>> = (ScanIndexes.loadEventIndex(config) ?: ScanIndexes.createEventScan().scan())
+        .use { scanResult ->
             (scanResult.getClassesImplementing(GenericEvent::class.java) + scanResult.getClassesImplementing(BGenericEvent::class.java)).associate { info ->
                 info.loadClass().kotlin to Collections.unmodifiableList(info.subclasses.map { subclassInfo -> subclassInfo.loadClass().kotlin })
             }
@@ -0,0 +1,69 @@
+package io.github.freya022.botcommands.internal.core.options
+
+import io.github.freya022.botcommands.internal.parameters.AggregatedParameterMixin
+import io.github.freya022.botcommands.internal.utils.throwInternal
+
+private val NO_VALUE = Any()
+
+/**
+ * Slots of the options of an executable, computed once when the executable is built.
+ *
+ * Options are resolved in the order of [options], each into its own slot of an [OptionValues] frame,
+ * and are then read back by slot when aggregating the parameters.
+ */
+internal class OptionFrameLayout(parameters: List<AggregatedParameterMixin>) {
+    internal class AggregateSlots(
+        val parameter: AggregatedParameterMixin,
+        /** Slots of [AggregatedParameterMixin.options], in the same order */
+        val optionSlots: IntArray,
+        val nestedAggregates: List<AggregateSlots>
+    )
+
+    val options: List<OptionImpl>
+    val aggregates: List<AggregateSlots>
+
+    init {
+        val options = arrayListOf<OptionImpl>()
+        // Same order as AggregatedParameterMixin#allOptions
+        fun computeSlots(parameter: AggregatedParameterMixin): AggregateSlots {
+            val optionSlots = IntArray(parameter.options.size) { i ->
+                options += parameter.options[i]
+                options.lastIndex
+            }
+            return AggregateSlots(parameter, optionSlots, parameter.nestedAggregatedParameters.map(::computeSlots))
+        }
+
+        this.aggregates = parameters.map(::computeSlots)
+        this.options = options
+    }
+}
+
+/**
+ * Array-backed values of options, addressed by their slot in the [layout].
+ *
+ * Values are inserted while iterating over [OptionFrameLayout.options], see [mapOptions][io.github.freya022.botcommands.internal.utils.mapOptions].
+ */
+internal class OptionValues(private val layout: OptionFrameLayout) {
+    private val values = Array<Any?>(layout.options.size) { NO_VALUE }
+
+    /**
+     * Slot of the option being resolved.
+     */
+    internal var currentSlot: Int = -1
+
+    /**
+     * Sets the value of the option being resolved.
+     */
+    operator fun set(option: OptionImpl, value: Any?) {
+        if (layout.options[currentSlot] !== option)
+            throwInternal("Tried to set the value of option '${option.declaredName}', but the current option is '${layout.options[currentSlot].declaredName}'")
+        values[currentSlot] = value
+    }
+
+    /**
+     * Returns `true` if a value, including `null`, was set in this slot.
+     */
+    fun hasValue(slot: Int): Boolean = values[slot] !== NO_VALUE
+
+    operator fun get(slot: Int): Any? = values[slot].takeUnless { it === NO_VALUE }
+}
@@ -14,7 +14,6 @@ import io.github.freya022.botcommands.internal.utils.throwInternal
 import kotlin.reflect.KClass
 import kotlin.reflect.KFunction
 import kotlin.reflect.KParameter
-import kotlin.reflect.full.callSuspendBy
 import kotlin.reflect.full.instanceParameter
 import kotlin.reflect.jvm.jvmErasure
 
@@ -60,7 +59,7 @@ internal class AggregatorFunction private constructor(
             aggregatorArguments[eventParameter] = firstParam
         }
 
-        return aggregator.callSuspendBy(aggregatorArguments)
+        return callSuspendBy(aggregatorArguments)
     }
 }
 
@@ -2,10 +2,17 @@ package io.github.freya022.botcommands.internal.core.reflection
 
 import io.github.freya022.botcommands.internal.utils.ReflectionUtils.reflectReference
 import kotlin.reflect.KFunction
+import kotlin.reflect.KParameter
 
 internal sealed class Function<R>(boundFunction: KFunction<R>) {
     internal val kFunction = boundFunction.reflectReference()
     internal val parametersSize = kFunction.parameters.size
+    private val invoker = FunctionInvoker(kFunction)
+
+    /**
+     * Calls the function with the provided arguments, see [FunctionInvoker].
+     */
+    internal suspend fun callSuspendBy(args: Map<KParameter, Any?>): Any? = invoker.callSuspendBy(args)
 
     override fun equals(other: Any?): Boolean {
         if (this === other) return true
@@ -0,0 +1,115 @@
+package io.github.freya022.botcommands.internal.core.reflection
+
+import io.github.freya022.botcommands.api.core.utils.isConstructor
+import io.github.freya022.botcommands.internal.utils.ReflectionUtils.declaringClass
+import io.github.oshai.kotlinlogging.KotlinLogging
+import java.lang.invoke.MethodHandle
+import java.lang.invoke.MethodHandles
+import java.lang.reflect.Modifier
+import kotlin.coroutines.intrinsics.suspendCoroutineUninterceptedOrReturn
+import kotlin.reflect.KFunction
+import kotlin.reflect.KParameter
+import kotlin.reflect.full.callSuspendBy
+import kotlin.reflect.full.instanceParameter
+import kotlin.reflect.jvm.javaConstructor
+import kotlin.reflect.jvm.javaMethod
+import kotlin.reflect.jvm.jvmErasure
+
+private val logger = KotlinLogging.logger { }
+
+/**
+ * Calls a [KFunction] using a [MethodHandle] created ahead of time,
+ * instead of going through Kotlin reflection on each call.
+ *
+ * Kotlin reflection is still used when arguments with default values are omitted,
+ * or when the function cannot be called directly, such as when using value classes.
+ */
+internal class FunctionInvoker(private val kFunction: KFunction<*>) {
+    private val parameters: List<KParameter> = kFunction.parameters
+    private val isSuspend = kFunction.isSuspend
+    private val returnsVoid = !isSuspend && kFunction.javaMethod?.returnType == Void.TYPE
+    // Suspending functions take the continuation as their last argument
+    private val argumentCount = parameters.size + (if (isSuspend) 1 else 0)
+    private val methodHandle: MethodHandle? = createMethodHandle()
+
+    suspend fun callSuspendBy(args: Map<KParameter, Any?>): Any? {
+        val methodHandle = methodHandle ?: return kFunction.callSuspendBy(args)
+
+        // Arguments are already in positional order, with a slot for the continuation
+        if (args is ParameterMap && args.function === kFunction) {
+            // Let Kotlin reflection handle default values
+            if (!args.hasAllValues) return kFunction.callSuspendBy(args)
+            return invoke(methodHandle, args.arguments)
+        }
+
+        val arguments = arrayOfNulls<Any?>(argumentCount)
+        for (parameter in parameters) {
+            // Let Kotlin reflection handle default values
+            if (!args.containsKey(parameter)) return kFunction.callSuspendBy(args)
+            arguments[parameter.index] = args[parameter]
+        }
+
+        return invoke(methodHandle, arguments)
+    }
+
+    private suspend fun invoke(methodHandle: MethodHandle, arguments: Array<Any?>): Any? {
+        if (!isSuspend) {
+            val result = methodHandle.invoke(arguments)
+            return if (returnsVoid) Unit else result
+        }
+
+        return suspendCoroutineUninterceptedOrReturn { continuation ->
+            arguments[argumentCount - 1] = continuation
+            methodHandle.invoke(arguments)
+        }
+    }
+
+    /**
+     * Creates a handle taking all arguments as an `Object[]`, and returning an `Object`.
+     */
+    private fun createMethodHandle(): MethodHandle? {
+        val handle = kFunction.toMethodHandleOrNull() ?: return null
+        return handle
+            .asType(handle.type().generic())
+            .asSpreader(Array<Any?>::class.java, argumentCount)
+    }
+}
+
+/**
+ * Creates a [MethodHandle] taking the same arguments as [KFunction.parameters],
+ * followed by the continuation if the function is suspending.
+ *
+ * Returns `null` if the function must be called with Kotlin reflection,
+ * such as when using value classes.
+ */
+internal fun KFunction<*>.toMethodHandleOrNull(): MethodHandle? {
+    if (!canInvokeDirectly()) return null
+
+    return try {
+        val lookup = MethodHandles.lookup()
+        when {
+            isConstructor -> javaConstructor!!.also { it.trySetAccessible() }.let(lookup::unreflectConstructor)
+            else -> javaMethod!!.also { it.trySetAccessible() }.let(lookup::unreflect)
+        }
+    } catch (e: ReflectiveOperationException) {
+        logger.debug(e) { "Could not create a method handle for $this, falling back to reflection" }
+        null
+    }
+}
+
+private fun KFunction<*>.canInvokeDirectly(): Boolean {
+    if (isConstructor) {
+        // Value class constructors do not exist on the JVM
+        return javaConstructor != null && !declaringClass.isValue
+    }
+
+    val method = javaMethod ?: return false
+    // Functions in objects annotated with @JvmStatic
+    if (Modifier.isStatic(method.modifiers) && instanceParameter != null) return false
+    // Value classes are mangled and (un)boxed by Kotlin reflection
+    if (parameters.any { it.type.jvmErasure.isValue }) return false
+    if (returnType.jvmErasure.isValue) return false
+
+    val argumentCount = parameters.size + (if (isSuspend) 1 else 0)
+    return method.parameterCount + (if (Modifier.isStatic(method.modifiers)) 0 else 1) == argumentCount
+}
@@ -7,11 +7,34 @@ private typealias MutableParameterEntry = MutableMap.MutableEntry<KParameter, An
 
 private val NO_VALUE = Any()
 
-internal class ParameterMap(function: KFunction<*>) : AbstractMutableMap<KParameter, Any?>(),
-                                                      MutableMap<KParameter, Any?> {
+/**
+ * Arguments of a function, stored in the order of its parameters.
+ *
+ * The values are kept in an array which [FunctionInvoker] can pass directly to the function,
+ * it has an additional slot for the continuation if the function is suspending.
+ */
+internal class ParameterMap(internal val function: KFunction<*>) : AbstractMutableMap<KParameter, Any?>(),
+                                                                   MutableMap<KParameter, Any?> {
 
     private val parameters = function.parameters
-    private val _values = Array<Any?>(parameters.size) { NO_VALUE }
+    private val _values = Array<Any?>(parameters.size + (if (function.isSuspend) 1 else 0)) { i ->
+        if (i < parameters.size) NO_VALUE else null
+    }
+    private var valueCount = 0
+
+    /**
+     * Whether all parameters have a value, meaning [arguments] can be used to call the function.
+     */
+    internal val hasAllValues: Boolean
+        get() = valueCount == parameters.size
+
+    /**
+     * The values in the order of the function's parameters, followed by a slot for the continuation.
+     *
+     * Only valid if [all values are present][hasAllValues].
+     */
+    internal val arguments: Array<Any?>
+        get() = _values
 
     override val entries: MutableSet<MutableParameterEntry>
         get() = Set()
@@ -21,12 +44,25 @@ internal class ParameterMap(function: KFunction<*>) : AbstractMutableMap<KParame
     }
 
     override fun get(key: KParameter): Any? {
-        return _values[key.index]
+        return _values[key.index].takeUnless { it === NO_VALUE }
     }
 
     override fun put(key: KParameter, value: Any?): Any? {
         val oldVal = _values[key.index]
         _values[key.index] = value
+        if (oldVal === NO_VALUE) {
+            valueCount++
+            return null
+        }
+        return oldVal
+    }
+
+    override fun remove(key: KParameter): Any? {
+        val oldVal = _values[key.index]
+        if (oldVal === NO_VALUE) return null
+
+        _values[key.index] = NO_VALUE
+        valueCount--
         return oldVal
     }
 
@@ -36,7 +72,7 @@ internal class ParameterMap(function: KFunction<*>) : AbstractMutableMap<KParame
         }
 
         override val size: Int
-            get() = _values.count { it !== NO_VALUE }
+            get() = valueCount
 
         override fun iterator(): MutableIterator<MutableParameterEntry> {
             return Iterator()
@@ -47,7 +83,7 @@ internal class ParameterMap(function: KFunction<*>) : AbstractMutableMap<KParame
         private var index = 0
 
         override fun hasNext(): Boolean {
-            for (i in index..<size) {
+            for (i in index..<parameters.size) {
                 if (_values[i] !== NO_VALUE) {
                     index = i
                     return true
@@ -61,7 +97,7 @@ internal class ParameterMap(function: KFunction<*>) : AbstractMutableMap<KParame
         }
 
         override fun remove() {
-            _values[index - 1] = NO_VALUE
+            this@ParameterMap.remove(parameters[index - 1])
         }
     }
 
@@ -9,6 +9,7 @@ import io.github.freya022.botcommands.api.core.service.annotations.ServiceName
 import io.github.freya022.botcommands.api.core.utils.*
 import io.github.freya022.botcommands.internal.core.exceptions.ServiceException
 import io.github.freya022.botcommands.internal.core.service.provider.ProvidedServiceProvider
+import io.github.freya022.botcommands.internal.core.service.provider.ProviderName
 import io.github.freya022.botcommands.internal.core.service.provider.ServiceProvider
 import io.github.freya022.botcommands.internal.core.service.provider.ServiceProviders
 import io.github.freya022.botcommands.internal.core.service.provider.TimedInstantiation
@@ -30,32 +31,73 @@ import kotlin.reflect.cast
 import kotlin.reflect.full.findAnnotation
 import kotlin.reflect.jvm.jvmErasure
 import kotlin.reflect.jvm.jvmName
+import kotlin.time.Duration
+import kotlin.time.DurationUnit
 
 private val logger = KotlinLogging.loggerOf<ServiceContainer>()
 
 internal class DefaultServiceContainerImpl internal constructor(internal val serviceBootstrap: DefaultBotCommandsBootstrap) : DefaultServiceContainer {
     internal val serviceConfig: BServiceConfig get() = serviceBootstrap.serviceConfig
     internal val serviceProviders: ServiceProviders get() = serviceBootstrap.serviceProviders
+
+    private data class ServiceKey(val type: KClass<*>, val name: String?)
+
+    // Taken to find the provider of a service which was not resolved yet,
+    // creating a service only holds the creation lock of its provider
     private val lock = ReentrantLock()
+    private val creationLocks = ServiceCreationLocks()
+    // Resolved instances, so lookups of created services do not need to take the lock
+    private val resolvedServices: MutableMap<ServiceKey, Any> = ConcurrentHashMap()
+    // Incremented when the resolved services are invalidated, guarded by the lock
+    private var resolutionGeneration = 0L
+    private val serviceCreationDurations: MutableMap<ProviderName, Duration> = ConcurrentHashMap()
     private val serviceCreationStack = when {
         serviceConfig.debug -> TracedServiceCreationStack()
         else -> DefaultServiceCreationStack()
     }
 
     internal fun loadServices() {
-        getService<DefaultInstantiableServices>()
+        val providers = getService<DefaultInstantiableServices>()
             .availableProviders
             .filterNot { it.isLazy }
-            // This should never throw as the providers are available and not lazy
-            .forEach { provider -> tryGetService<Any>(provider).getOrThrow() }
+
+        val parallelism = serviceConfig.instantiationParallelism
+        if (parallelism > 1)
+            ParallelServiceLoader(this, parallelism).load(providers)
+
+        // Create the remaining services, in case they could not be created in parallel
+        providers.forEach(::loadService)
+
+        logger.debug {
+            val slowestServices = serviceCreationDurations.entries.sortedByDescending { it.value }.take(10)
+            "Slowest services to create:\n" + slowestServices.joinAsList { (providerKey, duration) ->
+                "$providerKey: ${duration.toString(DurationUnit.MILLISECONDS, decimals = 3)}"
+            }
+        }
     }
 
-    override fun <T : Any> peekServiceOrNull(clazz: KClass<T>): T? = lock.withLock {
-        peekServiceOrNull(clazz, null, serviceProviders.findAllForType(clazz))
+    /**
+     * Creates the service of an available, non-lazy provider, if it was not already.
+     */
+    internal fun loadService(provider: ServiceProvider) {
+        // This should never throw as the providers are available and not lazy
+        tryGetService<Any>(provider).getOrThrow()
     }
 
-    override fun <T : Any> peekServiceOrNull(name: String, requiredType: KClass<T>): T? = lock.withLock {
-        peekServiceOrNull(requiredType, name, serviceProviders.findAllForName(name))
+    override fun getServiceCreationDurations(): Map<ProviderName, Duration> = serviceCreationDurations.toImmutableMap()
+
+    override fun <T : Any> peekServiceOrNull(clazz: KClass<T>): T? {
+        getResolvedService(clazz, null)?.let { return it }
+        return lock.withLock {
+            peekServiceOrNull(clazz, null, serviceProviders.findAllForType(clazz))
+        }
+    }
+
+    override fun <T : Any> peekServiceOrNull(name: String, requiredType: KClass<T>): T? {
+        getResolvedService(requiredType, name)?.let { return it }
+        return lock.withLock {
+            peekServiceOrNull(requiredType, name, serviceProviders.findAllForName(name))
+        }
     }
 
     private fun <T : Any> peekServiceOrNull(clazz: KClass<T>, name: String?, providers: Collection<ServiceProvider>): T? {
@@ -81,29 +123,51 @@ internal class DefaultServiceContainerImpl internal constructor(internal val ser
         }
 
         return when {
-            provider != null -> provider.instance?.let(clazz::cast)
+            provider != null -> provider.instance?.let(clazz::cast)?.also { putResolvedService(clazz, name, it) }
             else -> throwInternal("No error yet no provider is present")
         }
     }
 
-    override fun <T : Any> tryGetService(name: String, requiredType: KClass<T>): ServiceResult<T> = lock.withLock {
-        tryGetService(requiredType, name, serviceProviders.findAllForName(name))
+    override fun <T : Any> tryGetService(name: String, requiredType: KClass<T>): ServiceResult<T> {
+        getResolvedService(requiredType, name)?.let { return ServiceResult.pass(it) }
+        return tryGetService(requiredType, name) { serviceProviders.findAllForName(name) }
     }
 
-    override fun <T : Any> tryGetService(clazz: KClass<T>): ServiceResult<T> = lock.withLock {
-        tryGetService(clazz, null, serviceProviders.findAllForType(clazz))
+    override fun <T : Any> tryGetService(clazz: KClass<T>): ServiceResult<T> {
+        getResolvedService(clazz, null)?.let { return ServiceResult.pass(it) }
+        return tryGetService(clazz, null) { serviceProviders.findAllForType(clazz) }
     }
 
-    private fun <T : Any> tryGetService(clazz: KClass<T>, name: String?, providers: Collection<ServiceProvider>): ServiceResult<T> {
-        val providerResult = getInstantiablePrimaryProvider(clazz, name, providers)
+    private inline fun <T : Any> tryGetService(clazz: KClass<T>, name: String?, providersSupplier: () -> Collection<ServiceProvider>): ServiceResult<T> {
+        val (providerResult, generation) = lock.withLock {
+            getInstantiablePrimaryProvider(clazz, name, providersSupplier()) to resolutionGeneration
+        }
         val provider = providerResult.service
-
-        return when {
-            provider != null -> tryGetService(provider)
-            else -> ServiceResult.fail(providerResult.serviceError ?: throwInternal("Can't have no provider and no error"))
+            ?: return ServiceResult.fail(providerResult.serviceError ?: throwInternal("Can't have no provider and no error"))
+
+        // Create the service outside the lock, so other services can be created concurrently
+        return tryGetService<T>(provider).also { result ->
+            val service = result.service ?: return@also
+            lock.withLock {
+                // Do not publish the resolution if a service was put since the provider was resolved
+                if (generation == resolutionGeneration)
+                    putResolvedService(clazz, name, service)
+            }
         }
     }
 
+    private fun <T : Any> getResolvedService(clazz: KClass<T>, name: String?): T? =
+        resolvedServices[ServiceKey(clazz, name)]?.let(clazz::cast)
+
+    /**
+     * Remembers the resolved service, must be called while holding the [lock],
+     * and only if the [resolutionGeneration] did not change since the service was resolved,
+     * so it cannot be published after [putService] invalidated the resolved services.
+     */
+    private fun putResolvedService(clazz: KClass<*>, name: String?, instance: Any) {
+        resolvedServices[ServiceKey(clazz, name)] = instance
+    }
+
     @Suppress("UNCHECKED_CAST")
     private fun <T : Any> tryGetService(provider: ServiceProvider): ServiceResult<T> {
         val instance = provider.instance as T?
@@ -119,10 +183,15 @@ internal class DefaultServiceContainerImpl internal constructor(internal val ser
     }
 
     @Suppress("UNCHECKED_CAST")
-    private fun <T : Any> createService(provider: ServiceProvider): T = lock.withLock {
+    private fun <T : Any> createService(provider: ServiceProvider): T = creationLocks.withCreationLock(provider, ::withoutContainerLock) {
+        // Another thread may have created it while this one was waiting
+        provider.instance?.let { return@withCreationLock it as T }
+
         try {
-            val instance =  serviceCreationStack.withServiceCreateKey(provider) {
-                provider.createInstance(this) as TimedInstantiation<T>
+            val instance = serviceCreationStack.withServiceCreateKey(provider) {
+                (provider.createInstance(this) as TimedInstantiation<T>).also { timedInstantiation ->
+                    serviceCreationDurations[provider.providerKey] = timedInstantiation.duration
+                }
             }
 
             if (!provider.primaryType.isInstance(instance))
@@ -134,6 +203,20 @@ internal class DefaultServiceContainerImpl internal constructor(internal val ser
         }
     }
 
+    /**
+     * Releases the container lock while waiting for a service to be created by another thread,
+     * as that thread may need the container lock to get the dependencies of its service.
+     */
+    private fun withoutContainerLock(block: () -> Unit) {
+        val holdCount = lock.holdCount
+        repeat(holdCount) { lock.unlock() }
+        try {
+            block()
+        } finally {
+            repeat(holdCount) { lock.lock() }
+        }
+    }
+
     override fun getServiceNamesForAnnotation(annotationType: KClass<out Annotation>): Collection<String> {
         return getService<DefaultInstantiableServices>().availableProviders
             .filter { it.annotations.any { a -> a.annotationClass == annotationType } }
@@ -204,7 +287,12 @@ internal class DefaultServiceContainerImpl internal constructor(internal val ser
         annotations: Collection<Annotation>,
         typeAliases: Set<KClass<*>>
     ) {
-        serviceProviders.putServiceProvider(ProvidedServiceProvider(t, clazz, name, isPrimary, priority, annotations, typeAliases))
+        lock.withLock {
+            serviceProviders.putServiceProvider(ProvidedServiceProvider(t, clazz, name, isPrimary, priority, annotations, typeAliases))
+            // The new provider may change which provider is used
+            resolvedServices.clear()
+            resolutionGeneration++
+        }
     }
 
     override fun canCreateService(name: String, requiredType: KClass<*>): ServiceError? {
@@ -339,8 +427,10 @@ internal class DefaultServiceContainerImpl internal constructor(internal val ser
     internal fun canCreateService(provider: ServiceProvider): ServiceError? {
         if (provider.instance != null) return null
 
-        return serviceCreationStack.withServiceCheckKey(provider) {
-            provider.canInstantiate(this)
+        return lock.withLock {
+            serviceCreationStack.withServiceCheckKey(provider) {
+                provider.canInstantiate(this)
+            }
         }
     }
 
@@ -0,0 +1,121 @@
+package io.github.freya022.botcommands.internal.core.service
+
+import io.github.freya022.botcommands.api.core.service.DynamicSupplier
+import io.github.freya022.botcommands.api.core.service.LazyService
+import io.github.freya022.botcommands.internal.core.service.provider.ClassServiceProvider
+import io.github.freya022.botcommands.internal.core.service.provider.ServiceProvider
+import io.github.oshai.kotlinlogging.KotlinLogging
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionException
+import java.util.concurrent.Executors
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.reflect.KClass
+import kotlin.reflect.KParameter
+import kotlin.reflect.jvm.jvmErasure
+
+private val logger = KotlinLogging.logger { }
+
+/**
+ * Creates services on multiple threads, each service is created once all the services it depends on were created.
+ *
+ * Dependencies are read from the parameters of the constructor or factory of each provider,
+ * providers which are part of a dependency cycle are not created, so they can be reported by the sequential loading.
+ *
+ * Dependencies which cannot be known ahead of time, such as services retrieved in a constructor,
+ * are still created on demand, see [ServiceCreationLocks].
+ */
+internal class ParallelServiceLoader internal constructor(
+    private val serviceContainer: DefaultServiceContainerImpl,
+    private val parallelism: Int
+) {
+    private val serviceProviders get() = serviceContainer.serviceProviders
+
+    internal fun load(providers: Collection<ServiceProvider>) {
+        val providerSet = providers.toHashSet()
+        val dependencies = providers.associateWith { findDependencies(it, providerSet) }
+        val sortedProviders = sortByDependencies(providers, dependencies)
+        if (sortedProviders.size != providers.size)
+            logger.debug { "${providers.size - sortedProviders.size} services have circular dependencies and will not be created in parallel" }
+
+        val threadNumber = AtomicInteger()
+        val executor = Executors.newFixedThreadPool(parallelism) { runnable ->
+            Thread(runnable, "Service loader ${threadNumber.incrementAndGet()}").apply { isDaemon = true }
+        }
+
+        try {
+            val futures: MutableMap<ServiceProvider, CompletableFuture<*>> = hashMapOf()
+            for (provider in sortedProviders) {
+                val dependencyFutures = dependencies.getValue(provider).map { futures.getValue(it) }
+                futures[provider] = CompletableFuture.allOf(*dependencyFutures.toTypedArray())
+                    .thenRunAsync({ serviceContainer.loadService(provider) }, executor)
+            }
+
+            CompletableFuture.allOf(*futures.values.toTypedArray()).join()
+        } catch (e: CompletionException) {
+            throw e.cause ?: e
+        } finally {
+            executor.shutdownNow()
+        }
+    }
+
+    private fun findDependencies(provider: ServiceProvider, providers: Set<ServiceProvider>): Set<ServiceProvider> {
+        val dependencies = hashSetOf<ServiceProvider>()
+
+        provider.getProviderFunction()?.parameters?.forEach { parameter ->
+            val type = getDependencyType(parameter) ?: return@forEach
+            dependencies += serviceProviders.findAllForType(type)
+            parameter.name?.let { dependencies += serviceProviders.findAllForName(it) }
+        }
+
+        // Classes may be created by dynamic suppliers, except the suppliers themselves
+        if (provider is ClassServiceProvider && DynamicSupplier::class !in provider.types)
+            dependencies += serviceProviders.findAllForType(DynamicSupplier::class)
+
+        dependencies.retainAll(providers)
+        dependencies -= provider
+        return dependencies
+    }
+
+    private fun getDependencyType(parameter: KParameter): KClass<*>? {
+        // Instance of a service factory
+        if (parameter.kind == KParameter.Kind.INSTANCE)
+            return parameter.type.jvmErasure
+
+        return when (val erasure = parameter.type.jvmErasure) {
+            // Created on demand
+            Lazy::class, LazyService::class -> null
+            // Interfaced services
+            List::class -> parameter.type.arguments.firstOrNull()?.type?.jvmErasure
+            else -> erasure
+        }
+    }
+
+    /**
+     * Returns the providers, sorted such as dependencies are before their dependents,
+     * providers with circular dependencies are excluded.
+     */
+    private fun sortByDependencies(
+        providers: Collection<ServiceProvider>,
+        dependencies: Map<ServiceProvider, Set<ServiceProvider>>
+    ): List<ServiceProvider> {
+        val dependents: MutableMap<ServiceProvider, MutableList<ServiceProvider>> = hashMapOf()
+        val remainingDependencies: MutableMap<ServiceProvider, Int> = hashMapOf()
+        providers.forEach { provider ->
+            val providerDependencies = dependencies.getValue(provider)
+            remainingDependencies[provider] = providerDependencies.size
+            providerDependencies.forEach { dependents.getOrPut(it, ::arrayListOf) += provider }
+        }
+
+        val sortedProviders = providers.filterTo(arrayListOf()) { remainingDependencies.getValue(it) == 0 }
+        var index = 0
+        while (index < sortedProviders.size) {
+            dependents[sortedProviders[index++]]?.forEach { dependent ->
+                val remaining = remainingDependencies.getValue(dependent) - 1
+                remainingDependencies[dependent] = remaining
+                if (remaining == 0) sortedProviders += dependent
+            }
+        }
+
+        return sortedProviders
+    }
+}
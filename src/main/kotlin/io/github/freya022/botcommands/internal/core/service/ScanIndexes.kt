@@ -0,0 +1,155 @@
+package io.github.freya022.botcommands.internal.core.service
+
+import io.github.classgraph.ClassGraph
+import io.github.classgraph.ScanResult
+import io.github.freya022.botcommands.api.BCInfo
+import io.github.freya022.botcommands.api.core.config.BConfig
+import io.github.freya022.botcommands.api.core.events.BGenericEvent
+import io.github.freya022.botcommands.api.core.service.ScanIndex
+import io.github.oshai.kotlinlogging.KotlinLogging
+import net.dv8tion.jda.api.JDAInfo
+import net.dv8tion.jda.api.events.GenericEvent
+import java.security.MessageDigest
+import java.util.HexFormat
+import java.util.*
+
+private val logger = KotlinLogging.logger { }
+
+/**
+ * Creates the ClassGraph scans used at startup, and loads their results from a [ScanIndex], if enabled.
+ */
+internal object ScanIndexes {
+    private const val INDEX_DIRECTORY = "META-INF/botcommands"
+    internal const val REFLECTION_INDEX_PATH = "$INDEX_DIRECTORY/reflection-index.json"
+    internal const val REFLECTION_INDEX_PROPERTIES_PATH = "$INDEX_DIRECTORY/reflection-index.properties"
+    internal const val EVENT_INDEX_PATH = "$INDEX_DIRECTORY/event-index.json"
+
+    private val defaultClassLoader: ClassLoader = ScanIndexes::class.java.classLoader
+
+    internal fun createReflectionScan(packages: Collection<String>, classes: Collection<String>): ClassGraph =
+        ClassGraph()
+            .acceptPackages(
+                "io.github.freya022.botcommands.api",
+                "io.github.freya022.botcommands.internal",
+                *packages.toTypedArray()
+            )
+            .acceptClasses(*classes.toTypedArray())
+            .enableClassInfo()
+            .enableMethodInfo()
+            .enableAnnotationInfo()
+            .disableModuleScanning()
+
+    internal fun createEventScan(): ClassGraph =
+        ClassGraph()
+            .acceptPackages(GenericEvent::class.java.packageName, BGenericEvent::class.java.packageName)
+            .disableRuntimeInvisibleAnnotations()
+            .disableModuleScanning()
+            .enableClassInfo()
+
+    internal fun createReflectionIndexProperties(packages: Collection<String>, classes: Collection<String>): Properties =
+        Properties().apply {
+            setProperty("botcommandsVersion", BCInfo.VERSION)
+            setProperty("jdaVersion", JDAInfo.VERSION)
+            setProperty("packages", packages.sorted().joinToString(","))
+            setProperty("classes", classes.sorted().joinToString(","))
+            setProperty("classFingerprint", computeClassFingerprint(packages, classes))
+        }
+
+    /**
+     * Hashes the names and sizes of the class files included in the reflection scan,
+     * only listing them, without reading them.
+     *
+     * Modification times are not included, as they are usually not kept when packaging,
+     * for example, with reproducible builds.
+     */
+    private fun computeClassFingerprint(packages: Collection<String>, classes: Collection<String>): String {
+        val classFiles = ClassGraph()
+            .acceptPackages(
+                "io.github.freya022.botcommands.api",
+                "io.github.freya022.botcommands.internal",
+                *packages.toTypedArray()
+            )
+            .acceptClasses(*classes.toTypedArray())
+            .disableModuleScanning()
+            .scan()
+            .use { scanResult ->
+                scanResult.getResourcesWithExtension("class").map { "${it.path}:${it.length}" }
+            }
+
+        val digest = MessageDigest.getInstance("SHA-256")
+        classFiles.sorted().forEach { digest.update("$it\n".encodeToByteArray()) }
+        return HexFormat.of().formatHex(digest.digest())
+    }
+
+    /**
+     * Returns the indexed scan of the packages and classes,
+     * or `null` if the index is disabled, missing, outdated,
+     * or was generated for other packages and classes, or for other BotCommands or JDA versions.
+     */
+    internal fun loadReflectionIndex(config: BConfig, classLoader: ClassLoader = defaultClassLoader): ScanResult? {
+        if (!config.useScanIndex) return null
+
+        val properties = readIndexProperties(classLoader) ?: return null
+        if (!checkVersions(properties)) return null
+
+        val expectedProperties = createReflectionIndexProperties(config.packages, config.classes.map { it.name })
+        if (properties["packages"] != expectedProperties["packages"] || properties["classes"] != expectedProperties["classes"]) {
+            logger.warn { "Scan index was generated for different packages or classes, scanning instead. Index: $properties, configured: $expectedProperties" }
+            return null
+        }
+
+        if (properties["classFingerprint"] != expectedProperties["classFingerprint"]) {
+            logger.warn { "Scan index is outdated, classes were changed since it was generated, scanning instead, see ${ScanIndex::class.java.simpleName}" }
+            return null
+        }
+
+        return loadIndex(REFLECTION_INDEX_PATH, classLoader)
+    }
+
+    /**
+     * Returns the indexed scan of the JDA and BotCommands events,
+     * or `null` if the index is disabled, missing, or was generated for other BotCommands or JDA versions.
+     */
+    internal fun loadEventIndex(config: BConfig, classLoader: ClassLoader = defaultClassLoader): ScanResult? {
+        if (!config.useScanIndex) return null
+
+        val properties = readIndexProperties(classLoader) ?: return null
+        if (!checkVersions(properties)) return null
+
+        return loadIndex(EVENT_INDEX_PATH, classLoader)
+    }
+
+    private fun readIndexProperties(classLoader: ClassLoader): Properties? {
+        val content = readResource(REFLECTION_INDEX_PROPERTIES_PATH, classLoader)
+            ?: return logMissingIndex(REFLECTION_INDEX_PROPERTIES_PATH)
+        return Properties().apply { load(content.reader()) }
+    }
+
+    /**
+     * Checks the index contains the classes of the running framework and JDA versions,
+     * as it includes their classes and events.
+     */
+    private fun checkVersions(properties: Properties): Boolean {
+        val botcommandsVersion = properties.getProperty("botcommandsVersion")
+        val jdaVersion = properties.getProperty("jdaVersion")
+        if (botcommandsVersion != BCInfo.VERSION || jdaVersion != JDAInfo.VERSION) {
+            logger.warn { "Scan index was generated with BotCommands $botcommandsVersion and JDA $jdaVersion, but running BotCommands ${BCInfo.VERSION} and JDA ${JDAInfo.VERSION}, scanning instead" }
+            return false
+        }
+        return true
+    }
+
+    private fun loadIndex(path: String, classLoader: ClassLoader): ScanResult? {
+        val json = readResource(path, classLoader) ?: return logMissingIndex(path)
+        logger.debug { "Loading scan index from $path" }
+        return ScanResult.fromJSON(json)
+    }
+
+    private fun readResource(path: String, classLoader: ClassLoader): String? =
+        classLoader.getResourceAsStream(path)?.use { it.readAllBytes().decodeToString() }
+
+    private fun logMissingIndex(path: String): Nothing? {
+        logger.warn { "Scan index is enabled but '$path' was not found, scanning instead, see ${ScanIndex::class.java.simpleName}" }
+        return null
+    }
+}
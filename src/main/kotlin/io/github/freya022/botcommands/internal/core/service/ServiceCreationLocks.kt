@@ -0,0 +1,84 @@
+package io.github.freya022.botcommands.internal.core.service
+
+import io.github.freya022.botcommands.internal.core.service.provider.ProviderName
+import io.github.freya022.botcommands.internal.core.service.provider.ServiceProvider
+import io.github.freya022.botcommands.internal.utils.throwState
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.locks.ReentrantLock
+
+private const val waitCheckInterval = 50L
+
+/**
+ * Locks held while a service is being created, so different services can be created concurrently.
+ *
+ * As services may depend on each other in ways that cannot be known ahead of time,
+ * threads waiting for a service check if the thread creating it is (transitively) waiting for them,
+ * in which case a circular dependency error is thrown, instead of deadlocking.
+ */
+internal class ServiceCreationLocks {
+    private class CreationLock {
+        val lock = ReentrantLock()
+        @Volatile
+        var owner: Thread? = null
+    }
+
+    private val locks: MutableMap<ProviderName, CreationLock> = ConcurrentHashMap()
+    private val waitingThreads: MutableMap<Thread, ProviderName> = ConcurrentHashMap()
+
+    /**
+     * Runs the [block] while holding the creation lock of this provider.
+     *
+     * @param awaitLock Wraps the wait for the lock, if it is held by another thread
+     */
+    internal fun <R> withCreationLock(provider: ServiceProvider, awaitLock: (() -> Unit) -> Unit, block: () -> R): R {
+        val creationLock = locks.computeIfAbsent(provider.providerKey) { CreationLock() }
+        if (!creationLock.lock.tryLock()) {
+            awaitLock { lock(provider.providerKey, creationLock) }
+        }
+
+        val currentThread = Thread.currentThread()
+        val isOutermost = creationLock.lock.holdCount == 1
+        if (isOutermost) creationLock.owner = currentThread
+        try {
+            return block()
+        } finally {
+            if (isOutermost) creationLock.owner = null
+            creationLock.lock.unlock()
+        }
+    }
+
+    private fun lock(providerKey: ProviderName, creationLock: CreationLock) {
+        val currentThread = Thread.currentThread()
+        waitingThreads[currentThread] = providerKey
+        try {
+            while (!creationLock.lock.tryLock(waitCheckInterval, TimeUnit.MILLISECONDS)) {
+                val cycle = findWaitCycle(providerKey) ?: continue
+                // Check again after waiting, in case the chain changed while it was being read
+                if (creationLock.lock.tryLock(waitCheckInterval, TimeUnit.MILLISECONDS)) return
+                if (findWaitCycle(providerKey) != null)
+                    throwState("Circular dependency detected between services created in parallel: [${cycle.joinToString(" -> ")}]")
+            }
+        } finally {
+            waitingThreads.remove(currentThread)
+        }
+    }
+
+    /**
+     * Follows the owners of the awaited services, and returns the awaited services if it comes back to the current thread.
+     */
+    private fun findWaitCycle(providerKey: ProviderName): List<ProviderName>? {
+        val currentThread = Thread.currentThread()
+        val chain = arrayListOf(providerKey)
+        var awaitedKey = providerKey
+        // Each thread waits for at most one service
+        repeat(waitingThreads.size + 1) {
+            val owner = locks[awaitedKey]?.owner ?: return null
+            if (owner === currentThread) return chain
+
+            awaitedKey = waitingThreads[owner] ?: return null
+            chain += awaitedKey
+        }
+        return null
+    }
+}
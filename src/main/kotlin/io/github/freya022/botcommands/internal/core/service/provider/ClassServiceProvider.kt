@@ -33,6 +33,7 @@ internal class ClassServiceProvider internal constructor(
         }
     }
 
+    @Volatile
     override var instance: Any? = null
     /**
      * If not the sentinel value, the service was attempted to be created.
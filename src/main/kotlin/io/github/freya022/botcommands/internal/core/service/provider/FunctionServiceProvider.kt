@@ -18,6 +18,7 @@ import kotlin.reflect.jvm.jvmErasure
 
 internal class FunctionServiceProvider(
     private val function: KFunction<*>,
+    @Volatile
     override var instance: Any? = null
 ) : ServiceProvider {
     override val annotations = function.getAllAnnotations()
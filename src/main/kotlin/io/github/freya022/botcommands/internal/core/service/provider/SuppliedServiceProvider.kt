@@ -16,6 +16,7 @@ internal class SuppliedServiceProvider internal constructor(
     private val clazz: KClass<*>,
     private val supplier: InstanceSupplier<*>
 ) : ServiceProvider {
+    @Volatile
     override var instance: Any? = null
 
     override val annotations = clazz.annotations
@@ -0,0 +1,76 @@
+package io.github.freya022.botcommands.internal.core.timeout
+
+import io.github.freya022.botcommands.api.core.annotations.BEventListener
+import io.github.freya022.botcommands.api.core.service.annotations.BService
+import io.github.freya022.botcommands.api.core.timeout.TimeoutMetrics
+import io.github.freya022.botcommands.internal.core.timeout.TimeoutWheel.WheelTimeout
+import io.github.freya022.botcommands.internal.utils.launchCatching
+import kotlinx.coroutines.CoroutineScope
+import net.dv8tion.jda.api.JDA
+import net.dv8tion.jda.api.events.StatusChangeEvent
+import kotlin.time.Duration
+
+/**
+ * Schedules the timeouts of components, modals and paginations on a shared [TimeoutWheel],
+ * instead of having one delayed coroutine per timeout.
+ *
+ * The wheel is stopped once JDA, or all shards, have shut down,
+ * and is restarted when JDA, or a shard, starts again, such as when restarting shards.
+ */
+@BService
+internal class TimeoutScheduler : TimeoutMetrics {
+    private val wheel = TimeoutWheel("BotCommands Timeouts")
+
+    /**
+     * @see TimeoutWheel.pendingTimeouts
+     */
+    override val pendingTimeouts: Long
+        get() = wheel.pendingTimeouts
+
+    /**
+     * @see TimeoutWheel.lastFiringLag
+     */
+    override val lastFiringLag: Duration
+        get() = wheel.lastFiringLag
+
+    /**
+     * @see TimeoutWheel.maxFiringLag
+     */
+    override val maxFiringLag: Duration
+        get() = wheel.maxFiringLag
+
+    /**
+     * Runs the [task] on the wheel thread once the [delay] has elapsed.
+     *
+     * @see TimeoutWheel.schedule
+     */
+    fun schedule(delay: Duration, task: Runnable): WheelTimeout = wheel.schedule(delay, task)
+
+    /**
+     * Launches the [block] in the [scope] once the [delay] has elapsed.
+     *
+     * Cancelling the returned timeout only prevents the coroutine from being launched.
+     */
+    fun launchCatchingDelayed(
+        scope: CoroutineScope,
+        delay: Duration,
+        catchBlock: suspend CoroutineScope.(Throwable) -> Unit,
+        block: suspend CoroutineScope.() -> Unit
+    ): WheelTimeout = wheel.schedule(delay) {
+        scope.launchCatching(catchBlock, block)
+    }
+
+    @BEventListener
+    internal fun onStatusChange(event: StatusChangeEvent) {
+        if (event.newStatus != JDA.Status.SHUTDOWN) {
+            // Restarted JDA, or restarted shards
+            if (event.oldStatus == JDA.Status.SHUTDOWN || event.oldStatus == JDA.Status.INITIALIZING)
+                wheel.start()
+            return
+        }
+
+        val shardManager = event.jda.shardManager
+        if (shardManager == null || shardManager.shardCache.all { it.status == JDA.Status.SHUTDOWN })
+            wheel.stop()
+    }
+}
@@ -0,0 +1,290 @@
+package io.github.freya022.botcommands.internal.core.timeout
+
+import io.github.oshai.kotlinlogging.KotlinLogging
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.locks.LockSupport
+import kotlin.concurrent.thread
+import kotlin.time.Duration
+import kotlin.time.Duration.Companion.milliseconds
+import kotlin.time.Duration.Companion.nanoseconds
+
+private val logger = KotlinLogging.logger { }
+
+/**
+ * A hashed timing wheel, where scheduling and cancelling timeouts are O(1).
+ *
+ * Timeouts are put in one of the [wheelSize] buckets, based on their deadline,
+ * timeouts further than one wheel rotation are kept in their bucket for the remaining rotations.
+ *
+ * A single daemon thread advances the wheel every [tickDuration],
+ * expired tasks are run on that thread, so they must be short-lived,
+ * for example, by launching a coroutine.
+ *
+ * Timeouts may run up to one [tickDuration] late.
+ *
+ * The thread starts with the first scheduled timeout, and runs until [stop] is called,
+ * the wheel can then be restarted with [start], and runs the timeouts which were pending when it stopped.
+ */
+internal class TimeoutWheel(
+    private val name: String,
+    tickDuration: Duration = 100.milliseconds,
+    wheelSize: Int = 1024
+) {
+    private val tickNanos: Long = tickDuration.inWholeNanoseconds
+    private val mask: Int
+    private val wheel: Array<Bucket>
+
+    // Modifications are submitted to the worker thread, which is the only one modifying the buckets
+    private val pendingAdditions = ConcurrentLinkedQueue<WheelTimeout>()
+    private val pendingCancellations = ConcurrentLinkedQueue<WheelTimeout>()
+
+    private val wheelState = AtomicInteger(WHEEL_INIT)
+    // Only replaced while holding the wheel lock
+    @Volatile
+    private var worker: Thread? = null
+    private val startTime: Long = System.nanoTime()
+    private var tick: Long = 0
+
+    private val pendingTimeoutCount = AtomicLong()
+    private val lastFiringLagNanos = AtomicLong()
+    private val maxFiringLagNanos = AtomicLong()
+
+    /**
+     * Number of timeouts which are neither expired nor cancelled.
+     */
+    val pendingTimeouts: Long
+        get() = pendingTimeoutCount.get()
+
+    /**
+     * Delay between the deadline of the last expired timeout, and when it actually ran.
+     */
+    val lastFiringLag: Duration
+        get() = lastFiringLagNanos.get().nanoseconds
+
+    /**
+     * Maximum delay between the deadline of an expired timeout, and when it actually ran.
+     */
+    val maxFiringLag: Duration
+        get() = maxFiringLagNanos.get().nanoseconds
+
+    init {
+        require(tickNanos > 0) { "Tick duration must be positive" }
+        require(wheelSize > 0 && (wheelSize and (wheelSize - 1)) == 0) { "Wheel size must be a power of two" }
+
+        mask = wheelSize - 1
+        wheel = Array(wheelSize) { Bucket() }
+    }
+
+    /**
+     * Runs the [task] on the wheel thread after the [delay] has elapsed.
+     *
+     * Negative delays run the task on the next tick.
+     *
+     * Timeouts scheduled while the wheel is stopped are rejected,
+     * the returned timeout is then already cancelled.
+     */
+    fun schedule(delay: Duration, task: Runnable): WheelTimeout {
+        if (wheelState.get() == WHEEL_INIT)
+            start()
+
+        val deadline = System.nanoTime() - startTime + delay.inWholeNanoseconds.coerceAtLeast(0)
+        val timeout = WheelTimeout(this, deadline, task)
+        if (wheelState.get() == WHEEL_STOPPED) {
+            logger.warn { "Rejected a timeout as the '$name' wheel is stopped" }
+            timeout.state.set(WheelTimeout.ST_CANCELLED)
+            return timeout
+        }
+
+        pendingTimeoutCount.incrementAndGet()
+        pendingAdditions.add(timeout)
+        return timeout
+    }
+
+    /**
+     * Starts the wheel thread if it isn't running,
+     * waiting for the previous thread to exit if the wheel was stopped.
+     */
+    @Synchronized
+    fun start() {
+        if (wheelState.get() == WHEEL_STARTED) return
+
+        // Only one thread may access the buckets
+        worker?.join()
+        wheelState.set(WHEEL_STARTED)
+        worker = thread(name = name, isDaemon = true) { runWorker() }
+    }
+
+    /**
+     * Stops the wheel thread, pending timeouts are kept until the wheel is [restarted][start],
+     * and timeouts scheduled in the meantime are rejected.
+     */
+    @Synchronized
+    fun stop() {
+        if (wheelState.getAndSet(WHEEL_STOPPED) == WHEEL_STARTED)
+            LockSupport.unpark(worker)
+    }
+
+    private fun onCancel(timeout: WheelTimeout) {
+        pendingTimeoutCount.decrementAndGet()
+        pendingCancellations.add(timeout)
+    }
+
+    private fun runWorker() {
+        while (wheelState.get() == WHEEL_STARTED) {
+            val deadline = waitForNextTick() ?: return
+
+            processCancellations()
+            transferAdditions()
+            wheel[(tick and mask.toLong()).toInt()].expireTimeouts(deadline)
+            tick++
+        }
+    }
+
+    /**
+     * Waits until the current tick has elapsed, and returns the current time relative to [startTime],
+     * or `null` if the wheel was stopped.
+     */
+    private fun waitForNextTick(): Long? {
+        val deadline = tickNanos * (tick + 1)
+        while (wheelState.get() == WHEEL_STARTED) {
+            val currentTime = System.nanoTime() - startTime
+            val sleepNanos = deadline - currentTime
+            if (sleepNanos <= 0)
+                return currentTime
+
+            LockSupport.parkNanos(sleepNanos)
+        }
+        return null
+    }
+
+    private fun processCancellations() {
+        while (true) {
+            val timeout = pendingCancellations.poll() ?: return
+            timeout.bucket?.remove(timeout)
+        }
+    }
+
+    private fun transferAdditions() {
+        while (true) {
+            val timeout = pendingAdditions.poll() ?: return
+            // Was cancelled before being added
+            if (timeout.state.get() == WheelTimeout.ST_CANCELLED) continue
+
+            val expectedTick = timeout.deadline / tickNanos
+            timeout.remainingRounds = (expectedTick - tick) / wheel.size
+            // Timeouts which should have already run are put in the current bucket
+            val targetTick = maxOf(expectedTick, tick)
+            wheel[(targetTick and mask.toLong()).toInt()].add(timeout)
+        }
+    }
+
+    private fun expire(timeout: WheelTimeout, currentTime: Long) {
+        if (!timeout.state.compareAndSet(WheelTimeout.ST_INIT, WheelTimeout.ST_EXPIRED)) return
+        pendingTimeoutCount.decrementAndGet()
+
+        val lag = (currentTime - timeout.deadline).coerceAtLeast(0)
+        lastFiringLagNanos.set(lag)
+        maxFiringLagNanos.accumulateAndGet(lag) { a, b -> maxOf(a, b) }
+
+        try {
+            timeout.task.run()
+        } catch (e: Throwable) {
+            logger.error(e) { "An exception occurred while running a timeout task" }
+        }
+    }
+
+    private companion object {
+        private const val WHEEL_INIT = 0
+        private const val WHEEL_STARTED = 1
+        private const val WHEEL_STOPPED = 2
+    }
+
+    /**
+     * A cancellable handle to a task scheduled on a [TimeoutWheel].
+     */
+    internal class WheelTimeout(
+        private val wheel: TimeoutWheel,
+        internal val deadline: Long,
+        internal val task: Runnable
+    ) {
+        internal val state = AtomicInteger(ST_INIT)
+
+        // Only accessed by the worker thread
+        internal var remainingRounds: Long = 0
+        internal var bucket: Bucket? = null
+        internal var next: WheelTimeout? = null
+        internal var prev: WheelTimeout? = null
+
+        val isExpired: Boolean get() = state.get() == ST_EXPIRED
+        val isCancelled: Boolean get() = state.get() == ST_CANCELLED
+
+        /**
+         * Cancels this timeout.
+         *
+         * @return `true` if the timeout was cancelled, `false` if it already expired or was cancelled
+         */
+        fun cancel(): Boolean {
+            if (!state.compareAndSet(ST_INIT, ST_CANCELLED)) return false
+            wheel.onCancel(this)
+            return true
+        }
+
+        internal companion object {
+            internal const val ST_INIT = 0
+            internal const val ST_CANCELLED = 1
+            internal const val ST_EXPIRED = 2
+        }
+    }
+
+    /**
+     * Doubly linked list of timeouts, only accessed by the worker thread.
+     */
+    internal inner class Bucket {
+        private var head: WheelTimeout? = null
+        private var tail: WheelTimeout? = null
+
+        fun add(timeout: WheelTimeout) {
+            timeout.bucket = this
+            if (head == null) {
+                head = timeout
+                tail = timeout
+            } else {
+                tail!!.next = timeout
+                timeout.prev = tail
+                tail = timeout
+            }
+        }
+
+        fun expireTimeouts(currentTime: Long) {
+            var timeout = head
+            while (timeout != null) {
+                val next = timeout.next
+                if (timeout.remainingRounds <= 0) {
+                    remove(timeout)
+                    expire(timeout, currentTime)
+                } else if (timeout.isCancelled) {
+                    remove(timeout)
+                } else {
+                    timeout.remainingRounds--
+                }
+                timeout = next
+            }
+        }
+
+        fun remove(timeout: WheelTimeout) {
+            // Might have already been removed if cancelled while expiring
+            if (timeout.bucket !== this) return
+
+            val prev = timeout.prev
+            val next = timeout.next
+            if (prev != null) prev.next = next else head = next
+            if (next != null) next.prev = prev else tail = prev
+
+            timeout.prev = null
+            timeout.next = null
+            timeout.bucket = null
+        }
+    }
+}
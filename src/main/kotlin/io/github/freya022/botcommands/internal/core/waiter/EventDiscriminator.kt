@@ -0,0 +1,63 @@
+package io.github.freya022.botcommands.internal.core.waiter
+
+import net.dv8tion.jda.api.events.Event
+import net.dv8tion.jda.api.events.channel.GenericChannelEvent
+import net.dv8tion.jda.api.events.guild.GenericGuildEvent
+import net.dv8tion.jda.api.events.guild.member.GenericGuildMemberEvent
+import net.dv8tion.jda.api.events.guild.voice.GenericGuildVoiceEvent
+import net.dv8tion.jda.api.events.interaction.GenericInteractionCreateEvent
+import net.dv8tion.jda.api.events.interaction.component.GenericComponentInteractionCreateEvent
+import net.dv8tion.jda.api.events.message.GenericMessageEvent
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent
+import net.dv8tion.jda.api.events.message.MessageUpdateEvent
+import net.dv8tion.jda.api.events.message.react.GenericMessageReactionEvent
+import net.dv8tion.jda.api.events.user.GenericUserEvent
+
+private class Extractor<T : Event>(private val type: Class<T>, private val function: (T) -> Long?) {
+    fun supports(eventType: Class<out Event>): Boolean = type.isAssignableFrom(eventType)
+
+    fun extract(event: Event): Long? = if (type.isInstance(event)) function(type.cast(event)) else null
+}
+
+private inline fun <reified T : Event> extractor(noinline function: (T) -> Long?) = Extractor(T::class.java, function)
+
+/**
+ * IDs which can be read from an event, to find the waiters of that event without checking all of them.
+ *
+ * Entries are declared from the most to the least selective,
+ * waiters are indexed by their first discriminator.
+ */
+internal enum class EventDiscriminator(private vararg val extractors: Extractor<*>) {
+    MESSAGE(
+        extractor<GenericMessageEvent> { it.messageIdLong },
+        extractor<GenericComponentInteractionCreateEvent> { it.messageIdLong },
+    ),
+    USER(
+        extractor<MessageReceivedEvent> { it.author.idLong },
+        extractor<MessageUpdateEvent> { it.author.idLong },
+        extractor<GenericMessageReactionEvent> { it.userIdLong },
+        extractor<GenericInteractionCreateEvent> { it.user.idLong },
+        extractor<GenericGuildMemberEvent> { it.user.idLong },
+        extractor<GenericGuildVoiceEvent> { it.member.idLong },
+        extractor<GenericUserEvent> { it.user.idLong },
+    ),
+    CHANNEL(
+        extractor<GenericMessageEvent> { it.channel.idLong },
+        extractor<GenericInteractionCreateEvent> { it.channel?.idLong },
+        extractor<GenericChannelEvent> { it.channel.idLong },
+    ),
+    GUILD(
+        extractor<GenericGuildEvent> { it.guild.idLong },
+        extractor<GenericMessageEvent> { if (it.isFromGuild) it.guild.idLong else null },
+        extractor<GenericInteractionCreateEvent> { it.guild?.idLong },
+    );
+
+    fun supports(eventType: Class<out Event>): Boolean = extractors.any { it.supports(eventType) }
+
+    fun extract(event: Event): Long? {
+        for (extractor in extractors) {
+            extractor.extract(event)?.let { return it }
+        }
+        return null
+    }
+}
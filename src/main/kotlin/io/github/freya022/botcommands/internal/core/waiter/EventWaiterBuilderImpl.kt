@@ -1,8 +1,10 @@
 package io.github.freya022.botcommands.internal.core.waiter
 
+import io.github.freya022.botcommands.api.core.utils.simpleNestedName
 import io.github.freya022.botcommands.api.core.waiter.CompletedFutureEvent
 import io.github.freya022.botcommands.api.core.waiter.EventWaiterBuilder
 import net.dv8tion.jda.api.events.Event
+import java.util.*
 import java.util.concurrent.CompletableFuture
 import java.util.function.Consumer
 import java.util.function.Predicate
@@ -12,6 +14,7 @@ internal class EventWaiterBuilderImpl<T : Event> internal constructor(
     private val eventWaiter: EventWaiterImpl,
     private val eventType: Class<T>
 ) : EventWaiterBuilder<T> {
+    private val discriminators: EnumMap<EventDiscriminator, Long> = EnumMap(EventDiscriminator::class.java)
     private val preconditions: MutableList<Predicate<T>> = arrayListOf()
     private var onSuccess: Consumer<T>? = null
     private var onTimeout: Runnable? = null
@@ -46,8 +49,24 @@ internal class EventWaiterBuilderImpl<T : Event> internal constructor(
         this.preconditions += precondition
     }
 
+    override fun setUserId(userId: Long): EventWaiterBuilder<T> = setDiscriminator(EventDiscriminator.USER, userId)
+
+    override fun setChannelId(channelId: Long): EventWaiterBuilder<T> = setDiscriminator(EventDiscriminator.CHANNEL, channelId)
+
+    override fun setGuildId(guildId: Long): EventWaiterBuilder<T> = setDiscriminator(EventDiscriminator.GUILD, guildId)
+
+    override fun setMessageId(messageId: Long): EventWaiterBuilder<T> = setDiscriminator(EventDiscriminator.MESSAGE, messageId)
+
+    private fun setDiscriminator(discriminator: EventDiscriminator, id: Long): EventWaiterBuilder<T> = apply {
+        require(discriminator.supports(eventType)) {
+            "Cannot wait for a specific ${discriminator.name.lowercase()} on a ${eventType.simpleNestedName}"
+        }
+
+        discriminators[discriminator] = id
+    }
+
     override fun submit(): CompletableFuture<T> = eventWaiter.submit(
-        WaitingEvent(eventType, preconditions, onComplete, onSuccess, onTimeout, onCancelled, timeout)
+        WaitingEvent(eventType, EnumMap(discriminators), preconditions, onComplete, onSuccess, onTimeout, onCancelled, timeout)
     )
 
     override fun complete(): T = submit().get()
@@ -23,11 +23,10 @@ import net.dv8tion.jda.api.requests.GatewayIntent
 import net.dv8tion.jda.internal.JDAImpl
 import java.util.*
 import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ConcurrentHashMap
 import java.util.concurrent.TimeUnit
 import java.util.concurrent.TimeoutException
-import java.util.concurrent.locks.ReentrantLock
 import java.util.function.Predicate
-import kotlin.concurrent.withLock
 
 private val logger = KotlinLogging.loggerOf<EventWaiter>()
 
@@ -35,8 +34,7 @@ private val logger = KotlinLogging.loggerOf<EventWaiter>()
 internal class EventWaiterImpl(context: BContextImpl) : EventWaiter {
     private val exceptionHandler = ExceptionHandler(context, logger)
 
-    private val waitingMap: MutableMap<Class<out Event>, MutableList<WaitingEvent<out Event>>> = HashMap()
-    private val lock = ReentrantLock()
+    private val waitingMap: MutableMap<Class<out Event>, WaiterIndex> = ConcurrentHashMap()
 
     private lateinit var jda: JDA
     private lateinit var intents: EnumSet<GatewayIntent>
@@ -55,25 +53,22 @@ internal class EventWaiterImpl(context: BContextImpl) : EventWaiter {
 
     internal fun <T : Event> submit(waitingEvent: WaitingEvent<T>): CompletableFuture<T> {
         val future = waitingEvent.completableFuture
-        if (waitingEvent.timeout != null) {
-            future.orTimeout(waitingEvent.timeout.inWholeMilliseconds, TimeUnit.MILLISECONDS)
-        }
 
-        val waitingEvents = waitingMap.computeIfAbsent(waitingEvent.eventType) { arrayListOf() }
+        val waiterIndex = waitingMap.computeIfAbsent(waitingEvent.eventType) { WaiterIndex() }
+        waiterIndex.add(waitingEvent)
+
         future.whenComplete { event: T?, throwable: Throwable? ->
             try {
+                // Not removed by the event listener if timed out or cancelled
+                waiterIndex.remove(waitingEvent)
                 waitingEvent.onComplete?.accept(future, event, throwable)
                 if (throwable is TimeoutException) {
                     logger.trace { "Timeout for ${waitingEvent.eventType.simpleNestedName} waiter" }
-                    //Not removed automatically by Iterator#remove before this method is called
-                    lock.withLock { waitingEvents.remove(waitingEvent) }
                     waitingEvent.onTimeout?.run()
                 } else if (event != null) {
                     waitingEvent.onSuccess?.accept(event)
                 } else if (future.isCancelled) {
                     logger.trace { "Cancelled ${waitingEvent.eventType.simpleNestedName} waiter" }
-                    //Not removed automatically by Iterator#remove before this method is called
-                    lock.withLock { waitingEvents.remove(waitingEvent) }
                     waitingEvent.onCancelled?.run()
                 } else {
                     throwInternal("Unexpected branch with stack trace: ${throwable?.stackTraceToString()}")
@@ -83,7 +78,10 @@ internal class EventWaiterImpl(context: BContextImpl) : EventWaiter {
             }
         }
 
-        lock.withLock { waitingEvents.add(waitingEvent) }
+        // Start the timeout after the waiter is indexed, so it is always removed
+        if (waitingEvent.timeout != null) {
+            future.orTimeout(waitingEvent.timeout.inWholeMilliseconds, TimeUnit.MILLISECONDS)
+        }
 
         return future
     }
@@ -99,30 +97,28 @@ internal class EventWaiterImpl(context: BContextImpl) : EventWaiter {
     @Suppress("UNCHECKED_CAST")
     @BEventListener
     internal fun onEvent(event: Event) {
-        val waitingEvents: MutableList<WaitingEvent<out Event>> = waitingMap[event.javaClass] ?: return
-
-        lock.withLock {
-            val iterator = waitingEvents.iterator()
-            eventLoop@ while (iterator.hasNext()) {
-                try {
-                    val waitingEvent = iterator.next()
-                    for (precondition in waitingEvent.preconditions) {
-                        precondition as Predicate<Event>
-                        if (!precondition.test(event)) {
-                            logger.trace { "Failed ${event.javaClass.simpleNestedName} precondition #${waitingEvent.preconditions.indexOf(precondition)} $precondition with $event" }
-                            continue@eventLoop
-                        }
-                    }
+        val waiterIndex = waitingMap[event.javaClass] ?: return
 
-                    val completableFuture = waitingEvent.completableFuture as CompletableFuture<Event>
-                    if (completableFuture.complete(event)) {
-                        iterator.remove()
-                    } else {
-                        throwInternal("Completable future was already completed")
+        waiterIndex.forEachCandidate(event) { waitingEvent ->
+            try {
+                // Another event may have completed it concurrently
+                if (waitingEvent.completableFuture.isDone) return@forEachCandidate
+                if (!waitingEvent.matchesDiscriminators(event)) return@forEachCandidate
+
+                for (precondition in waitingEvent.preconditions) {
+                    precondition as Predicate<Event>
+                    if (!precondition.test(event)) {
+                        logger.trace { "Failed ${event.javaClass.simpleNestedName} precondition #${waitingEvent.preconditions.indexOf(precondition)} $precondition with $event" }
+                        return@forEachCandidate
                     }
-                } catch (e: Exception) {
-                    exceptionHandler.handleException(event, e, "EventWaiter handler for $event")
                 }
+
+                val completableFuture = waitingEvent.completableFuture as CompletableFuture<Event>
+                if (completableFuture.complete(event)) {
+                    waiterIndex.remove(waitingEvent)
+                }
+            } catch (e: Exception) {
+                exceptionHandler.handleException(event, e, "EventWaiter handler for $event")
             }
         }
     }
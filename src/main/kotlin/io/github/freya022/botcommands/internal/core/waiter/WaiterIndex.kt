@@ -0,0 +1,59 @@
+package io.github.freya022.botcommands.internal.core.waiter
+
+import net.dv8tion.jda.api.events.Event
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Waiters of a single event type, indexed by their [most selective discriminator][WaitingEvent.indexDiscriminator].
+ *
+ * All operations are thread-safe and do not lock the entire index.
+ */
+internal class WaiterIndex {
+    private data class Key(val discriminator: EventDiscriminator, val id: Long)
+
+    private val unindexedWaiters: MutableSet<WaitingEvent<*>> = ConcurrentHashMap.newKeySet()
+    private val indexedWaiters: MutableMap<Key, MutableSet<WaitingEvent<*>>> = ConcurrentHashMap()
+
+    fun add(waitingEvent: WaitingEvent<*>) {
+        val key = waitingEvent.indexKey()
+        if (key == null) {
+            unindexedWaiters += waitingEvent
+        } else {
+            indexedWaiters.compute(key) { _, waiters ->
+                (waiters ?: ConcurrentHashMap.newKeySet()).also { it += waitingEvent }
+            }
+        }
+    }
+
+    fun remove(waitingEvent: WaitingEvent<*>) {
+        val key = waitingEvent.indexKey()
+        if (key == null) {
+            unindexedWaiters -= waitingEvent
+        } else {
+            // Remove empty sets atomically, so a waiter being added is not lost
+            indexedWaiters.computeIfPresent(key) { _, waiters ->
+                waiters -= waitingEvent
+                waiters.takeUnless { it.isEmpty() }
+            }
+        }
+    }
+
+    /**
+     * Runs the [block] on the waiters which could accept this event,
+     * discriminators and preconditions still need to be checked.
+     */
+    fun forEachCandidate(event: Event, block: (WaitingEvent<*>) -> Unit) {
+        unindexedWaiters.forEach(block)
+        if (indexedWaiters.isEmpty()) return
+
+        for (discriminator in EventDiscriminator.entries) {
+            val id = discriminator.extract(event) ?: continue
+            indexedWaiters[Key(discriminator, id)]?.forEach(block)
+        }
+    }
+
+    private fun WaitingEvent<*>.indexKey(): Key? {
+        val discriminator = indexDiscriminator ?: return null
+        return Key(discriminator, discriminators.getValue(discriminator))
+    }
+}
@@ -9,6 +9,7 @@ import kotlin.time.Duration
 
 internal class WaitingEvent<T : Event> internal constructor(
     val eventType: Class<T>,
+    val discriminators: Map<EventDiscriminator, Long>,
     val preconditions: List<Predicate<T>>,
     val onComplete: CompletedFutureEvent<T>?,
     val onSuccess: Consumer<T>?,
@@ -17,4 +18,12 @@ internal class WaitingEvent<T : Event> internal constructor(
     val timeout: Duration?
 ) {
     val completableFuture = CompletableFuture<T>()
-}
\ No newline at end of file
+
+    /**
+     * The most selective discriminator, used to index this waiter, or `null` if it must be checked on every event.
+     */
+    val indexDiscriminator: EventDiscriminator? = discriminators.keys.minOrNull()
+
+    fun matchesDiscriminators(event: Event): Boolean =
+        discriminators.all { (discriminator, id) -> discriminator.extract(event) == id }
+}
@@ -1,17 +1,16 @@
 package io.github.freya022.botcommands.internal.modals
 
 import io.github.freya022.botcommands.api.modals.ModalEvent
+import io.github.freya022.botcommands.internal.core.timeout.TimeoutWheel.WheelTimeout
 import kotlinx.coroutines.CancellableContinuation
-import kotlinx.coroutines.Job
-import kotlinx.coroutines.cancel
 
 internal class ModalData(
     partialModalData: PartialModalData,
-    private val timeoutJob: Job?
+    private val timeout: WheelTimeout?
 ) : IPartialModalData by partialModalData {
     val continuations: MutableList<CancellableContinuation<ModalEvent>> = arrayListOf()
 
     fun cancelTimeout() {
-        timeoutJob?.cancel("Cancelled by modal usage")
+        timeout?.cancel()
     }
 }
\ No newline at end of file
@@ -12,8 +12,10 @@ import io.github.freya022.botcommands.api.modals.annotations.ModalInput
 import io.github.freya022.botcommands.api.parameters.AggregatedParameter
 import io.github.freya022.botcommands.internal.ExecutableMixin
 import io.github.freya022.botcommands.internal.core.BContextImpl
+import io.github.freya022.botcommands.internal.core.options.OptionFrameLayout
 import io.github.freya022.botcommands.internal.core.options.OptionImpl
 import io.github.freya022.botcommands.internal.core.options.OptionType
+import io.github.freya022.botcommands.internal.core.options.OptionValues
 import io.github.freya022.botcommands.internal.core.reflection.MemberParamFunction
 import io.github.freya022.botcommands.internal.modals.options.ModalHandlerDataOption
 import io.github.freya022.botcommands.internal.modals.options.ModalHandlerInputOption
@@ -25,7 +27,6 @@ import io.github.freya022.botcommands.internal.parameters.*
 import io.github.freya022.botcommands.internal.requireUser
 import io.github.freya022.botcommands.internal.throwUser
 import io.github.freya022.botcommands.internal.utils.*
-import kotlin.reflect.full.callSuspendBy
 import kotlin.reflect.jvm.jvmErasure
 import io.github.freya022.botcommands.api.modals.annotations.ModalData as ModalDataAnnotation
 
@@ -64,6 +65,8 @@ internal class ModalHandlerInfo internal constructor(
         expectedModalInputs = options.filterIsInstance<ModalHandlerInputOption>().count()
     }
 
+    override val optionFrameLayout = OptionFrameLayout(parameters)
+
     @Suppress("DeprecatedCallableAddReplaceWith")
     @Deprecated("For removal, confusing on whether it searches nested parameters, prefer using collection operations on 'parameters' instead, make an extension or an utility method")
     override fun getParameter(declaredName: String): AggregatedParameter? =
@@ -91,12 +94,12 @@ internal class ModalHandlerInfo internal constructor(
         }
 
         val userDataIterator = userDatas.iterator()
-        val optionValues = parameters.mapOptions { option ->
+        val optionValues = mapOptions { option ->
             if (tryInsertOption(event, option, inputNameToInputIdMap, userDataIterator, this) == InsertOptionResult.ABORT)
                 throwInternal(::tryInsertOption, "Insertion function shouldn't have been aborted")
         }
 
-        function.callSuspendBy(parameters.mapFinalParameters(event, optionValues))
+        eventFunction.callSuspendBy(mapFinalParameters(event, optionValues))
     }
 
     private suspend fun tryInsertOption(
@@ -104,7 +107,7 @@ internal class ModalHandlerInfo internal constructor(
         option: OptionImpl,
         inputNameToInputIdMap: TObjectLongMap<String>,
         userDataIterator: Iterator<Any?>,
-        optionMap: MutableMap<OptionImpl, Any?>
+        optionMap: OptionValues
     ): InsertOptionResult {
         val value = when (option.optionType) {
             OptionType.OPTION -> {
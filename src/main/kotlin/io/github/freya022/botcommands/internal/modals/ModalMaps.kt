@@ -8,9 +8,9 @@ import io.github.freya022.botcommands.api.modals.ModalEvent
 import io.github.freya022.botcommands.api.modals.Modals
 import io.github.freya022.botcommands.api.modals.annotations.RequiresModals
 import io.github.freya022.botcommands.internal.core.ExceptionHandler
+import io.github.freya022.botcommands.internal.core.timeout.TimeoutScheduler
 import io.github.freya022.botcommands.internal.utils.TimeoutExceptionAccessor
 import io.github.freya022.botcommands.internal.utils.classRef
-import io.github.freya022.botcommands.internal.utils.launchCatchingDelayed
 import io.github.freya022.botcommands.internal.utils.throwInternal
 import io.github.oshai.kotlinlogging.KotlinLogging
 import kotlinx.coroutines.CancellableContinuation
@@ -35,7 +35,10 @@ private val MIN_ID = 10.0.pow(floor(log10(MAX_ID.toDouble()))).toLong()
 
 @BService
 @RequiresModals
-internal class ModalMaps(context: BContext) {
+internal class ModalMaps(
+    context: BContext,
+    private val timeoutScheduler: TimeoutScheduler
+) {
     private val timeoutScope = context.coroutineScopesConfig.modalTimeoutScope
     private val exceptionHandler = ExceptionHandler(context, logger)
 
@@ -51,9 +54,9 @@ internal class ModalMaps(context: BContext) {
         return modalLock.withLock {
             val internalId: Long = generateId(modalMap)
 
-            val job = partialModalData.timeoutInfo?.let { timeoutInfo ->
+            val timeout = partialModalData.timeoutInfo?.let { timeoutInfo ->
                 // Run timeout user code on the modal scope again
-                timeoutScope.launchCatchingDelayed(timeoutInfo.timeout, { handleTimeoutException(it) }) {
+                timeoutScheduler.launchCatchingDelayed(timeoutScope, timeoutInfo.timeout, { handleTimeoutException(it) }) {
                     val data = modalLock.withLock { modalMap.remove(internalId) }
                     if (data != null) { //If the timeout was reached without the modal being used
                         if (data.continuations.isNotEmpty()) {
@@ -67,7 +70,7 @@ internal class ModalMaps(context: BContext) {
                 }
             }
 
-            modalMap.put(internalId, ModalData(partialModalData, job))
+            modalMap.put(internalId, ModalData(partialModalData, timeout))
             getModalId(internalId)
         }
     }
@@ -1,9 +1,11 @@
 package io.github.freya022.botcommands.internal.utils
 
 import io.github.freya022.botcommands.internal.ExecutableMixin
+import io.github.freya022.botcommands.internal.core.options.OptionFrameLayout
 import io.github.freya022.botcommands.internal.core.options.OptionImpl
+import io.github.freya022.botcommands.internal.core.options.OptionValues
+import io.github.freya022.botcommands.internal.core.reflection.ParameterMap
 import io.github.freya022.botcommands.internal.core.reflection.buildParameters
-import io.github.freya022.botcommands.internal.parameters.AggregatedParameterMixin
 import io.github.freya022.botcommands.internal.parameters.MethodParameterMixin
 import io.github.freya022.botcommands.internal.utils.ReflectionUtils.function
 import kotlin.reflect.KParameter
@@ -14,14 +16,21 @@ internal enum class InsertOptionResult {
     ABORT
 }
 
-internal inline fun List<AggregatedParameterMixin>.mapOptions(block: MutableMap<OptionImpl, Any?>.(OptionImpl) -> Unit): Map<OptionImpl, Any?> {
-    val options = this.flatMap { it.allOptions }
-    return buildMap(options.size) {
-        options.forEach { block(it) }
+/**
+ * Runs the [block] for each option of this executable, the block inserts the option value in the returned frame.
+ */
+context(ExecutableMixin)
+internal inline fun mapOptions(block: OptionValues.(OptionImpl) -> Unit): OptionValues {
+    val layout = optionFrameLayout
+    val optionValues = OptionValues(layout)
+    layout.options.forEachIndexed { slot, option ->
+        optionValues.currentSlot = slot
+        optionValues.block(option)
     }
+    return optionValues
 }
 
-internal fun tryInsertNullableOption(value: Any?, option: OptionImpl, optionMap: MutableMap<OptionImpl, Any?>): InsertOptionResult {
+internal fun tryInsertNullableOption(value: Any?, option: OptionImpl, optionMap: OptionValues): InsertOptionResult {
     if (value != null) {
         optionMap[option] = value
         return InsertOptionResult.OK
@@ -44,39 +53,41 @@ internal fun tryInsertNullableOption(value: Any?, option: OptionImpl, optionMap:
 }
 
 context(ExecutableMixin)
-internal suspend fun Collection<AggregatedParameterMixin>.mapFinalParameters(
+internal suspend fun mapFinalParameters(
     firstParam: Any,
-    optionValues: Map<out OptionImpl, Any?>
+    optionValues: OptionValues
 ) = buildParameters(eventFunction.kFunction) {
     this[eventFunction.instanceParameter] = instance
     this[eventFunction.firstParameter] = firstParam
 
-    for (parameter in this@mapFinalParameters) {
-        insertAggregate(firstParam, this, optionValues, parameter)
+    for (aggregate in optionFrameLayout.aggregates) {
+        insertAggregate(firstParam, this, optionValues, aggregate)
     }
 }
 
-private suspend fun insertAggregate(firstParam: Any, aggregatedObjects: MutableMap<KParameter, Any?>, optionValues: Map<out OptionImpl, Any?>, parameter: AggregatedParameterMixin) {
+private suspend fun insertAggregate(firstParam: Any, aggregatedObjects: MutableMap<KParameter, Any?>, optionValues: OptionValues, aggregate: OptionFrameLayout.AggregateSlots) {
+    val parameter = aggregate.parameter
     val aggregator = parameter.aggregator
 
     if (aggregator.isSingleAggregator) {
-        val option = parameter.options.first()
+        val slot = aggregate.optionSlots.first()
         //This is necessary to distinguish between null mappings and default mappings
-        if (option in optionValues) {
+        if (optionValues.hasValue(slot)) {
             //No need to check nullabilities, it's already handled when computing option values
-            aggregatedObjects[parameter] = optionValues[option]
+            aggregatedObjects[parameter] = optionValues[slot]
         }
     } else {
-        val aggregatorArguments: MutableMap<KParameter, Any?> = HashMap(aggregator.parametersSize)
-        for (option in parameter.options) {
+        val aggregatorArguments = ParameterMap(aggregator.kFunction)
+        parameter.options.forEachIndexed { i, option ->
+            val slot = aggregate.optionSlots[i]
             //This is necessary to distinguish between null mappings and default mappings
-            if (option in optionValues) {
-                aggregatorArguments[option] = optionValues[option]
+            if (optionValues.hasValue(slot)) {
+                aggregatorArguments[option] = optionValues[slot]
             }
         }
 
-        for (nestedAggregatedParameter in parameter.nestedAggregatedParameters) {
-            insertAggregate(firstParam, aggregatorArguments, optionValues, nestedAggregatedParameter)
+        for (nestedAggregate in aggregate.nestedAggregates) {
+            insertAggregate(firstParam, aggregatorArguments, optionValues, nestedAggregate)
         }
 
         val aggregatedObject = aggregator.aggregate(firstParam, aggregatorArguments)
@@ -14,6 +14,7 @@ import io.github.freya022.botcommands.api.core.utils.*
 import io.github.freya022.botcommands.internal.commands.CommandsPresenceChecker
 import io.github.freya022.botcommands.internal.core.HandlersPresenceChecker
 import io.github.freya022.botcommands.internal.core.service.BotCommandsBootstrap
+import io.github.freya022.botcommands.internal.core.service.ScanIndexes
 import io.github.freya022.botcommands.internal.emojis.AppEmojiContainerProcessor
 import io.github.freya022.botcommands.internal.parameters.resolvers.ResolverSupertypeChecker
 import io.github.freya022.botcommands.internal.utils.ReflectionMetadata.ClassMetadata
@@ -102,40 +103,30 @@ private class ReflectionMetadataScanner private constructor(
         if (classes.isNotEmpty())
             logger.debug { "Scanning classes: ${classes.joinToString { it.simpleNestedName }}" }
 
-        ClassGraph()
-            .acceptPackages(
-                "io.github.freya022.botcommands.api",
-                "io.github.freya022.botcommands.internal",
-                *packages.toTypedArray()
-            )
-            .acceptClasses(*classes.map { it.name }.toTypedArray())
-            .enableClassInfo()
-            .enableMethodInfo()
-            .enableAnnotationInfo()
-            .disableModuleScanning()
-            .scan()
-            .use { scan ->
-                val (libClasses, userClasses) = scan.allClasses.partition { it.isFromLib() }
-                libClasses
-                    .filterLibraryClasses()
-                    .filterClasses()
-                    .processClasses()
-
-                userClasses
-                    .filterClasses()
-                    .also {
-                        if (userClasses.isEmpty()) {
-                            logger.warn { "Found no user classes to scan, check the packages set in ${BConfigBuilder::packages.reference}" }
-                        } else if (logger.isTraceEnabled()) {
-                            logger.trace { "Found ${userClasses.size} user classes: ${userClasses.joinToString { it.simpleNestedName }}" }
-                        } else {
-                            logger.debug { "Found ${userClasses.size} user classes" }
-                        }
+        val scanResult = ScanIndexes.loadReflectionIndex(config)
+            ?: ScanIndexes.createReflectionScan(packages, classes.map { it.name }).scan()
+        scanResult.use { scan ->
+            val (libClasses, userClasses) = scan.allClasses.partition { it.isFromLib() }
+            libClasses
+                .filterLibraryClasses()
+                .filterClasses()
+                .processClasses()
+
+            userClasses
+                .filterClasses()
+                .also {
+                    if (userClasses.isEmpty()) {
+                        logger.warn { "Found no user classes to scan, check the packages set in ${BConfigBuilder::packages.reference}" }
+                    } else if (logger.isTraceEnabled()) {
+                        logger.trace { "Found ${userClasses.size} user classes: ${userClasses.joinToString { it.simpleNestedName }}" }
+                    } else {
+                        logger.debug { "Found ${userClasses.size} user classes" }
                     }
-                    .processClasses()
+                }
+                .processClasses()
 
-                classGraphProcessors.forEach(ClassGraphProcessor::postProcess)
-            }
+            classGraphProcessors.forEach(ClassGraphProcessor::postProcess)
+        }
     }
 
     private fun ClassInfo.isFromLib() =
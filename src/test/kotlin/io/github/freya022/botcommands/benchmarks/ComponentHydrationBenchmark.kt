@@ -0,0 +1,129 @@
+package io.github.freya022.botcommands.benchmarks
+
+import ch.qos.logback.classic.Level
+import ch.qos.logback.classic.LoggerContext
+import io.github.freya022.botcommands.api.components.Buttons
+import io.github.freya022.botcommands.api.core.BContext
+import io.github.freya022.botcommands.api.core.BotCommands
+import io.github.freya022.botcommands.api.core.db.Database
+import io.github.freya022.botcommands.api.core.db.transactional
+import io.github.freya022.botcommands.api.core.service.getService
+import io.github.freya022.botcommands.framework.FakeBot
+import io.github.freya022.botcommands.framework.addH2
+import io.github.freya022.botcommands.internal.components.repositories.ComponentCache
+import io.github.freya022.botcommands.internal.components.repositories.ComponentRepository
+import kotlinx.coroutines.runBlocking
+import org.openjdk.jmh.annotations.*
+import org.openjdk.jmh.infra.Blackhole
+import org.slf4j.LoggerFactory
+import java.util.concurrent.TimeUnit
+import kotlin.time.Duration.Companion.minutes
+
+/**
+ * Compares reading a component from the H2 test database with the single hydration query,
+ * against the per-table queries the repository previously issued.
+ *
+ * The component has a handler and a timeout, and is in a group which also has a timeout,
+ * which previously took 6 queries.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+open class ComponentHydrationBenchmark {
+    private lateinit var database: Database
+    private lateinit var componentRepository: ComponentRepository
+    private lateinit var componentCache: ComponentCache
+    private var componentId: Int = 0
+
+    @Setup
+    fun setup() {
+        (LoggerFactory.getILoggerFactory() as LoggerContext).loggerList.forEach { it.level = Level.WARN }
+
+        val context: BContext = BotCommands.create {
+            disableExceptionsInDMs = true
+
+            addH2()
+            addClass<FakeBot>()
+
+            components {
+                enable = true
+            }
+
+            textCommands {
+                enable = false
+            }
+
+            applicationCommands {
+                enable = false
+            }
+
+            modals {
+                enable = false
+            }
+        }
+
+        database = context.getService()
+        componentRepository = context.getService()
+        componentCache = context.getService()
+
+        val buttons: Buttons = context.getService()
+        runBlocking {
+            val button = buttons.primary("benchmark").ephemeral {
+                bindTo { }
+                timeout(10.minutes) { }
+            }
+            buttons.group(button).ephemeral {
+                timeout(10.minutes) { }
+            }
+            componentId = button.internalId
+        }
+    }
+
+    @Benchmark
+    fun singleQuery(blackhole: Blackhole): Unit = runBlocking {
+        // Read from the database, not from the cache
+        componentCache.invalidate(componentId)
+        blackhole.consume(componentRepository.getComponent(componentId))
+    }
+
+    @Benchmark
+    fun perTableQueries(blackhole: Blackhole): Unit = runBlocking {
+        database.transactional(readOnly = true) {
+            val groupId: Int = preparedStatement(
+                """
+                select lifetime_type, component_type, expires_at, reset_timeout_on_use_duration_ms, one_use, users, roles, permissions, group_id, rate_limit_group, rate_limit_discriminator, filters
+                from bc_component component
+                         left join bc_component_constraints constraints using (component_id)
+                         left join bc_component_component_group componentGroup on componentGroup.component_id = component.component_id
+                where component.component_id = ?""".trimIndent()
+            ) {
+                executeQuery(componentId).read()["group_id"]
+            }
+            preparedStatement("SELECT handler_id FROM bc_ephemeral_handler WHERE component_id = ?") {
+                blackhole.consume(executeQuery(componentId).readOrNull())
+            }
+            preparedStatement("SELECT handler_id FROM bc_ephemeral_timeout WHERE component_id = ?") {
+                blackhole.consume(executeQuery(componentId).readOrNull())
+            }
+
+            // Group
+            preparedStatement(
+                """
+                select lifetime_type, component_type, expires_at, reset_timeout_on_use_duration_ms
+                from bc_component component
+                where component.component_id = ?""".trimIndent()
+            ) {
+                blackhole.consume(executeQuery(groupId).readOrNull())
+            }
+            preparedStatement("SELECT handler_id FROM bc_ephemeral_timeout WHERE component_id = ?") {
+                blackhole.consume(executeQuery(groupId).readOrNull())
+            }
+            preparedStatement("select component_id from bc_component_component_group where group_id = ?") {
+                blackhole.consume(executeQuery(groupId).map { it.getInt("component_id") })
+            }
+        }
+    }
+}
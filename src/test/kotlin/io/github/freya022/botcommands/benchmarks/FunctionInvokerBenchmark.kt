@@ -0,0 +1,86 @@
+package io.github.freya022.botcommands.benchmarks
+
+import io.github.freya022.botcommands.internal.core.reflection.FunctionInvoker
+import io.github.freya022.botcommands.internal.core.reflection.ParameterMap
+import org.openjdk.jmh.annotations.*
+import org.openjdk.jmh.infra.Blackhole
+import java.util.concurrent.TimeUnit
+import kotlin.coroutines.Continuation
+import kotlin.coroutines.EmptyCoroutineContext
+import kotlin.coroutines.startCoroutine
+import kotlin.reflect.KFunction
+import kotlin.reflect.KParameter
+import kotlin.reflect.full.callSuspendBy
+
+/**
+ * Compares the per-invocation overhead of calling handler functions with [FunctionInvoker],
+ * against [KFunction.callSuspendBy], which was used previously.
+ *
+ * The arguments are built once, the functions never suspend,
+ * and are started without a dispatcher, so only the calls are measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+open class FunctionInvokerBenchmark {
+    class Handler {
+        fun onBlocking(event: String, count: Int, name: String?, id: Long): Int = count
+
+        suspend fun onSuspending(event: String, count: Int, name: String?, id: Long): Int = count
+    }
+
+    private val handler = Handler()
+    private val blockingFunction: KFunction<Int> = Handler::onBlocking
+    private val suspendingFunction: KFunction<Int> = Handler::onSuspending
+
+    private lateinit var blockingInvoker: FunctionInvoker
+    private lateinit var blockingArguments: Map<KParameter, Any?>
+    private lateinit var blockingParameterMap: ParameterMap
+
+    private lateinit var suspendingInvoker: FunctionInvoker
+    private lateinit var suspendingArguments: Map<KParameter, Any?>
+    private lateinit var suspendingParameterMap: ParameterMap
+
+    @Setup
+    fun setup() {
+        blockingInvoker = FunctionInvoker(blockingFunction)
+        blockingArguments = createArguments(blockingFunction)
+        blockingParameterMap = ParameterMap(blockingFunction).apply { putAll(blockingArguments) }
+
+        suspendingInvoker = FunctionInvoker(suspendingFunction)
+        suspendingArguments = createArguments(suspendingFunction)
+        suspendingParameterMap = ParameterMap(suspendingFunction).apply { putAll(suspendingArguments) }
+    }
+
+    private fun createArguments(function: KFunction<*>): Map<KParameter, Any?> {
+        val values = listOf(handler, "event", 42, "name", 1234L)
+        return function.parameters.associateWith { values[it.index] }
+    }
+
+    @Benchmark
+    fun reflectionBlocking(blackhole: Blackhole) = startCall(blackhole) {
+        blockingFunction.callSuspendBy(blockingArguments)
+    }
+
+    @Benchmark
+    fun invokerBlocking(blackhole: Blackhole) = startCall(blackhole) {
+        blockingInvoker.callSuspendBy(blockingParameterMap)
+    }
+
+    @Benchmark
+    fun reflectionSuspending(blackhole: Blackhole) = startCall(blackhole) {
+        suspendingFunction.callSuspendBy(suspendingArguments)
+    }
+
+    @Benchmark
+    fun invokerSuspending(blackhole: Blackhole) = startCall(blackhole) {
+        suspendingInvoker.callSuspendBy(suspendingParameterMap)
+    }
+
+    private fun startCall(blackhole: Blackhole, block: suspend () -> Any?) {
+        block.startCoroutine(Continuation(EmptyCoroutineContext) { blackhole.consume(it.getOrThrow()) })
+    }
+}
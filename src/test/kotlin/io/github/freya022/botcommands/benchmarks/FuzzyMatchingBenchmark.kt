@@ -0,0 +1,55 @@
+package io.github.freya022.botcommands.benchmarks
+
+import io.github.freya022.botcommands.api.commands.application.slash.autocomplete.AutocompleteAlgorithms
+import io.github.freya022.botcommands.api.commands.application.slash.autocomplete.FuzzyResult
+import org.openjdk.jmh.annotations.*
+import java.util.concurrent.TimeUnit
+import kotlin.random.Random
+
+/**
+ * Compares sequential and parallel top-K fuzzy matching, for collections of 100 to 1M items,
+ * by setting the [parallelism threshold][AutocompleteAlgorithms.parallelismThreshold] to always or never split the work.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+open class FuzzyMatchingBenchmark {
+    @Param("100", "1000", "10000", "100000", "1000000")
+    @JvmField
+    var itemCount: Int = 0
+
+    @Param("true", "false")
+    @JvmField
+    var parallel: Boolean = false
+
+    private lateinit var items: List<String>
+    private var previousThreshold: Int = 0
+
+    @Setup
+    fun setup() {
+        val random = Random(42)
+        items = List(itemCount) {
+            val length = random.nextInt(2, 12)
+            String(CharArray(length) { "abcdeABCDE _".random(random) })
+        }
+
+        previousThreshold = AutocompleteAlgorithms.parallelismThreshold
+        AutocompleteAlgorithms.parallelismThreshold = if (parallel) 0 else Int.MAX_VALUE
+    }
+
+    @TearDown
+    fun tearDown() {
+        AutocompleteAlgorithms.parallelismThreshold = previousThreshold
+    }
+
+    @Benchmark
+    fun fuzzyMatching(): List<FuzzyResult<String>> =
+        AutocompleteAlgorithms.fuzzyMatching(items, { it }, "b De", limit = 25)
+
+    @Benchmark
+    fun fuzzyMatchingWithContinuity(): List<FuzzyResult<String>> =
+        AutocompleteAlgorithms.fuzzyMatchingWithContinuity(items, { it }, "b", limit = 25)
+}
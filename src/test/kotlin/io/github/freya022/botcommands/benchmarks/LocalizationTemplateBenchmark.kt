@@ -0,0 +1,105 @@
+package io.github.freya022.botcommands.benchmarks
+
+import io.github.freya022.botcommands.api.core.BContext
+import io.github.freya022.botcommands.api.localization.DefaultLocalizationTemplate
+import io.github.freya022.botcommands.api.localization.Localization
+import io.github.freya022.botcommands.api.localization.arguments.factories.FormattableArgumentFactory
+import io.github.freya022.botcommands.api.localization.arguments.factories.MessageFormatArgumentFactory
+import io.mockk.every
+import io.mockk.mockk
+import org.openjdk.jmh.annotations.*
+import org.openjdk.jmh.infra.Blackhole
+import java.text.MessageFormat
+import java.util.*
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.locks.ReentrantLock
+import kotlin.concurrent.withLock
+
+/**
+ * Compares localizing DefaultMessages-style templates from 16 threads with [DefaultLocalizationTemplate],
+ * against [LockedTemplate], which works as templates previously did.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(16)
+@Fork(1)
+open class LocalizationTemplateBenchmark {
+    /**
+     * Each argument formats with a single [MessageFormat] guarded by a lock,
+     * the value of each argument is searched in the passed entries, and the parts are joined with [joinToString].
+     */
+    private class LockedTemplate(template: String, locale: Locale) {
+        private class Argument(val argumentName: String, formatter: String, locale: Locale) {
+            private val lock = ReentrantLock()
+            private val formatter = MessageFormat(formatter, locale)
+
+            fun format(obj: Any): String = lock.withLock { formatter.format(arrayOf(obj)) }
+        }
+
+        private val parts: List<Any>
+
+        init {
+            val parts = arrayListOf<Any>()
+            var start = 0
+            argumentRegex.findAll(template).forEach { argumentMatch ->
+                parts += template.substring(start, argumentMatch.range.first)
+                val (formatterName, formatterFormat) = formatterRegex.matchEntire(argumentMatch.groupValues[1])!!.destructured
+                parts += Argument(formatterName, "{0$formatterFormat}", locale)
+                start = argumentMatch.range.last + 1
+            }
+            parts += template.substring(start)
+            this.parts = parts
+        }
+
+        fun localize(vararg args: Localization.Entry): String = parts.joinToString("") { part ->
+            when (part) {
+                is Argument -> part.format(args.first { it.argumentName == part.argumentName }.value)
+                else -> part as String
+            }
+        }
+
+        private companion object {
+            private val argumentRegex = Regex("""\{(.*?)}""")
+            private val formatterRegex = Regex("""(\w+)(,?.*?)""")
+        }
+    }
+
+    private val context: BContext = mockk {
+        every { serviceContainer.getInterfacedServices(FormattableArgumentFactory::class) } returns listOf(MessageFormatArgumentFactory())
+    }
+
+    private val rateLimitTemplate = "You will be able to use this, in this guild, {delay}"
+    private val rateLimitArgs = arrayOf(Localization.Entry("delay", "in 5 seconds"))
+
+    private val statusTemplate = "There are {user_amount} {user_amount, choice, 0#users|1#user|1<users} and my up-time is {uptime, number} seconds"
+    private val statusArgs = arrayOf(Localization.Entry("uptime", 123456), Localization.Entry("user_amount", 42))
+
+    private lateinit var rateLimit: DefaultLocalizationTemplate
+    private lateinit var status: DefaultLocalizationTemplate
+    private lateinit var lockedRateLimit: LockedTemplate
+    private lateinit var lockedStatus: LockedTemplate
+
+    @Setup
+    fun setup() {
+        // Mocks are only used when creating the templates
+        rateLimit = DefaultLocalizationTemplate(context, rateLimitTemplate, Locale.ENGLISH)
+        status = DefaultLocalizationTemplate(context, statusTemplate, Locale.ENGLISH)
+        lockedRateLimit = LockedTemplate(rateLimitTemplate, Locale.ENGLISH)
+        lockedStatus = LockedTemplate(statusTemplate, Locale.ENGLISH)
+    }
+
+    @Benchmark
+    fun compiledTemplates(blackhole: Blackhole) {
+        blackhole.consume(rateLimit.localize(*rateLimitArgs))
+        blackhole.consume(status.localize(*statusArgs))
+    }
+
+    @Benchmark
+    fun lockedTemplates(blackhole: Blackhole) {
+        blackhole.consume(lockedRateLimit.localize(*rateLimitArgs))
+        blackhole.consume(lockedStatus.localize(*statusArgs))
+    }
+}
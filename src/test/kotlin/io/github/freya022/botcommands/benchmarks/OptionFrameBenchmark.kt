@@ -0,0 +1,137 @@
+package io.github.freya022.botcommands.benchmarks
+
+import io.github.freya022.botcommands.internal.core.options.OptionFrameLayout
+import io.github.freya022.botcommands.internal.core.options.OptionImpl
+import io.github.freya022.botcommands.internal.core.options.OptionValues
+import io.github.freya022.botcommands.internal.core.reflection.ParameterMap
+import io.github.freya022.botcommands.internal.parameters.AggregatedParameterMixin
+import io.mockk.every
+import io.mockk.mockk
+import org.openjdk.jmh.annotations.*
+import org.openjdk.jmh.infra.Blackhole
+import java.util.concurrent.TimeUnit
+import kotlin.reflect.KFunction
+import kotlin.reflect.KParameter
+
+/**
+ * Compares resolving the options of a command into an [OptionValues] frame,
+ * against collecting them in maps keyed by option, as was done previously.
+ *
+ * The command has 4 single options, and an aggregate of 3 options.
+ * Run with `-prof gc` to get the allocations per invocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+open class OptionFrameBenchmark {
+    class Command {
+        fun onCommand(event: String, a: Int, b: String, c: Long, d: Double, aggregate: Any) {}
+
+        fun aggregate(event: String, x: Int, y: Int, z: Int): Any = x + y + z
+    }
+
+    /**
+     * Stand-in for an aggregated parameter before frames were used,
+     * options only need to be compared by identity, as [OptionImpl] does.
+     */
+    private class MapParameter(val options: List<Any>, val executableParameter: KParameter, val aggregatorParameters: List<KParameter>?) {
+        // Same allocations as AggregatedParameterMixin#allOptions, without nested aggregates
+        val allOptions: List<Any>
+            get() = options + emptyList<MapParameter>().flatMap { it.allOptions }
+    }
+
+    private val instance = Command()
+    private val event = "event"
+    private val optionValues: List<Any> = listOf(1, "b", 3L, 4.0, 5, 6, 7)
+    private val commandFunction: KFunction<*> = Command::onCommand
+    private val aggregatorFunction: KFunction<*> = Command::aggregate
+
+    private lateinit var commandParameters: List<KParameter>
+    private lateinit var layout: OptionFrameLayout
+    // Parameter of the function receiving the value of each aggregate, in the same order as the layout
+    private lateinit var aggregateParameters: List<KParameter>
+    private lateinit var aggregatorParameters: List<KParameter>
+
+    private lateinit var mapParameters: List<MapParameter>
+
+    @Setup
+    fun setup() {
+        commandParameters = commandFunction.parameters
+        aggregatorParameters = aggregatorFunction.parameters
+
+        // Mocks are only used when creating the layout
+        val options = List(optionValues.size) { mockk<OptionImpl>() }
+        fun aggregatedParameter(options: List<OptionImpl>): AggregatedParameterMixin = mockk {
+            every { this@mockk.options } returns options
+            every { nestedAggregatedParameters } returns emptyList()
+        }
+        layout = OptionFrameLayout(options.take(4).map { aggregatedParameter(listOf(it)) } + aggregatedParameter(options.drop(4)))
+        aggregateParameters = commandParameters.drop(2)
+
+        val optionKeys = List(optionValues.size) { Any() }
+        mapParameters = optionKeys.take(4).mapIndexed { i, key -> MapParameter(listOf(key), commandParameters[i + 2], null) } +
+                MapParameter(optionKeys.drop(4), commandParameters.last(), aggregatorParameters.drop(2))
+    }
+
+    @Benchmark
+    fun optionFrame(blackhole: Blackhole) {
+        val values = OptionValues(layout)
+        layout.options.forEachIndexed { slot, option ->
+            values.currentSlot = slot
+            values[option] = optionValues[slot]
+        }
+
+        val arguments = ParameterMap(commandFunction)
+        arguments[commandParameters[0]] = instance
+        arguments[commandParameters[1]] = event
+        layout.aggregates.forEachIndexed { i, aggregate ->
+            val optionSlots = aggregate.optionSlots
+            if (optionSlots.size == 1) {
+                val slot = optionSlots[0]
+                if (values.hasValue(slot))
+                    arguments[aggregateParameters[i]] = values[slot]
+            } else {
+                val aggregatorArguments = ParameterMap(aggregatorFunction)
+                optionSlots.forEachIndexed { j, slot ->
+                    if (values.hasValue(slot))
+                        aggregatorArguments[aggregatorParameters[j + 2]] = values[slot]
+                }
+                blackhole.consume(aggregatorArguments)
+                arguments[aggregateParameters[i]] = 18
+            }
+        }
+        blackhole.consume(arguments)
+    }
+
+    @Benchmark
+    fun optionMaps(blackhole: Blackhole) {
+        val options = mapParameters.flatMap { it.allOptions }
+        val values: Map<Any, Any?> = buildMap(options.size) {
+            options.forEachIndexed { i, option -> this[option] = optionValues[i] }
+        }
+
+        val arguments = ParameterMap(commandFunction)
+        arguments[commandParameters[0]] = instance
+        arguments[commandParameters[1]] = event
+        for (parameter in mapParameters) {
+            val aggregatorParameters = parameter.aggregatorParameters
+            if (aggregatorParameters == null) {
+                val option = parameter.options.first()
+                if (option in values)
+                    arguments[parameter.executableParameter] = values[option]
+            } else {
+                val aggregatorArguments: MutableMap<KParameter, Any?> = HashMap(this.aggregatorParameters.size)
+                parameter.options.forEachIndexed { j, option ->
+                    if (option in values)
+                        aggregatorArguments[aggregatorParameters[j]] = values[option]
+                }
+                blackhole.consume(aggregatorArguments)
+                arguments[parameter.executableParameter] = 18
+            }
+        }
+        blackhole.consume(arguments)
+    }
+}
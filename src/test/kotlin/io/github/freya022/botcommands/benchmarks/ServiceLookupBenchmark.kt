@@ -0,0 +1,71 @@
+package io.github.freya022.botcommands.benchmarks
+
+import ch.qos.logback.classic.Level
+import ch.qos.logback.classic.LoggerContext
+import io.github.freya022.botcommands.api.core.BotCommands
+import io.github.freya022.botcommands.api.core.service.ServiceContainer
+import io.github.freya022.botcommands.api.core.service.getService
+import io.github.freya022.botcommands.api.localization.DefaultMessagesFactory
+import io.github.freya022.botcommands.framework.FakeBot
+import org.openjdk.jmh.annotations.*
+import org.slf4j.LoggerFactory
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.locks.ReentrantLock
+import kotlin.concurrent.withLock
+
+/**
+ * Compares concurrent lookups of an already created service, as done by command options,
+ * against the same lookups serialized by a global lock, as the service container previously did on every lookup.
+ *
+ * The locked lookups are a lower bound of the previous cost,
+ * as the provider was also resolved while holding the lock.
+ *
+ * Use `-t` to change the number of threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+open class ServiceLookupBenchmark {
+    private val lock = ReentrantLock()
+    private lateinit var serviceContainer: ServiceContainer
+
+    @Setup
+    fun setup() {
+        (LoggerFactory.getILoggerFactory() as LoggerContext).loggerList.forEach { it.level = Level.WARN }
+
+        val context = BotCommands.create {
+            disableExceptionsInDMs = true
+
+            addClass<FakeBot>()
+
+            textCommands {
+                enable = false
+            }
+
+            components {
+                enable = false
+            }
+
+            applicationCommands {
+                enable = false
+            }
+
+            modals {
+                enable = false
+            }
+        }
+        serviceContainer = context.serviceContainer
+        // Create the service
+        serviceContainer.getService<DefaultMessagesFactory>()
+    }
+
+    @Benchmark
+    fun lockFreeLookup(): DefaultMessagesFactory = serviceContainer.getService<DefaultMessagesFactory>()
+
+    @Benchmark
+    fun lockedLookup(): DefaultMessagesFactory = lock.withLock { serviceContainer.getService<DefaultMessagesFactory>() }
+}
@@ -0,0 +1,131 @@
+package io.github.freya022.botcommands.benchmarks
+
+import ch.qos.logback.classic.Level
+import ch.qos.logback.classic.LoggerContext
+import io.github.freya022.botcommands.api.commands.annotations.Command
+import io.github.freya022.botcommands.api.commands.text.BaseCommandEvent
+import io.github.freya022.botcommands.api.commands.text.TextCommand
+import io.github.freya022.botcommands.api.commands.text.provider.TextCommandManager
+import io.github.freya022.botcommands.api.commands.text.provider.TextCommandProvider
+import io.github.freya022.botcommands.api.core.BotCommands
+import io.github.freya022.botcommands.api.core.service.getService
+import io.github.freya022.botcommands.framework.FakeBot
+import io.github.freya022.botcommands.internal.commands.text.TextCommandInfoImpl
+import io.github.freya022.botcommands.internal.commands.text.TextCommandsBuilder
+import io.github.freya022.botcommands.internal.commands.text.TextCommandsContextImpl
+import io.github.freya022.botcommands.internal.commands.text.findCommandWithArgs
+import io.github.freya022.botcommands.internal.core.BContextImpl
+import org.openjdk.jmh.annotations.*
+import org.openjdk.jmh.infra.Blackhole
+import org.slf4j.LoggerFactory
+import java.util.concurrent.TimeUnit
+
+@Command
+class BenchmarkTextCommands : TextCommand(), TextCommandProvider {
+    fun onCommand(event: BaseCommandEvent) {}
+
+    // 40 commands, each with an alias, 5 subcommands and 3 subcommands per subcommand
+    override fun declareTextCommands(manager: TextCommandManager) {
+        repeat(40) { i ->
+            manager.textCommand("command$i") {
+                aliases.add("c$i")
+                variation(::onCommand)
+
+                repeat(5) { j ->
+                    subcommand("sub$j") {
+                        variation(::onCommand)
+
+                        repeat(3) { k ->
+                            subcommand("leaf$k") {
+                                variation(::onCommand)
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
+
+/**
+ * Compares finding the text command of a message by walking the command tree word by word,
+ * against splitting the message with a regex, and looking up each path from the root, as was done previously.
+ *
+ * The commands are built by the framework, see [BenchmarkTextCommands].
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+open class TextCommandFinderBenchmark {
+    private val spacePattern = Regex("\\s+")
+    private val messages = listOf(
+        "command7 some argument text",
+        "c12 sub3 leaf1 first second",
+        "command30  sub4 123456789 reason with  several words",
+        "command19 sub0",
+        "unknown command",
+    )
+
+    private lateinit var textCommandsContext: TextCommandsContextImpl
+
+    @Setup
+    fun setup() {
+        (LoggerFactory.getILoggerFactory() as LoggerContext).loggerList.forEach { it.level = Level.WARN }
+
+        val context = BotCommands.create {
+            disableExceptionsInDMs = true
+
+            addClass<FakeBot>()
+            addClass<BenchmarkTextCommands>()
+
+            textCommands {
+                enable = true
+            }
+
+            components {
+                enable = false
+            }
+
+            applicationCommands {
+                enable = false
+            }
+
+            modals {
+                enable = false
+            }
+        }
+
+        // Makes sure the commands are registered
+        context.getService<TextCommandsBuilder>()
+        textCommandsContext = (context as BContextImpl).textCommandsContext
+    }
+
+    @Benchmark
+    fun commandTreeWalk(blackhole: Blackhole) {
+        for (message in messages) {
+            blackhole.consume(findCommandWithArgs(textCommandsContext.rootCommandsByName, message, isNotOwner = true))
+        }
+    }
+
+    @Benchmark
+    fun regexSplitAndPathLookups(blackhole: Blackhole) {
+        for (message in messages) {
+            val words: List<String> = spacePattern.split(message)
+            var commandInfo: TextCommandInfoImpl? = null
+            for (index in words.indices) {
+                val info = textCommandsContext.findTextCommand(words.subList(0, index + 1)) ?: break
+                if (info.hidden) continue
+                commandInfo = info
+            }
+
+            val args = commandInfo?.let {
+                (0..<it.path.nameCount).fold(message) { acc, i -> acc.substringAfter(words[i]) }.trimStart()
+            }
+            blackhole.consume(commandInfo)
+            blackhole.consume(args)
+        }
+    }
+}
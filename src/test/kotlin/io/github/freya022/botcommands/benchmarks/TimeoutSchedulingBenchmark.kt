@@ -0,0 +1,67 @@
+package io.github.freya022.botcommands.benchmarks
+
+import io.github.freya022.botcommands.internal.core.timeout.TimeoutWheel
+import kotlinx.coroutines.*
+import org.openjdk.jmh.annotations.*
+import java.util.concurrent.TimeUnit
+import kotlin.time.Duration.Companion.minutes
+
+/**
+ * Compares scheduling a million timeouts on the [TimeoutWheel],
+ * against launching one delayed coroutine per timeout, as was done previously.
+ *
+ * The timeouts are cancelled after each invocation, without being measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+open class TimeoutSchedulingBenchmark {
+    @Param("1000000")
+    @JvmField
+    var timeoutCount: Int = 0
+
+    private lateinit var wheel: TimeoutWheel
+    private lateinit var scope: CoroutineScope
+
+    private val wheelTimeouts: MutableList<TimeoutWheel.WheelTimeout> = arrayListOf()
+    private val jobs: MutableMap<Int, Job> = hashMapOf()
+
+    @Setup
+    fun setup() {
+        wheel = TimeoutWheel("Benchmark wheel")
+        scope = CoroutineScope(SupervisorJob() + Dispatchers.Default)
+    }
+
+    @TearDown
+    fun tearDown() {
+        wheel.stop()
+        scope.cancel()
+    }
+
+    @TearDown(Level.Invocation)
+    fun cancelTimeouts() {
+        wheelTimeouts.forEach { it.cancel() }
+        wheelTimeouts.clear()
+        jobs.values.forEach { it.cancel() }
+        jobs.clear()
+    }
+
+    @Benchmark
+    fun timeoutWheel() {
+        repeat(timeoutCount) {
+            wheelTimeouts += wheel.schedule(10.minutes) { }
+        }
+    }
+
+    @Benchmark
+    fun delayedCoroutines() {
+        repeat(timeoutCount) { id ->
+            jobs[id] = scope.launch {
+                delay(10.minutes)
+            }
+        }
+    }
+}
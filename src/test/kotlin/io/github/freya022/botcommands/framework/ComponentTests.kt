@@ -4,24 +4,41 @@ import ch.qos.logback.classic.ClassicConstants
 import ch.qos.logback.classic.Level
 import ch.qos.logback.classic.LoggerContext
 import io.github.freya022.botcommands.api.components.Buttons
+import io.github.freya022.botcommands.api.components.ComponentInteractionFilter
 import io.github.freya022.botcommands.api.core.BContext
 import io.github.freya022.botcommands.api.core.BotCommands
+import io.github.freya022.botcommands.api.core.db.Database
+import io.github.freya022.botcommands.api.core.db.preparedStatement
 import io.github.freya022.botcommands.api.core.service.getService
+import io.github.freya022.botcommands.internal.components.ComponentType
 import io.github.freya022.botcommands.internal.components.controller.ComponentController
+import io.github.freya022.botcommands.internal.components.data.ComponentData
+import io.github.freya022.botcommands.internal.components.data.ComponentGroupData
+import io.github.freya022.botcommands.internal.components.data.EphemeralComponentData
+import io.github.freya022.botcommands.internal.components.data.PersistentComponentData
+import io.github.freya022.botcommands.internal.components.data.timeout.EphemeralTimeout
+import io.github.freya022.botcommands.internal.components.repositories.ComponentCache
+import io.github.freya022.botcommands.internal.components.repositories.ComponentRepository
 import io.github.freya022.botcommands.test.config.Environment
 import io.github.freya022.botcommands.test.config.db.H2DatabaseSource
 import kotlinx.coroutines.runBlocking
-import org.junit.jupiter.api.Assertions.assertNull
+import kotlinx.datetime.Clock
+import org.junit.jupiter.api.Assertions.*
 import org.junit.jupiter.api.BeforeAll
 import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
 import org.slf4j.LoggerFactory
 import kotlin.io.path.absolutePathString
+import kotlin.time.Duration.Companion.minutes
 
 object ComponentTests {
     private lateinit var context: BContext
 
     private val buttons: Buttons by lazy { context.getService() }
     private val componentController: ComponentController by lazy { context.getService() }
+    private val componentRepository: ComponentRepository by lazy { context.getService() }
+    private val componentCache: ComponentCache by lazy { context.getService() }
+    private val database: Database by lazy { context.getService() }
 
     @JvmStatic
     @BeforeAll
@@ -74,4 +91,94 @@ object ComponentTests {
         assertNull(componentController.getActiveComponent(group.internalId))
         assertNull(componentController.getActiveComponent(button.internalId))
     }
-}
\ No newline at end of file
+
+    @Test
+    fun `Persistent component is read back from the database`(): Unit = runBlocking {
+        val button = buttons.primary("test").persistent {
+            singleUse = true
+            timeout(10.minutes)
+        }
+
+        val component = fetchComponent(button.internalId) as PersistentComponentData
+        assertEquals(ComponentType.BUTTON, component.componentType)
+        assertTrue(component.singleUse)
+        assertNull(component.handler)
+        assertNull(component.timeout)
+        assertNull(component.group)
+        val expiresAt = component.expiresAt!!
+        assertTrue(expiresAt > Clock.System.now() + 9.minutes)
+    }
+
+    @Test
+    fun `Ephemeral component timeout is read back from the database`(): Unit = runBlocking {
+        val button = buttons.primary("test").ephemeral {
+            bindTo { }
+            timeout(10.minutes) { }
+        }
+
+        val component = fetchComponent(button.internalId) as EphemeralComponentData
+        assertNotNull(component.handler)
+        assertInstanceOf(EphemeralTimeout::class.java, component.timeout)
+        assertNotNull(component.expiresAt)
+    }
+
+    @Test
+    fun `Group and its components are read back from the database`(): Unit = runBlocking {
+        val first = buttons.primary("first").persistent { }
+        val second = buttons.primary("second").persistent { }
+        val group = buttons.group(first, second).ephemeral {
+            timeout(10.minutes) { }
+        }
+
+        val groupData = fetchComponent(group.internalId) as ComponentGroupData
+        assertEquals(setOf(group.internalId, first.internalId, second.internalId), groupData.componentIds.toSet())
+        assertInstanceOf(EphemeralTimeout::class.java, groupData.timeout)
+
+        val component = fetchComponent(first.internalId) as PersistentComponentData
+        assertEquals(group.internalId, component.group?.internalId)
+        assertEquals(groupData.componentIds.toSet(), component.group?.componentIds?.toSet())
+    }
+
+    @Test
+    fun `Group without members is read back from the database`(): Unit = runBlocking {
+        val button = buttons.primary("test").persistent { }
+        val group = buttons.group(button).persistent { }
+
+        database.preparedStatement("delete from bc_component_component_group where group_id = ?") {
+            executeUpdate(group.internalId)
+        }
+
+        val groupData = fetchComponent(group.internalId) as ComponentGroupData
+        assertEquals(emptyList<Int>(), groupData.componentIds)
+    }
+
+    @Test
+    fun `Failed batch does not mark builders as built`() {
+        val valid = buttons.primary("valid").persistent()
+        val invalid = buttons.primary("invalid").persistent()
+            .addFilter(object : ComponentInteractionFilter<String> {
+                override val global: Boolean = false
+            })
+
+        assertThrows<IllegalArgumentException> { buttons.buildAllJava(listOf(valid, invalid)) }
+
+        val button = buttons.buildAllJava(listOf(valid)).single()
+        assertNotNull(runBlocking { componentController.getActiveComponent(button.internalId) })
+        assertThrows<IllegalStateException> { buttons.buildAllJava(listOf(valid)) }
+    }
+
+    @Test
+    fun `Builder cannot be batched more than once`() {
+        val builder = buttons.primary("test").ephemeral()
+
+        assertThrows<IllegalStateException> { buttons.buildAllJava(listOf(builder, builder)) }
+        // Still buildable
+        builder.build()
+    }
+
+    private suspend fun fetchComponent(id: Int): ComponentData {
+        // Read from the database, not from the cache
+        componentCache.invalidate(id)
+        return componentRepository.getComponent(id)!!
+    }
+}
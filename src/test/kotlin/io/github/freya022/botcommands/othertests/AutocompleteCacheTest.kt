@@ -0,0 +1,110 @@
+package io.github.freya022.botcommands.othertests
+
+import io.github.freya022.botcommands.internal.commands.application.slash.autocomplete.builder.AutocompleteCacheInfoBuilderImpl
+import io.github.freya022.botcommands.internal.commands.application.slash.autocomplete.caches.ConstantByKeyAutocompleteCache
+import io.github.freya022.botcommands.internal.commands.application.slash.autocomplete.caches.RefreshAheadAutocompleteCache
+import io.mockk.every
+import io.mockk.mockk
+import kotlinx.coroutines.*
+import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent
+import net.dv8tion.jda.api.interactions.commands.Command
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Test
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.time.Duration.Companion.milliseconds
+import kotlin.time.Duration.Companion.seconds
+
+object AutocompleteCacheTest {
+    private const val USERS = 100
+    // Only reached if a computation never gets released
+    private val testTimeout = 10.seconds
+
+    @Test
+    fun `Identical keys share a computation`() = runBlocking(Dispatchers.Default) {
+        val cache = ConstantByKeyAutocompleteCache(AutocompleteCacheInfoBuilderImpl().build())
+        val computations = AtomicInteger()
+        val computationStarted = CompletableDeferred<Unit>()
+        val release = CompletableDeferred<Unit>()
+
+        val users = (0..<USERS).map {
+            async {
+                cache.retrieveAndCall(mockk(), createEvent("same")) {
+                    computations.incrementAndGet()
+                    computationStarted.complete(Unit)
+                    release.await()
+                    listOf(Command.Choice("same", "same"))
+                }
+            }
+        }
+
+        withTimeout(testTimeout) {
+            computationStarted.await()
+            release.complete(Unit)
+            users.awaitAll()
+        }
+        assertEquals(1, computations.get())
+    }
+
+    @Test
+    fun `Different keys compute in parallel`() = runBlocking(Dispatchers.Default) {
+        val cache = ConstantByKeyAutocompleteCache(AutocompleteCacheInfoBuilderImpl().build())
+        val computations = AtomicInteger()
+        // Only completes once every computation runs at the same time
+        val allComputing = CompletableDeferred<Unit>()
+
+        withTimeout(testTimeout) {
+            (0..<USERS).map { user ->
+                async {
+                    cache.retrieveAndCall(mockk(), createEvent("input $user")) {
+                        if (computations.incrementAndGet() == USERS)
+                            allComputing.complete(Unit)
+                        allComputing.await()
+                        listOf(Command.Choice("input $user", "input $user"))
+                    }
+                }
+            }.awaitAll()
+        }
+        assertEquals(USERS, computations.get())
+    }
+
+    @Test
+    fun `Stale choices are returned while refreshing`() = runBlocking(Dispatchers.Default) {
+        val cacheInfo = AutocompleteCacheInfoBuilderImpl().apply { refreshAfterWrite = 100.milliseconds }.build()
+        val cache = RefreshAheadAutocompleteCache(cacheInfo, this)
+        val computations = AtomicInteger()
+        val releaseRefresh = CompletableDeferred<Unit>()
+        val valueComputer: suspend (CommandAutoCompleteInteractionEvent) -> List<Command.Choice> = {
+            val computation = computations.incrementAndGet()
+            if (computation > 1) releaseRefresh.await()
+            listOf(Command.Choice("computation", computation.toLong()))
+        }
+
+        val event = createEvent("input")
+        val firstChoices = cache.retrieveAndCall(mockk(), event, valueComputer)
+        // Let the entry become eligible for a refresh
+        delay(150.milliseconds)
+
+        // Stale, but returned while the refresh is still blocked
+        val staleChoices = withTimeout(testTimeout) { cache.retrieveAndCall(mockk(), event, valueComputer) }
+        assertEquals(firstChoices, staleChoices)
+
+        releaseRefresh.complete(Unit)
+        val refreshedChoices = withTimeout(testTimeout) {
+            var choices: List<Command.Choice>
+            do {
+                yield()
+                choices = cache.retrieveAndCall(mockk(), event, valueComputer)
+            } while (choices == firstChoices)
+            choices
+        }
+        assertEquals(listOf(Command.Choice("computation", 2L)), refreshedChoices)
+    }
+
+    private fun createEvent(input: String): CommandAutoCompleteInteractionEvent = mockk {
+        every { name } returns "command"
+        every { subcommandGroup } returns null
+        every { subcommandName } returns null
+        every { focusedOption.value } returns input
+        every { focusedOption.name } returns "option"
+    }
+}
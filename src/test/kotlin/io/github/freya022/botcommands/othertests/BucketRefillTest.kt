@@ -0,0 +1,36 @@
+package io.github.freya022.botcommands.othertests
+
+import io.github.bucket4j.Bandwidth
+import io.github.bucket4j.BucketConfiguration
+import io.github.freya022.botcommands.api.commands.ratelimit.bucket.getNanosToFullRefill
+import io.github.freya022.botcommands.api.core.utils.refillGreedy
+import io.github.freya022.botcommands.api.core.utils.refillIntervally
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Test
+import kotlin.time.Duration.Companion.hours
+import kotlin.time.Duration.Companion.minutes
+import kotlin.time.Duration.Companion.seconds
+
+object BucketRefillTest {
+    @Test
+    fun `Full refill uses the slowest bandwidth`() {
+        val configuration = BucketConfiguration.builder()
+            // 10 tokens, 2 every 5 seconds => 25 seconds
+            .addLimit(Bandwidth.builder().capacity(10).refillGreedy(2, 5.seconds).build())
+            // 3 tokens, 1 per minute => 3 minutes
+            .addLimit(Bandwidth.builder().capacity(3).refillIntervally(1, 1.minutes).build())
+            .build()
+
+        assertEquals(3.minutes.inWholeNanoseconds, configuration.getNanosToFullRefill())
+    }
+
+    @Test
+    fun `Partial refills are rounded up`() {
+        val configuration = BucketConfiguration.builder()
+            // 5 tokens, 2 per hour => 3 hours
+            .addLimit(Bandwidth.builder().capacity(5).refillGreedy(2, 1.hours).build())
+            .build()
+
+        assertEquals(3.hours.inWholeNanoseconds, configuration.getNanosToFullRefill())
+    }
+}
@@ -0,0 +1,36 @@
+package io.github.freya022.botcommands.othertests
+
+import io.github.freya022.botcommands.api.components.IdentifiableComponent
+import io.github.freya022.botcommands.internal.components.controller.ComponentController
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+
+object ComponentIdTest {
+    @Test
+    fun `Database component ID is read back`() {
+        val componentId = ComponentController.getComponentId(42)
+
+        assertEquals("BotCommands-Components-42", componentId)
+        assertEquals(42, ComponentController.parseComponentIdOrNull(componentId))
+    }
+
+    @Test
+    fun `In-memory component ID is read back`() {
+        val componentId = ComponentController.getComponentId(-42)
+
+        assertEquals(-42, ComponentController.parseComponentIdOrNull(componentId))
+        assertEquals(-42, IdentifiableComponent.fromId(componentId).internalId)
+    }
+
+    @Test
+    fun `In-memory component ID of a previous run does not resolve`() {
+        val componentId = ComponentController.getComponentId(-42)
+        val previousRunComponentId = componentId.substringBeforeLast(':') + ":previous"
+
+        assertNull(ComponentController.parseComponentIdOrNull(previousRunComponentId))
+        assertNull(IdentifiableComponent.fromIdOrNull(previousRunComponentId))
+        assertThrows<IllegalArgumentException> { IdentifiableComponent.fromId(previousRunComponentId) }
+    }
+}
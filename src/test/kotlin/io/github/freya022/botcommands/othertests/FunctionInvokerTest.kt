@@ -0,0 +1,89 @@
+package io.github.freya022.botcommands.othertests
+
+import io.github.freya022.botcommands.internal.core.reflection.FunctionInvoker
+import io.github.freya022.botcommands.internal.core.reflection.ParameterMap
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.runBlocking
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import kotlin.reflect.KFunction
+import kotlin.reflect.KParameter
+
+object FunctionInvokerTest {
+    class Subject {
+        fun blocking(a: Int, b: String?): String = "$a$b"
+
+        suspend fun suspending(a: Int): Int {
+            delay(1)
+            return a * 2
+        }
+
+        fun withDefault(a: Int, b: Int = 5): Int = a + b
+
+        fun unit(a: Int) {}
+
+        fun throwing(): Nothing = throw IllegalStateException("Expected")
+    }
+
+    private val subject = Subject()
+
+    @Test
+    fun `call blocking function`() = runBlocking {
+        assertEquals("1null", call(Subject::blocking, subject, 1, null))
+    }
+
+    @Test
+    fun `call suspending function`() = runBlocking {
+        assertEquals(42, call(Subject::suspending, subject, 21))
+    }
+
+    @Test
+    fun `call function with default values`() = runBlocking {
+        val function = Subject::withDefault
+        val args = mapOf(function.parameters[0] to subject, function.parameters[1] to 1)
+        assertEquals(6, FunctionInvoker(function).callSuspendBy(args))
+    }
+
+    @Test
+    fun `call unit function`() = runBlocking {
+        assertEquals(Unit, call(Subject::unit, subject, 1))
+    }
+
+    @Test
+    fun `exceptions are not wrapped`() {
+        assertThrows<IllegalStateException> {
+            runBlocking { call(Subject::throwing, subject) }
+        }
+    }
+
+    @Test
+    fun `call with positional arguments`() = runBlocking {
+        val blocking = Subject::blocking
+        val blockingArgs = ParameterMap(blocking).apply {
+            put(blocking.parameters[0], subject)
+            put(blocking.parameters[1], 1)
+            put(blocking.parameters[2], "a")
+        }
+        assertEquals("1a", FunctionInvoker(blocking).callSuspendBy(blockingArgs))
+
+        val suspending = Subject::suspending
+        val suspendingArgs = ParameterMap(suspending).apply {
+            put(suspending.parameters[0], subject)
+            put(suspending.parameters[1], 21)
+        }
+        assertEquals(42, FunctionInvoker(suspending).callSuspendBy(suspendingArgs))
+
+        val withDefault = Subject::withDefault
+        val withDefaultArgs = ParameterMap(withDefault).apply {
+            put(withDefault.parameters[0], subject)
+            put(withDefault.parameters[1], 1)
+        }
+        assertEquals(6, FunctionInvoker(withDefault).callSuspendBy(withDefaultArgs))
+    }
+
+    private suspend fun call(function: KFunction<*>, vararg args: Any?): Any? {
+        val argMap: Map<KParameter, Any?> = function.parameters.associateWith { args[it.index] }
+        return FunctionInvoker(function).callSuspendBy(argMap)
+    }
+}
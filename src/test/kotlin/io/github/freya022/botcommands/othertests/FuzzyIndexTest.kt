@@ -0,0 +1,62 @@
+package io.github.freya022.botcommands.othertests
+
+import io.github.freya022.botcommands.api.commands.application.slash.autocomplete.AutocompleteAlgorithms
+import io.github.freya022.botcommands.api.commands.application.slash.autocomplete.FuzzyIndex
+import io.github.freya022.botcommands.api.commands.application.slash.autocomplete.selectTopResults
+import io.github.freya022.botcommands.internal.commands.application.slash.autocomplete.suppliers.FuzzyIndexCache
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.params.ParameterizedTest
+import org.junit.jupiter.params.provider.ValueSource
+import kotlin.random.Random
+
+object FuzzyIndexTest {
+    private val random = Random(42)
+    private val items: List<String> = List(10_000) {
+        val length = random.nextInt(2, 12)
+        String(CharArray(length) { "abcdeABCDE _".random(random) })
+    }
+    private val index = FuzzyIndex(items) { it }
+
+    @ParameterizedTest
+    @ValueSource(strings = ["", "a", "ab", "Abc", "cde", "b D", "eeee"])
+    fun `Index has the same results as fuzzy matching`(query: String) {
+        val expected = AutocompleteAlgorithms.fuzzyMatching(items, { it }, query).take(25)
+        assertEquals(expected.map { it.string to it.distance }, index.fuzzyMatching(query).map { it.string to it.distance })
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = ["", "a", "ab", "Abc", "cde", "b D", "eeee"])
+    fun `Index has the same results as continuity matching`(query: String) {
+        val expected = AutocompleteAlgorithms.fuzzyMatchingWithContinuity(items, { it }, query).take(25)
+        assertEquals(expected.map { it.string to it.distance }, index.fuzzyMatchingWithContinuity(query).map { it.string to it.distance })
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = ["", "a", "ab", "Abc", "cde", "b D", "eeee"])
+    fun `Parallel matching has the same results as sequential matching`(query: String) {
+        fun topResults(parallelismThreshold: Int, continuity: Boolean) =
+            selectTopResults<String>(0, items.size, 25, parallelismThreshold) { i ->
+                val str = items[i]
+                if (!continuity || str.startsWith(query, ignoreCase = true))
+                    add(str, str, AutocompleteAlgorithms.distance(str, query))
+            }.map { it.string to it.distance }
+
+        assertEquals(topResults(Int.MAX_VALUE, continuity = false), topResults(100, continuity = false))
+        assertEquals(topResults(Int.MAX_VALUE, continuity = true), topResults(100, continuity = true))
+    }
+
+    @Test
+    fun `Cached index is rebuilt when the collection is modified in place`() {
+        val cache = FuzzyIndexCache()
+        val collection: MutableList<Any> = arrayListOf("apple", "banana", "cherry")
+
+        assertNull(cache.getIndex(collection), "Collection should only be indexed when returned twice")
+        assertEquals(listOf("apple"), cache.getIndex(collection)!!.fuzzyMatching("apple", 1).map { it.string })
+
+        // Same instance and size, different content
+        collection[0] = "apricot"
+        assertNull(cache.getIndex(collection), "Modified collection should not use the previous index")
+        assertEquals(listOf("apricot"), cache.getIndex(collection)!!.fuzzyMatching("apricot", 1).map { it.string })
+    }
+}
@@ -0,0 +1,54 @@
+package io.github.freya022.botcommands.othertests
+
+import io.github.freya022.botcommands.api.core.BContext
+import io.github.freya022.botcommands.api.localization.DefaultLocalizationTemplate
+import io.github.freya022.botcommands.api.localization.arguments.factories.FormattableArgumentFactory
+import io.github.freya022.botcommands.api.localization.arguments.factories.MessageFormatArgumentFactory
+import io.github.freya022.botcommands.api.localization.localize
+import io.mockk.every
+import io.mockk.mockk
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import java.util.*
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+object LocalizationTemplateTest {
+    private val context: BContext = mockk {
+        every { serviceContainer.getInterfacedServices(FormattableArgumentFactory::class) } returns listOf(MessageFormatArgumentFactory())
+    }
+
+    private fun template(template: String) = DefaultLocalizationTemplate(context, template, Locale.ENGLISH)
+
+    @Test
+    fun `Arguments are replaced by name`() {
+        val template = template("{user_amount} {user_amount, choice, 0#users|1#user|1<users}, up for {uptime, number} seconds")
+
+        assertEquals(
+            "1 user, up for 1,234 seconds",
+            template.localize("uptime" to 1234, "user_amount" to 1, "unused" to "value")
+        )
+    }
+
+    @Test
+    fun `Missing arguments throw`() {
+        val template = template("Hello {name}")
+
+        assertThrows<IllegalArgumentException> { template.localize() }
+    }
+
+    @Test
+    fun `Formatting is thread-safe`() {
+        val template = template("{value, number}")
+        val executor = Executors.newFixedThreadPool(16)
+        val results = (0..<10_000).map { i ->
+            executor.submit<Pair<Int, String>> { i to template.localize("value" to i) }
+        }.map { it.get(10, TimeUnit.SECONDS) }
+        executor.shutdown()
+
+        results.forEach { (i, result) ->
+            assertEquals("%,d".format(Locale.ENGLISH, i), result)
+        }
+    }
+}
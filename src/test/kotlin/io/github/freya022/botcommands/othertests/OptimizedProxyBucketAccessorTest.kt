@@ -0,0 +1,51 @@
+package io.github.freya022.botcommands.othertests
+
+import com.github.benmanes.caffeine.cache.Caffeine
+import io.github.bucket4j.Bandwidth
+import io.github.bucket4j.BucketConfiguration
+import io.github.bucket4j.caffeine.Bucket4jCaffeine
+import io.github.bucket4j.distributed.proxy.optimization.Optimizations
+import io.github.freya022.botcommands.api.commands.ratelimit.bucket.BucketConfigurationSupplier
+import io.github.freya022.botcommands.api.commands.ratelimit.bucket.BucketKeySupplier
+import io.github.freya022.botcommands.api.commands.ratelimit.bucket.OptimizedProxyBucketAccessor
+import io.github.freya022.botcommands.api.core.utils.refillIntervally
+import io.mockk.every
+import io.mockk.mockk
+import io.mockk.verify
+import kotlinx.coroutines.runBlocking
+import net.dv8tion.jda.api.events.interaction.component.GenericComponentInteractionCreateEvent
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+import kotlin.time.Duration.Companion.minutes
+
+object OptimizedProxyBucketAccessorTest {
+    private const val KEY = "key"
+
+    private val configuration = BucketConfiguration.builder()
+        .addLimit(Bandwidth.builder().capacity(5).refillIntervally(5, 1.minutes).build())
+        .build()
+
+    @Test
+    fun `Configuration is only resolved when creating the proxy`(): Unit = runBlocking {
+        val proxyManager = Bucket4jCaffeine.builderFor<String>(Caffeine.newBuilder()).build()
+        val keySupplier = mockk<BucketKeySupplier<String>> {
+            every { getKey(any(), any<GenericComponentInteractionCreateEvent>(), any()) } returns KEY
+        }
+        val configurationSupplier = mockk<BucketConfigurationSupplier> {
+            every { getConfiguration(any(), any<GenericComponentInteractionCreateEvent>()) } returns configuration
+        }
+        val accessor = OptimizedProxyBucketAccessor(proxyManager, keySupplier, configurationSupplier, Optimizations.batching())
+
+        val firstEvent = mockk<GenericComponentInteractionCreateEvent>()
+        val bucket = accessor.getBucket(mockk(), firstEvent, mockk())
+        assertTrue(bucket.tryConsume(1))
+
+        // Remote state is lost, the retained proxy recreates it from its configuration
+        proxyManager.removeProxy(KEY)
+        assertTrue(accessor.getBucket(mockk(), mockk<GenericComponentInteractionCreateEvent>(), mockk()).tryConsume(1))
+        assertEquals(4, bucket.availableTokens)
+
+        verify(exactly = 1) { configurationSupplier.getConfiguration(any(), any<GenericComponentInteractionCreateEvent>()) }
+    }
+}
@@ -0,0 +1,39 @@
+package io.github.freya022.botcommands.othertests
+
+import io.github.freya022.botcommands.internal.commands.text.PrefixMatcher
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.Test
+
+object PrefixMatcherTest {
+    @Test
+    fun `First matching prefix is returned`() {
+        val matcher = PrefixMatcher(listOf("!", "!!", "?"))
+
+        // Same as a linear search, even if a longer prefix matches
+        assertEquals("!", matcher.findPrefix("!!help"))
+        assertEquals("?", matcher.findPrefix("?help"))
+        assertEquals("!!", PrefixMatcher(listOf("!!", "!")).findPrefix("!!help"))
+    }
+
+    @Test
+    fun `No matching prefix returns null`() {
+        val matcher = PrefixMatcher(listOf("!", "bot "))
+
+        assertNull(matcher.findPrefix("help"))
+        assertNull(matcher.findPrefix("bo help"))
+        assertNull(matcher.findPrefix(""))
+        assertNull(PrefixMatcher(emptyList()).findPrefix("!help"))
+    }
+
+    @Test
+    fun `Empty prefix matches every message`() {
+        assertEquals("", PrefixMatcher(listOf("")).findPrefix("help"))
+        assertEquals("", PrefixMatcher(listOf("")).findPrefix(""))
+
+        // Prefixes before the empty prefix still take precedence
+        assertEquals("!", PrefixMatcher(listOf("!", "")).findPrefix("!help"))
+        assertEquals("", PrefixMatcher(listOf("!", "")).findPrefix("help"))
+        assertEquals("", PrefixMatcher(listOf("", "!")).findPrefix("!help"))
+    }
+}
@@ -0,0 +1,73 @@
+package io.github.freya022.botcommands.othertests
+
+import io.github.freya022.botcommands.api.core.config.BConfig
+import io.github.freya022.botcommands.api.core.service.ScanIndex
+import io.github.freya022.botcommands.internal.core.service.ScanIndexes
+import io.mockk.every
+import io.mockk.mockk
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.io.TempDir
+import java.net.URLClassLoader
+import java.nio.file.Path
+import java.util.*
+import kotlin.io.path.outputStream
+import kotlin.io.path.readText
+
+object ScanIndexTest {
+    private val packages = listOf("io.github.freya022.botcommands.othertests")
+    private val classes = listOf(ScanIndexTest::class.java)
+
+    private val config: BConfig = mockk {
+        every { useScanIndex } returns true
+        every { this@mockk.packages } returns packages.toSet()
+        every { this@mockk.classes } returns classes.toSet()
+    }
+
+    private fun indexClassLoader(directory: Path) = URLClassLoader(arrayOf(directory.toUri().toURL()), null)
+
+    @Test
+    fun `Index has the same classes as a scan`(@TempDir directory: Path) {
+        ScanIndex.generate(directory, packages, classes.map { it.name })
+
+        val expectedClasses = ScanIndexes.createReflectionScan(packages, classes.map { it.name }).scan().use { it.allClasses.names.toSet() }
+        val indexedClasses = ScanIndexes.loadReflectionIndex(config, indexClassLoader(directory))!!.use { it.allClasses.names.toSet() }
+        assertEquals(expectedClasses, indexedClasses)
+
+        val expectedEvents = ScanIndexes.createEventScan().scan().use { it.allClasses.names.toSet() }
+        val indexedEvents = ScanIndexes.loadEventIndex(config, indexClassLoader(directory))!!.use { it.allClasses.names.toSet() }
+        assertEquals(expectedEvents, indexedEvents)
+    }
+
+    @Test
+    fun `Index of other versions is ignored`(@TempDir directory: Path) {
+        ScanIndex.generate(directory, packages, classes.map { it.name })
+
+        val propertiesPath = directory.resolve(ScanIndexes.REFLECTION_INDEX_PROPERTIES_PATH)
+        val properties = Properties().apply { load(propertiesPath.readText().reader()) }
+        properties.setProperty("jdaVersion", "0.0.0")
+        propertiesPath.outputStream().use { properties.store(it, null) }
+
+        assertNull(ScanIndexes.loadReflectionIndex(config, indexClassLoader(directory)))
+        assertNull(ScanIndexes.loadEventIndex(config, indexClassLoader(directory)))
+    }
+
+    @Test
+    fun `Outdated index is ignored`(@TempDir directory: Path) {
+        ScanIndex.generate(directory, packages, classes.map { it.name })
+
+        val propertiesPath = directory.resolve(ScanIndexes.REFLECTION_INDEX_PROPERTIES_PATH)
+        val properties = Properties().apply { load(propertiesPath.readText().reader()) }
+        properties.setProperty("classFingerprint", "outdated")
+        propertiesPath.outputStream().use { properties.store(it, null) }
+
+        assertNull(ScanIndexes.loadReflectionIndex(config, indexClassLoader(directory)))
+    }
+
+    @Test
+    fun `Missing index is ignored`(@TempDir directory: Path) {
+        assertNull(ScanIndexes.loadReflectionIndex(config, indexClassLoader(directory)))
+        assertNull(ScanIndexes.loadEventIndex(config, indexClassLoader(directory)))
+    }
+}
@@ -0,0 +1,58 @@
+package io.github.freya022.botcommands.othertests
+
+import io.github.freya022.botcommands.internal.core.service.ServiceCreationLocks
+import io.github.freya022.botcommands.internal.core.service.provider.ClassServiceProvider
+import io.mockk.every
+import io.mockk.mockk
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+object ServiceCreationLocksTest {
+    private fun provider(key: String): ClassServiceProvider = mockk {
+        every { providerKey } returns key
+    }
+
+    @Test
+    fun `Circular dependencies between threads are detected`() {
+        val locks = ServiceCreationLocks()
+        val providerA = provider("A")
+        val providerB = provider("B")
+        val bothLocked = CountDownLatch(2)
+        val executor = Executors.newFixedThreadPool(2)
+
+        fun createAsync(first: ClassServiceProvider, second: ClassServiceProvider) = CompletableFuture.runAsync({
+            locks.withCreationLock(first, { it() }) {
+                bothLocked.countDown()
+                bothLocked.await()
+                locks.withCreationLock(second, { it() }) { }
+            }
+        }, executor)
+
+        val futures = listOf(createAsync(providerA, providerB), createAsync(providerB, providerA))
+        val failures = futures.map { future ->
+            runCatching { future.get(10, TimeUnit.SECONDS) }.exceptionOrNull()
+        }
+        executor.shutdown()
+
+        // At least one thread detects the cycle, instead of both waiting forever
+        val causes = failures.filterNotNull().map { it.cause }
+        assertTrue(causes.isNotEmpty())
+        assertTrue(causes.all { it is IllegalStateException })
+    }
+
+    @Test
+    fun `Locks are reentrant`() {
+        val locks = ServiceCreationLocks()
+        val provider = provider("A")
+
+        val result = locks.withCreationLock(provider, { it() }) {
+            locks.withCreationLock(provider, { it() }) { 42 }
+        }
+        assertEquals(42, result)
+    }
+}
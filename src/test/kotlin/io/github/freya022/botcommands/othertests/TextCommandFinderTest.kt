@@ -0,0 +1,78 @@
+package io.github.freya022.botcommands.othertests
+
+import io.github.freya022.botcommands.internal.commands.text.TextCommandInfoImpl
+import io.github.freya022.botcommands.internal.commands.text.findCommandWithArgs
+import io.mockk.every
+import io.mockk.mockk
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.Test
+
+object TextCommandFinderTest {
+    private fun command(hidden: Boolean = false, subcommands: Map<String, TextCommandInfoImpl> = emptyMap()): TextCommandInfoImpl = mockk {
+        every { this@mockk.hidden } returns hidden
+        every { this@mockk.subcommands } returns subcommands
+    }
+
+    private val ban = command()
+    private val hiddenReload = command(hidden = true)
+    private val configSet = command()
+    private val config = command(subcommands = mapOf("reload" to hiddenReload, "set" to configSet, "s" to configSet))
+    private val hiddenDebug = command(hidden = true)
+    private val rootCommands = mapOf(
+        "ban" to ban,
+        "b" to ban,
+        "config" to config,
+        "cfg" to config,
+        "debug" to hiddenDebug
+    )
+
+    @Test
+    fun `Hidden subcommands are ignored for non-owners`() {
+        val result = findCommandWithArgs(rootCommands, "config reload now", isNotOwner = true)!!
+        assertEquals(config, result.command)
+        assertEquals("reload now", result.args)
+
+        assertNull(findCommandWithArgs(rootCommands, "debug", isNotOwner = true))
+    }
+
+    @Test
+    fun `Hidden subcommands are found for owners`() {
+        val result = findCommandWithArgs(rootCommands, "config reload now", isNotOwner = false)!!
+        assertEquals(hiddenReload, result.command)
+        assertEquals("now", result.args)
+    }
+
+    @Test
+    fun `Aliases are matched`() {
+        val result = findCommandWithArgs(rootCommands, "cfg s key value", isNotOwner = true)!!
+        assertEquals(configSet, result.command)
+        assertEquals("key value", result.args)
+
+        assertEquals(ban, findCommandWithArgs(rootCommands, "b user", isNotOwner = true)!!.command)
+    }
+
+    @Test
+    fun `Whitespace runs are skipped`() {
+        val result = findCommandWithArgs(rootCommands, " \tconfig\n\n  set\t key  value", isNotOwner = true)!!
+        assertEquals(configSet, result.command)
+        assertEquals("key  value", result.args)
+    }
+
+    @Test
+    fun `Args containing the command name are kept`() {
+        val result = findCommandWithArgs(rootCommands, "ban ban reason", isNotOwner = true)!!
+        assertEquals(ban, result.command)
+        assertEquals("ban reason", result.args)
+
+        val aliased = findCommandWithArgs(rootCommands, "cfg set cfg set", isNotOwner = true)!!
+        assertEquals(configSet, aliased.command)
+        assertEquals("cfg set", aliased.args)
+    }
+
+    @Test
+    fun `Unknown commands are not found`() {
+        assertNull(findCommandWithArgs(rootCommands, "unknown ban", isNotOwner = true))
+        assertNull(findCommandWithArgs(rootCommands, "", isNotOwner = true))
+    }
+}
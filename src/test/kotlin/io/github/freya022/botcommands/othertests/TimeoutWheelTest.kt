@@ -0,0 +1,74 @@
+package io.github.freya022.botcommands.othertests
+
+import io.github.freya022.botcommands.internal.core.timeout.TimeoutWheel
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+import kotlin.time.Duration.Companion.milliseconds
+
+object TimeoutWheelTest {
+    @Test
+    fun `expired timeouts run`() {
+        val wheel = TimeoutWheel("Test wheel", tickDuration = 10.milliseconds, wheelSize = 8)
+        val latch = CountDownLatch(3)
+        // Last timeout goes over more than one wheel rotation
+        listOf(5.milliseconds, 50.milliseconds, 200.milliseconds).forEach { delay ->
+            wheel.schedule(delay) { latch.countDown() }
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS), "Timeouts did not run")
+        assertEquals(0, wheel.pendingTimeouts)
+    }
+
+    @Test
+    fun `cancelled timeouts do not run`() {
+        val wheel = TimeoutWheel("Test wheel", tickDuration = 10.milliseconds, wheelSize = 8)
+        val ran = AtomicBoolean(false)
+        val timeout = wheel.schedule(50.milliseconds) { ran.set(true) }
+        assertTrue(timeout.cancel())
+        assertFalse(timeout.cancel())
+        assertEquals(0, wheel.pendingTimeouts)
+
+        val latch = CountDownLatch(1)
+        wheel.schedule(100.milliseconds) { latch.countDown() }
+        assertTrue(latch.await(5, TimeUnit.SECONDS), "Timeout did not run")
+        assertFalse(ran.get(), "Cancelled timeout ran")
+        assertTrue(timeout.isCancelled)
+    }
+
+    @Test
+    fun `stopped wheels do not run timeouts`() {
+        val wheel = TimeoutWheel("Test wheel", tickDuration = 10.milliseconds, wheelSize = 8)
+        val ran = AtomicBoolean(false)
+        wheel.schedule(50.milliseconds) { ran.set(true) }
+        wheel.stop()
+
+        Thread.sleep(200)
+        assertFalse(ran.get(), "Timeout ran after the wheel was stopped")
+    }
+
+    @Test
+    fun `stopped wheels reject timeouts`() {
+        val wheel = TimeoutWheel("Test wheel", tickDuration = 10.milliseconds, wheelSize = 8)
+        wheel.stop()
+
+        val timeout = wheel.schedule(50.milliseconds) { }
+        assertTrue(timeout.isCancelled)
+        assertEquals(0, wheel.pendingTimeouts)
+    }
+
+    @Test
+    fun `restarted wheels run pending timeouts`() {
+        val wheel = TimeoutWheel("Test wheel", tickDuration = 10.milliseconds, wheelSize = 8)
+        val latch = CountDownLatch(2)
+        wheel.schedule(50.milliseconds) { latch.countDown() }
+        wheel.stop()
+
+        wheel.start()
+        wheel.schedule(50.milliseconds) { latch.countDown() }
+        assertTrue(latch.await(5, TimeUnit.SECONDS), "Timeouts did not run after restarting")
+        assertEquals(0, wheel.pendingTimeouts)
+    }
+}
@@ -0,0 +1,66 @@
+package io.github.freya022.botcommands.othertests
+
+import io.github.freya022.botcommands.internal.core.waiter.EventDiscriminator
+import io.github.freya022.botcommands.internal.core.waiter.WaiterIndex
+import io.github.freya022.botcommands.internal.core.waiter.WaitingEvent
+import io.mockk.every
+import io.mockk.mockk
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import java.util.*
+
+object WaiterIndexTest {
+    private fun messageEvent(userId: Long, channelId: Long): MessageReceivedEvent = mockk {
+        every { messageIdLong } returns 1L
+        every { author.idLong } returns userId
+        every { channel.idLong } returns channelId
+        every { isFromGuild } returns false
+    }
+
+    private fun waitingEvent(vararg discriminators: Pair<EventDiscriminator, Long>): WaitingEvent<MessageReceivedEvent> {
+        val discriminatorMap = EnumMap<EventDiscriminator, Long>(EventDiscriminator::class.java)
+        discriminatorMap.putAll(discriminators)
+        return WaitingEvent(MessageReceivedEvent::class.java, discriminatorMap, emptyList(), null, null, null, null, null)
+    }
+
+    private fun WaiterIndex.candidates(event: MessageReceivedEvent): List<WaitingEvent<*>> =
+        buildList { forEachCandidate(event) { add(it) } }
+
+    @Test
+    fun `Only candidates with matching IDs are returned`() {
+        val index = WaiterIndex()
+        val userWaiter = waitingEvent(EventDiscriminator.USER to 10L)
+        val otherUserWaiter = waitingEvent(EventDiscriminator.USER to 20L)
+        val unindexedWaiter = waitingEvent()
+        listOf(userWaiter, otherUserWaiter, unindexedWaiter).forEach(index::add)
+
+        val candidates = index.candidates(messageEvent(userId = 10L, channelId = 100L))
+        assertEquals(setOf(userWaiter, unindexedWaiter), candidates.toSet())
+        assertEquals(2, candidates.size)
+    }
+
+    @Test
+    fun `Waiters are indexed once and checked against all IDs`() {
+        val index = WaiterIndex()
+        val waiter = waitingEvent(EventDiscriminator.USER to 10L, EventDiscriminator.CHANNEL to 100L)
+        index.add(waiter)
+
+        assertEquals(EventDiscriminator.USER, waiter.indexDiscriminator)
+        assertEquals(listOf(waiter), index.candidates(messageEvent(userId = 10L, channelId = 100L)))
+
+        val otherChannelEvent = messageEvent(userId = 10L, channelId = 200L)
+        assertEquals(listOf(waiter), index.candidates(otherChannelEvent))
+        assertFalse(waiter.matchesDiscriminators(otherChannelEvent))
+    }
+
+    @Test
+    fun `Removed waiters are not candidates`() {
+        val index = WaiterIndex()
+        val waiter = waitingEvent(EventDiscriminator.USER to 10L)
+        index.add(waiter)
+        index.remove(waiter)
+
+        assertTrue(index.candidates(messageEvent(userId = 10L, channelId = 100L)).isEmpty())
+    }
+}